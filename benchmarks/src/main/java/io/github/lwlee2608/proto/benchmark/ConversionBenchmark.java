@@ -0,0 +1,65 @@
+package io.github.lwlee2608.proto.benchmark;
+
+import io.github.lwlee2608.proto.example.helloworld.HelloReply;
+import io.github.lwlee2608.proto.example.helloworld.Helloworld;
+import io.github.lwlee2608.proto.example.helloworld.HelloworldProto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POJO to protobuf conversions and back of the generated {@code HelloworldProto.XxxMessage} classes against the same
+ * conversions written by hand ({@link HandWrittenConverter}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+    @Param({"FLAT", "LIST", "MAP", "NESTED"})
+    private MessageShape shape;
+
+    @Param({"16"})
+    private int elements;
+
+    private HelloReply pojo;
+    private Helloworld.HelloReply proto;
+
+    @Setup
+    public void setup() {
+        pojo = shape.reply(elements);
+        proto = HelloworldProto.HelloReplyMessage.toProto(pojo);
+    }
+
+    @Benchmark
+    public Helloworld.HelloReply generatedToProto() {
+        return HelloworldProto.HelloReplyMessage.toProto(pojo);
+    }
+
+    @Benchmark
+    public Helloworld.HelloReply handWrittenToProto() {
+        return HandWrittenConverter.toProto(pojo);
+    }
+
+    @Benchmark
+    public HelloReply generatedFromProto() {
+        return HelloworldProto.HelloReplyMessage.fromProto(proto);
+    }
+
+    @Benchmark
+    public HelloReply handWrittenFromProto() {
+        return HandWrittenConverter.fromProto(proto);
+    }
+}
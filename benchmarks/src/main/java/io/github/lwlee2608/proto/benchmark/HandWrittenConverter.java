@@ -0,0 +1,182 @@
+package io.github.lwlee2608.proto.benchmark;
+
+import com.google.protobuf.BoolValue;
+import com.google.protobuf.DoubleValue;
+import com.google.protobuf.FloatValue;
+import com.google.protobuf.Int32Value;
+import com.google.protobuf.Int64Value;
+import com.google.protobuf.StringValue;
+import io.github.lwlee2608.proto.example.helloworld.AllTypePayload;
+import io.github.lwlee2608.proto.example.helloworld.HelloReply;
+import io.github.lwlee2608.proto.example.helloworld.Helloworld;
+import io.github.lwlee2608.proto.example.helloworld.ResultCode;
+import io.github.lwlee2608.proto.example.helloworld.SimplePayload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The conversions of the generated {@code HelloworldProto.XxxMessage} classes written by hand as one would without the
+ * generator: plain loops instead of lambdas and streams, lists allocated at their final size and the enum
+ * messages built once. It is the baseline the generated code is measured against.
+ */
+public final class HandWrittenConverter {
+    private static final Helloworld.ResultCodeEnum[] RESULT_CODES = new Helloworld.ResultCodeEnum[ResultCode.values().length];
+
+    static {
+        for (ResultCode resultCode : ResultCode.values()) {
+            RESULT_CODES[resultCode.ordinal()] = Helloworld.ResultCodeEnum.newBuilder()
+                    .setValue(Helloworld.ResultCode.valueOf(resultCode.value())).build();
+        }
+    }
+
+    private HandWrittenConverter() {
+    }
+
+    public static Helloworld.HelloReply toProto(HelloReply pojo) {
+        Helloworld.HelloReply.Builder builder = Helloworld.HelloReply.newBuilder();
+        if (pojo.getName() != null) {
+            builder.setName(StringValue.of(pojo.getName()));
+        }
+        if (pojo.getPayload() != null) {
+            builder.setPayload(toProto(pojo.getPayload()));
+        }
+        return builder.build();
+    }
+
+    public static Helloworld.AllTypePayload toProto(AllTypePayload pojo) {
+        Helloworld.AllTypePayload.Builder builder = Helloworld.AllTypePayload.newBuilder();
+        if (pojo.getStringField() != null) {
+            builder.setStringField(StringValue.of(pojo.getStringField()));
+        }
+        if (pojo.getIntegerField() != null) {
+            builder.setIntegerField(Int32Value.of(pojo.getIntegerField()));
+        }
+        if (pojo.getLongField() != null) {
+            builder.setLongField(Int64Value.of(pojo.getLongField()));
+        }
+        if (pojo.getFloatField() != null) {
+            builder.setFloatField(FloatValue.of(pojo.getFloatField()));
+        }
+        if (pojo.getDoubleField() != null) {
+            builder.setDoubleField(DoubleValue.of(pojo.getDoubleField()));
+        }
+        if (pojo.getBooleanField() != null) {
+            builder.setBooleanField(BoolValue.of(pojo.getBooleanField()));
+        }
+        if (pojo.getResultCode() != null) {
+            builder.setResultCode(RESULT_CODES[pojo.getResultCode().ordinal()]);
+        }
+        if (pojo.getArrayIntField() != null) {
+            for (Integer value : pojo.getArrayIntField()) {
+                builder.addArrayIntField(Int32Value.of(value));
+            }
+        }
+        if (pojo.getArrayStringField() != null) {
+            for (String value : pojo.getArrayStringField()) {
+                builder.addArrayStringField(StringValue.of(value));
+            }
+        }
+        if (pojo.getArrayPayloadField() != null) {
+            for (SimplePayload value : pojo.getArrayPayloadField()) {
+                builder.addArrayPayloadField(toProto(value));
+            }
+        }
+        if (pojo.getMetadata() != null) {
+            builder.putAllMetadata(pojo.getMetadata());
+        }
+        if (pojo.getIntegerMapField() != null) {
+            builder.putAllIntegerMapField(pojo.getIntegerMapField());
+        }
+        return builder.build();
+    }
+
+    public static Helloworld.SimplePayload toProto(SimplePayload pojo) {
+        Helloworld.SimplePayload.Builder builder = Helloworld.SimplePayload.newBuilder();
+        if (pojo.getStringField() != null) {
+            builder.setStringField(StringValue.of(pojo.getStringField()));
+        }
+        if (pojo.getIntegerField() != null) {
+            builder.setIntegerField(Int32Value.of(pojo.getIntegerField()));
+        }
+        return builder.build();
+    }
+
+    public static HelloReply fromProto(Helloworld.HelloReply proto) {
+        HelloReply pojo = new HelloReply();
+        if (proto.hasName()) {
+            pojo.setName(proto.getName().getValue());
+        }
+        if (proto.hasPayload()) {
+            pojo.setPayload(fromProto(proto.getPayload()));
+        }
+        return pojo;
+    }
+
+    public static AllTypePayload fromProto(Helloworld.AllTypePayload proto) {
+        AllTypePayload pojo = new AllTypePayload();
+        if (proto.hasStringField()) {
+            pojo.setStringField(proto.getStringField().getValue());
+        }
+        if (proto.hasIntegerField()) {
+            pojo.setIntegerField(proto.getIntegerField().getValue());
+        }
+        if (proto.hasLongField()) {
+            pojo.setLongField(proto.getLongField().getValue());
+        }
+        if (proto.hasFloatField()) {
+            pojo.setFloatField(proto.getFloatField().getValue());
+        }
+        if (proto.hasDoubleField()) {
+            pojo.setDoubleField(proto.getDoubleField().getValue());
+        }
+        if (proto.hasBooleanField()) {
+            pojo.setBooleanField(proto.getBooleanField().getValue());
+        }
+        if (proto.hasResultCode()) {
+            pojo.setResultCode(ResultCode.valueOf(proto.getResultCode().getValueValue()));
+        }
+        int count = proto.getArrayIntFieldCount();
+        if (count > 0) {
+            List<Integer> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(proto.getArrayIntField(i).getValue());
+            }
+            pojo.setArrayIntField(values);
+        }
+        count = proto.getArrayStringFieldCount();
+        if (count > 0) {
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(proto.getArrayStringField(i).getValue());
+            }
+            pojo.setArrayStringField(values);
+        }
+        count = proto.getArrayPayloadFieldCount();
+        if (count > 0) {
+            List<SimplePayload> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(fromProto(proto.getArrayPayloadField(i)));
+            }
+            pojo.setArrayPayloadField(values);
+        }
+        if (proto.getMetadataCount() > 0) {
+            pojo.setMetadata(proto.getMetadataMap());
+        }
+        if (proto.getIntegerMapFieldCount() > 0) {
+            pojo.setIntegerMapField(proto.getIntegerMapFieldMap());
+        }
+        return pojo;
+    }
+
+    public static SimplePayload fromProto(Helloworld.SimplePayload proto) {
+        SimplePayload pojo = new SimplePayload();
+        if (proto.hasStringField()) {
+            pojo.setStringField(proto.getStringField().getValue());
+        }
+        if (proto.hasIntegerField()) {
+            pojo.setIntegerField(proto.getIntegerField().getValue());
+        }
+        return pojo;
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.lwlee2608.proto.benchmark;
+
+import io.github.lwlee2608.proto.example.helloworld.AllTypePayload;
+import io.github.lwlee2608.proto.example.helloworld.HelloReply;
+import io.github.lwlee2608.proto.example.helloworld.HelloRequest;
+import io.github.lwlee2608.proto.example.helloworld.ResultCode;
+import io.github.lwlee2608.proto.example.helloworld.SimplePayload;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shapes of the example messages measured by the benchmarks, every one of them holding the scalar fields of
+ * {@link AllTypePayload} and growing with the number of elements given.
+ */
+public enum MessageShape {
+    /** Scalar fields only. */
+    FLAT,
+    /** Lists of integers and strings. */
+    LIST,
+    /** Maps of strings and integers. */
+    MAP,
+    /** List of nested messages. */
+    NESTED;
+
+    public HelloReply reply(int elements) {
+        return new HelloReply().setName("Hello World").setPayload(payload(elements));
+    }
+
+    public AllTypePayload payload(int elements) {
+        AllTypePayload payload = new AllTypePayload()
+                .setStringField("Hello World")
+                .setIntegerField(Integer.MAX_VALUE)
+                .setLongField(Long.MAX_VALUE)
+                .setFloatField(3.14f)
+                .setDoubleField(2.718281828)
+                .setBooleanField(true)
+                .setResultCode(ResultCode.SUCCESS);
+        switch (this) {
+            case LIST:
+                List<Integer> integers = new ArrayList<>();
+                List<String> strings = new ArrayList<>();
+                for (int i = 0; i < elements; i++) {
+                    integers.add(i);
+                    strings.add("value-" + i);
+                }
+                payload.setArrayIntField(integers).setArrayStringField(strings);
+                break;
+            case MAP:
+                Map<String, String> metadata = new HashMap<>();
+                Map<String, Integer> integerMap = new HashMap<>();
+                for (int i = 0; i < elements; i++) {
+                    metadata.put("key-" + i, "value-" + i);
+                    integerMap.put("key-" + i, i);
+                }
+                payload.setMetadata(metadata).setIntegerMapField(integerMap);
+                break;
+            case NESTED:
+                List<SimplePayload> nested = new ArrayList<>();
+                for (int i = 0; i < elements; i++) {
+                    nested.add(new SimplePayload().setStringField("value-" + i).setIntegerField(i));
+                }
+                payload.setArrayPayloadField(nested);
+                break;
+            default:
+                break;
+        }
+        return payload;
+    }
+
+    public static HelloRequest request() {
+        return new HelloRequest().setMessage("Hello").setId(1);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.lwlee2608.proto.benchmark;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.github.lwlee2608.proto.example.helloworld.HelloReply;
+import io.github.lwlee2608.proto.example.helloworld.Helloworld;
+import io.github.lwlee2608.proto.example.helloworld.HelloworldProto;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A message from its POJO to the bytes sent and back, as the generated stubs do it, as lists, maps and nested messages
+ * grow. The encoded size of the message is reported as the {@code messageBytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSizeBenchmark {
+    @Param({"FLAT", "LIST", "MAP", "NESTED"})
+    private MessageShape shape;
+
+    @Param({"1", "16", "256"})
+    private int elements;
+
+    private HelloReply pojo;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        pojo = shape.reply(elements);
+        bytes = HelloworldProto.HelloReplyMessage.toProto(pojo).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encode(Size size) {
+        byte[] encoded = HelloworldProto.HelloReplyMessage.toProto(pojo).toByteArray();
+        size.messageBytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public HelloReply decode(Size size) throws InvalidProtocolBufferException {
+        size.messageBytes = bytes.length;
+        return HelloworldProto.HelloReplyMessage.fromProto(Helloworld.HelloReply.parseFrom(bytes));
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long messageBytes;
+    }
+}
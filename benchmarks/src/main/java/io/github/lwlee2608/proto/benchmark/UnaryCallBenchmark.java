@@ -0,0 +1,135 @@
+package io.github.lwlee2608.proto.benchmark;
+
+import io.github.lwlee2608.proto.example.helloworld.Greeter;
+import io.github.lwlee2608.proto.example.helloworld.HelloReply;
+import io.github.lwlee2608.proto.example.helloworld.HelloRequest;
+import io.github.lwlee2608.proto.example.helloworld.HelloworldProto;
+import io.github.lwlee2608.proto.example.helloworld.HelloworldVertxGrpcClient;
+import io.github.lwlee2608.proto.example.helloworld.HelloworldVertxGrpcServer;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.reactivex.Single;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.http.HttpServer;
+import io.vertx.reactivex.core.net.SocketAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unary round trips of the example {@link Greeter} through the generated stubs, the reply carrying a payload of the
+ * given shape.
+ * <ul>
+ *     <li>{@code IN_PROCESS}: default-gen client and server over the in-process transport, run on the calling thread</li>
+ *     <li>{@code LOCAL}: default-gen local client and service, handing the POJOs over without serialization</li>
+ *     <li>{@code NETTY}: default-gen client and server over loopback TCP</li>
+ *     <li>{@code VERTX}: Vert.x-gen client and server over loopback TCP, Vert.x having no in-process transport</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnaryCallBenchmark {
+    public enum Transport { IN_PROCESS, LOCAL, NETTY, VERTX }
+
+    @Param({"IN_PROCESS", "LOCAL", "NETTY", "VERTX"})
+    private Transport transport;
+
+    @Param({"FLAT", "NESTED"})
+    private MessageShape shape;
+
+    @Param({"16"})
+    private int elements;
+
+    private HelloRequest request;
+    private Greeter client;
+    private Server server;
+    private ManagedChannel channel;
+    private Vertx vertx;
+    private HttpServer httpServer;
+
+    @Setup
+    public void setup() throws IOException {
+        request = MessageShape.request();
+        HelloReply reply = shape.reply(elements);
+        Greeter greeter = request -> CompletableFuture.completedFuture(reply);
+        HelloworldProto.GreeterService.GreeterServerImpl greeterServer = new HelloworldProto.GreeterService.GreeterServerImpl(greeter);
+        switch (transport) {
+            case IN_PROCESS:
+                server = InProcessServerBuilder.forName("benchmark").directExecutor().addService(greeterServer).build().start();
+                channel = InProcessChannelBuilder.forName("benchmark").directExecutor().build();
+                client = new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT);
+                break;
+            case LOCAL:
+                server = InProcessServerBuilder.forName("benchmark").directExecutor().addService(greeterServer.bindLocalService()).build().start();
+                channel = InProcessChannelBuilder.forName("benchmark").directExecutor().build();
+                client = new HelloworldProto.GreeterService.GreeterLocalClientImpl(channel, CallOptions.DEFAULT);
+                break;
+            case NETTY:
+                server = ServerBuilder.forPort(0).addService(greeterServer).build().start();
+                channel = ManagedChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+                client = new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT);
+                break;
+            case VERTX:
+                vertx = Vertx.vertx();
+                HelloworldVertxGrpcServer grpcServer = new HelloworldVertxGrpcServer(vertx);
+                grpcServer.callHandlers(new HelloworldVertxGrpcServer.GreeterApi() {
+                    @Override
+                    public Single<HelloReply> sayHello(HelloRequest request) {
+                        return Single.just(reply);
+                    }
+                });
+                httpServer = vertx.createHttpServer().requestHandler(grpcServer.getGrpcServer()).rxListen(0).blockingGet();
+                HelloworldVertxGrpcClient vertxClient = new HelloworldVertxGrpcClient(vertx,
+                        SocketAddress.inetSocketAddress(httpServer.actualPort(), "localhost"));
+                client = request -> {
+                    CompletableFuture<HelloReply> future = new CompletableFuture<>();
+                    vertxClient.sayHello(request).subscribe(future::complete, future::completeExceptionally);
+                    return future;
+                };
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (httpServer != null) {
+            httpServer.rxClose().blockingAwait();
+        }
+        if (vertx != null) {
+            vertx.rxClose().blockingAwait();
+        }
+    }
+
+    @Benchmark
+    public HelloReply sayHello() {
+        return client.sayHello(request).join();
+    }
+}
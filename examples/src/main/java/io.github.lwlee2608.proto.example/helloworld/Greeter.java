@@ -5,7 +5,7 @@ import io.github.lwlee2608.proto.annotation.ProtoService;
 
 import java.util.concurrent.CompletableFuture;
 
-@ProtoService(protoName = "helloworld", protoPackage = "example.helloworld")
+@ProtoService(protoName = "helloworld", protoPackage = "example.helloworld", nonBlocking = true)
 public interface Greeter {
     @ProtoMethod CompletableFuture<HelloReply> sayHello(HelloRequest request);
 }
@@ -10,5 +10,5 @@ import lombok.experimental.Accessors;
 @ProtoMessage(protoName = "helloworld", protoPackage = "example.helloworld")
 public class HelloRequest {
     @ProtoField(tag = 1) private String message;
-    @ProtoField(tag = 2) private Integer id;
+    @ProtoField(tag = 2, routingKey = true) private Integer id;
 }
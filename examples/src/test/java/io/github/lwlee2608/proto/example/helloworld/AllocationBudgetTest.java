@@ -0,0 +1,191 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import com.sun.management.ThreadMXBean;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Bytes allocated per conversion and per in-process unary call, over a matrix of message shapes, against the budgets
+ * recorded in {@code allocation-budgets.properties}. Allocations are counted on the calling thread once the code is
+ * compiled. The budgets depend on the JVM and are recorded on the one CI builds with, after an intended change record
+ * them again with {@code mvn test -pl examples -Dtest=AllocationBudgetTest -Dallocation.budgets.record=<path to the budgets>}.
+ */
+class AllocationBudgetTest {
+    private static final String BUDGETS = "/allocation-budgets.properties";
+    private static final String RECORD = "allocation.budgets.record";
+    private static final double HEADROOM = 1.25;
+    private static final String HEADER = ""
+            + "# Bytes allocated per operation at most (measured + " + Math.round((HEADROOM - 1) * 100) + "%), checked by AllocationBudgetTest.\n"
+            + "# Conversions of a HelloReply holding an AllTypePayload of the given shape and number of elements, and unary calls of\n"
+            + "# Greeter.sayHello answered with such a reply (16 elements) over an in-process channel, serialized or local.\n"
+            + "# Only the calling thread is counted. The unary calls run on direct executors so that the client and the server run on\n"
+            + "# it, but what another thread allocates for a call (e.g. a deadline timer) is left out of its budget.\n";
+    private static final int[] ELEMENTS = {1, 16};
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Map<String, Long> measured = new TreeMap<>();
+
+    private static volatile Object blackhole;
+
+    enum Shape {
+        FLAT, LIST, MAP, NESTED;
+
+        HelloReply reply(int elements) {
+            AllTypePayload payload = new AllTypePayload()
+                    .setStringField("Hello World")
+                    .setIntegerField(Integer.MAX_VALUE)
+                    .setLongField(Long.MAX_VALUE)
+                    .setFloatField(3.14f)
+                    .setDoubleField(2.718281828)
+                    .setBooleanField(true)
+                    .setResultCode(ResultCode.SUCCESS);
+            List<Integer> integers = new ArrayList<>();
+            List<String> strings = new ArrayList<>();
+            List<SimplePayload> nested = new ArrayList<>();
+            Map<String, String> metadata = new HashMap<>();
+            Map<String, Integer> integerMap = new HashMap<>();
+            for (int i = 0; i < elements; i++) {
+                integers.add(i);
+                strings.add("value-" + i);
+                nested.add(new SimplePayload().setStringField("value-" + i).setIntegerField(i));
+                metadata.put("key-" + i, "value-" + i);
+                integerMap.put("key-" + i, i);
+            }
+            if (this == LIST) {
+                payload.setArrayIntField(integers).setArrayStringField(strings);
+            } else if (this == MAP) {
+                payload.setMetadata(metadata).setIntegerMapField(integerMap);
+            } else if (this == NESTED) {
+                payload.setArrayPayloadField(nested);
+            }
+            return new HelloReply().setName("Hello World").setPayload(payload);
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> testConversionAllocations() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Shape shape : Shape.values()) {
+            for (int elements : ELEMENTS) {
+                HelloReply pojo = shape.reply(elements);
+                Helloworld.HelloReply proto = HelloworldProto.HelloReplyMessage.toProto(pojo);
+                tests.add(budgetTest("toProto." + shape + "." + elements, 20_000, 10_000,
+                        () -> HelloworldProto.HelloReplyMessage.toProto(pojo)));
+                tests.add(budgetTest("fromProto." + shape + "." + elements, 20_000, 10_000,
+                        () -> HelloworldProto.HelloReplyMessage.fromProto(proto)));
+            }
+        }
+        return tests.stream();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> testUnaryCallAllocations() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (boolean local : new boolean[] {false, true}) {
+            for (Shape shape : Shape.values()) {
+                String name = "unary." + (local ? "LOCAL." : "IN_PROCESS.") + shape + ".16";
+                tests.add(DynamicTest.dynamicTest(name, () -> {
+                    HelloReply reply = shape.reply(16);
+                    HelloworldProto.GreeterService.GreeterServerImpl greeterServer = new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                        @Override
+                        public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                            return CompletableFuture.completedFuture(reply);
+                        }
+                    });
+                    Server server = InProcessServerBuilder.forName(name)
+                            .directExecutor()
+                            .addService(local ? greeterServer.bindLocalService() : greeterServer.bindService())
+                            .build();
+                    server.start();
+                    ManagedChannel channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+                    Greeter client = local
+                            ? new HelloworldProto.GreeterService.GreeterLocalClientImpl(channel, CallOptions.DEFAULT)
+                            : new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT);
+                    HelloRequest request = new HelloRequest().setMessage("Hello").setId(1);
+                    try {
+                        assertWithinBudget(name, bytesPerOperation(5_000, 2_000, () -> client.sayHello(request).join()));
+                    } finally {
+                        channel.shutdown().awaitTermination(2, TimeUnit.SECONDS);
+                        server.shutdown().awaitTermination(2, TimeUnit.SECONDS);
+                    }
+                }));
+            }
+        }
+        return tests.stream();
+    }
+
+    @AfterAll
+    static void recordBudgets() throws IOException {
+        String path = System.getProperty(RECORD);
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(Path.of(path))) {
+            writer.write(HEADER);
+            for (Map.Entry<String, Long> entry : measured.entrySet()) {
+                writer.write(entry.getKey() + "=" + (long) Math.ceil(entry.getValue() * HEADROOM) + "\n");
+            }
+        }
+    }
+
+    private static DynamicTest budgetTest(String name, int warmup, int iterations, Supplier<Object> operation) {
+        return DynamicTest.dynamicTest(name, () -> assertWithinBudget(name, bytesPerOperation(warmup, iterations, operation)));
+    }
+
+    private static long bytesPerOperation(int warmup, int iterations, Supplier<Object> operation) {
+        for (int i = 0; i < warmup; i++) {
+            blackhole = operation.get();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            blackhole = operation.get();
+        }
+        return (THREADS.getThreadAllocatedBytes(threadId) - before) / iterations;
+    }
+
+    private static void assertWithinBudget(String name, long bytes) throws IOException {
+        synchronized (measured) {
+            measured.put(name, bytes);
+        }
+        if (System.getProperty(RECORD) != null) {
+            return;
+        }
+        String budget = budgets().getProperty(name);
+        Assertions.assertNotNull(budget, name + " has no allocation budget, allocated " + bytes + " bytes per operation");
+        Assertions.assertTrue(bytes <= Long.parseLong(budget.trim()),
+                name + " allocated " + bytes + " bytes per operation, over its budget of " + budget.trim() + " bytes");
+    }
+
+    private static Properties budgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            Assertions.assertNotNull(in, BUDGETS + " not found");
+            budgets.load(in);
+        }
+        return budgets;
+    }
+}
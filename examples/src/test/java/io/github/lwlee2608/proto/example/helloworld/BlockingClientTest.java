@@ -0,0 +1,46 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.github.lwlee2608.proto.gen.executor.DirectCallExecutorSupplier;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class BlockingClientTest {
+
+    @Test
+    void testHelloWorldBlocking() throws IOException {
+        int port = 8080;
+        HelloworldProto.GreeterService.GreeterServerImpl greeterServer = new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+            @Override
+            public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+            }
+        });
+        Server server = ServerBuilder
+                .forPort(port)
+                .addService(greeterServer)
+                .callExecutor(DirectCallExecutorSupplier.forServices(greeterServer))
+                .build();
+        server.start();
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port)
+                .usePlaintext()
+                .build();
+
+        HelloworldProto.GreeterService.GreeterBlockingClientImpl client = new HelloworldProto.GreeterService.GreeterBlockingClientImpl(
+                channel, CallOptions.DEFAULT.withDeadlineAfter(2, TimeUnit.SECONDS));
+        HelloReply reply = client.sayHello(new HelloRequest().setMessage("Hello"));
+
+        Assertions.assertEquals("Hello World", reply.getName());
+        channel.shutdown();
+        server.shutdown();
+    }
+}
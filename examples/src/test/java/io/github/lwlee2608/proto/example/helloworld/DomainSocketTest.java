@@ -0,0 +1,51 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.github.lwlee2608.proto.gen.transport.DomainSockets;
+import io.grpc.CallOptions;
+import io.grpc.Server;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class DomainSocketTest {
+
+    @Test
+    void testHelloWorldDomainSocket() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        Assumptions.assumeTrue(DomainSockets.isAvailable(), "Unix domain sockets require Linux and epoll");
+
+        Path dir = Files.createTempDirectory("greeter");
+        Path path = dir.resolve("greeter.sock");
+        Server server = new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+            @Override
+            public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+            }
+        }).newDomainSocketServer(path);
+        server.start();
+
+        HelloworldProto.GreeterService.GreeterDomainSocketClientImpl client = new HelloworldProto.GreeterService.GreeterDomainSocketClientImpl(path, CallOptions.DEFAULT);
+        HelloReply reply = client.sayHello(new HelloRequest().setMessage("Hello")).get(2, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("Hello World", reply.getName());
+        client.close();
+        server.shutdown();
+        server.awaitTermination(2, TimeUnit.SECONDS);
+        Files.deleteIfExists(path);
+        Files.delete(dir);
+    }
+
+    @Test
+    void testUnavailableWithoutEpoll() {
+        Assumptions.assumeFalse(DomainSockets.isAvailable(), "Epoll available");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> DomainSockets.forPath(Path.of("unused.sock")));
+    }
+}
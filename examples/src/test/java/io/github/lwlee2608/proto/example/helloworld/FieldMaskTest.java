@@ -0,0 +1,59 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.github.lwlee2608.proto.gen.mask.FieldMask;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+class FieldMaskTest {
+
+    @Test
+    void testHelloWorldWithFieldMask() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        AtomicReference<FieldMask> received = new AtomicReference<>();
+        Server server = InProcessServerBuilder
+                .forName("greeter-mask")
+                .addService(new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                    @Override
+                    public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                        received.set(FieldMask.current());
+                        return CompletableFuture.completedFuture(new HelloReply()
+                                .setName(request.getMessage() + " World")
+                                .setPayload(new AllTypePayload()
+                                        .setLongField(2L)
+                                        .setArrayPayloadField(List.of(new SimplePayload()
+                                                .setStringField("foo")
+                                                .setIntegerField(200)))));
+                    }
+                }))
+                .build();
+        server.start();
+
+        ManagedChannel channel = InProcessChannelBuilder.forName("greeter-mask").build();
+
+        Greeter client = new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT)
+                .withFieldMask(FieldMask.of("name", "payload.arrayPayloadField.stringField"));
+        HelloReply reply = client.sayHello(new HelloRequest().setMessage("Hello")).get(2, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("Hello World", reply.getName());
+        Assertions.assertNull(reply.getPayload().getLongField());
+        Assertions.assertEquals("foo", reply.getPayload().getArrayPayloadField().get(0).getStringField());
+        Assertions.assertNull(reply.getPayload().getArrayPayloadField().get(0).getIntegerField());
+        Assertions.assertTrue(received.get().includesPath("payload.arrayPayloadField"));
+        Assertions.assertFalse(received.get().includesPath("payload.longField"));
+
+        channel.shutdown();
+        server.shutdown();
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class FlightRecorderTest {
+
+    @Test
+    void testHelloWorldFlightRecorderEvents() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        int port = 8080;
+        Server server = ServerBuilder
+                .forPort(port)
+                .addService(new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                    @Override
+                    public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                        return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+                    }
+                }))
+                .build();
+        server.start();
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port)
+                .usePlaintext()
+                .build();
+
+        Path file = Files.createTempFile("greeter", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.lwlee2608.proto.RpcCall");
+            recording.enable("io.github.lwlee2608.proto.MessageEncode");
+            recording.start();
+            Greeter client = new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT);
+            client.sayHello(new HelloRequest().setMessage("Hello")).get(2, TimeUnit.SECONDS);
+            channel.shutdown().awaitTermination(2, TimeUnit.SECONDS);
+            server.shutdown().awaitTermination(2, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        String method = HelloworldProto.GreeterService.sayHelloMethod.getFullMethodName();
+        Assertions.assertEquals(2, events.stream()
+                .filter(event -> event.getEventType().getName().equals("io.github.lwlee2608.proto.RpcCall"))
+                .filter(event -> method.equals(event.getString("method")) && "OK".equals(event.getString("status")))
+                .count());
+        Assertions.assertTrue(events.stream()
+                .filter(event -> event.getEventType().getName().equals("io.github.lwlee2608.proto.MessageEncode"))
+                .anyMatch(event -> event.getString("messageType").endsWith("HelloRequest") && event.getLong("bytes") > 0));
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.github.lwlee2608.proto.gen.load.LoadResult;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class LoadDriverTest {
+
+    @Test
+    void testHelloWorldLoadDriver() throws IOException, InterruptedException {
+        Server server = InProcessServerBuilder
+                .forName("greeter-load")
+                .addService(new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                    @Override
+                    public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                        return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+                    }
+                }))
+                .build();
+        server.start();
+
+        ManagedChannel channel = InProcessChannelBuilder.forName("greeter-load").build();
+        Greeter client = new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT);
+        Path log = Files.createTempFile("greeter", ".csv");
+        LoadResult result = new HelloworldProto.GreeterService.GreeterLoadDriver(client)
+                .sayHello(n -> new HelloRequest().setMessage("Hello").setId((int) n))
+                .withRate(200)
+                .withConcurrency(10)
+                .withDuration(Duration.ofSeconds(1))
+                .withHistogramLog(log)
+                .run();
+        channel.shutdown().awaitTermination(2, TimeUnit.SECONDS);
+        server.shutdown().awaitTermination(2, TimeUnit.SECONDS);
+
+        // How many calls fit in the duration depends on the scheduler, each of them must end one way or the other
+        Assertions.assertTrue(result.getSent() > 0);
+        Assertions.assertEquals(result.getSent(), result.getCompleted() + result.getErrors());
+        Assertions.assertEquals(0, result.getErrors());
+        Assertions.assertTrue(result.getLatency().getValueAtQuantile(0.99) >= result.getServiceTime().getValueAtQuantile(0.99));
+        Assertions.assertTrue(Files.readAllLines(log).size() > 3);
+        Files.delete(log);
+    }
+}
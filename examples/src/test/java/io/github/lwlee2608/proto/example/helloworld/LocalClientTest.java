@@ -0,0 +1,51 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+class LocalClientTest {
+
+    @Test
+    void testHelloWorldLocal() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        AtomicReference<HelloRequest> received = new AtomicReference<>();
+        Server server = InProcessServerBuilder
+                .forName("greeter")
+                .addService(new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                    @Override
+                    public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                        received.set(request);
+                        return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+                    }
+                }).bindLocalService())
+                .build();
+        server.start();
+
+        ManagedChannel channel = InProcessChannelBuilder.forName("greeter").build();
+
+        HelloRequest request = new HelloRequest().setMessage("Hello");
+        Greeter client = new HelloworldProto.GreeterService.GreeterLocalClientImpl(channel, CallOptions.DEFAULT);
+        HelloReply reply = client.sayHello(request).get(2, TimeUnit.SECONDS);
+        Assertions.assertEquals("Hello World", reply.getName());
+        Assertions.assertSame(request, received.get());
+
+        Greeter copyingClient = new HelloworldProto.GreeterService.GreeterLocalClientImpl(channel, CallOptions.DEFAULT, true);
+        reply = copyingClient.sayHello(request).get(2, TimeUnit.SECONDS);
+        Assertions.assertEquals("Hello World", reply.getName());
+        Assertions.assertNotSame(request, received.get());
+
+        channel.shutdown();
+        server.shutdown();
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.github.lwlee2608.proto.gen.metrics.HistogramRpcMetrics;
+import io.github.lwlee2608.proto.gen.metrics.RpcMetrics;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class MetricsTest {
+
+    @Test
+    void testHelloWorldWithMetrics() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        int port = 8080;
+        HistogramRpcMetrics metrics = new HistogramRpcMetrics();
+        Server server = ServerBuilder
+                .forPort(port)
+                .addService(new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                    @Override
+                    public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                        return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+                    }
+                }).withMetrics(metrics))
+                .build();
+        server.start();
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port)
+                .usePlaintext()
+                .build();
+
+        Greeter client = new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT).withMetrics(metrics);
+        HelloReply reply = client.sayHello(new HelloRequest().setMessage("Hello")).get(2, TimeUnit.SECONDS);
+        Assertions.assertEquals("Hello World", reply.getName());
+
+        String method = HelloworldProto.GreeterService.sayHelloMethod.getFullMethodName();
+        HistogramRpcMetrics.MethodStats clientStats = metrics.getStats(method, RpcMetrics.Side.CLIENT);
+        Assertions.assertEquals(2, clientStats.getLatency(RpcMetrics.Phase.CONVERSION).getCount());
+        Assertions.assertEquals(1, clientStats.getRequestSize().getCount());
+        HistogramRpcMetrics.MethodStats serverStats = metrics.getStats(method, RpcMetrics.Side.SERVER);
+        Assertions.assertEquals(1, serverStats.getLatency(RpcMetrics.Phase.QUEUE).getCount());
+        Assertions.assertEquals(1, serverStats.getLatency(RpcMetrics.Phase.HANDLER).getCount());
+        Assertions.assertEquals(2, serverStats.getLatency(RpcMetrics.Phase.CONVERSION).getCount());
+        Assertions.assertEquals(clientStats.getRequestSize().getMax(), serverStats.getRequestSize().getMax());
+        channel.shutdown();
+        server.shutdown();
+    }
+}
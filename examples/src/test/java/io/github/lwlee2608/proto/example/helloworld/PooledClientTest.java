@@ -0,0 +1,43 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class PooledClientTest {
+
+    @Test
+    void testHelloWorldWithChannelPool() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        int port = 8080;
+        Server server = ServerBuilder
+                .forPort(port)
+                .addService(new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                    @Override
+                    public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                        return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+                    }
+                }))
+                .build();
+        server.start();
+
+        HelloworldProto.GreeterService.GreeterPooledClientImpl client = new HelloworldProto.GreeterService.GreeterPooledClientImpl(
+                () -> ManagedChannelBuilder.forAddress("localhost", port).usePlaintext().build(), 2, CallOptions.DEFAULT);
+        HelloReply reply1 = client.sayHello(new HelloRequest().setMessage("Hello")).get(2, TimeUnit.SECONDS);
+        HelloReply reply2 = client.sayHello(new HelloRequest().setMessage("Hello")).get(2, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("Hello World", reply1.getName());
+        Assertions.assertEquals("Hello World", reply2.getName());
+        Assertions.assertEquals(2, client.getChannelPool().getSize());
+        client.close();
+        server.shutdown();
+    }
+}
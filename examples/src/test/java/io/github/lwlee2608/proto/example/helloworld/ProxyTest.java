@@ -0,0 +1,71 @@
+package io.github.lwlee2608.proto.example.helloworld;
+
+import io.github.lwlee2608.proto.gen.balancer.ConsistentHashChannel;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+class ProxyTest {
+
+    @Test
+    void testHelloWorldThroughProxy() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        AtomicReference<HelloRequest> received = new AtomicReference<>();
+        Server backend = InProcessServerBuilder
+                .forName("greeter-backend")
+                .addService(new HelloworldProto.GreeterService.GreeterServerImpl(new Greeter() {
+                    @Override
+                    public CompletableFuture<HelloReply> sayHello(HelloRequest request) {
+                        received.set(request);
+                        return CompletableFuture.completedFuture(new HelloReply().setName(request.getMessage() + " World"));
+                    }
+                }))
+                .build();
+        backend.start();
+
+        AtomicReference<String> routingKey = new AtomicReference<>();
+        ManagedChannel upstream = InProcessChannelBuilder.forName("greeter-backend").build();
+        Channel routingUpstream = ClientInterceptors.intercept(upstream, new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+                routingKey.set(callOptions.getOption(ConsistentHashChannel.ROUTING_KEY));
+                return next.newCall(method, callOptions);
+            }
+        });
+        Server proxy = InProcessServerBuilder
+                .forName("greeter-proxy")
+                .addService(new HelloworldProto.GreeterService.GreeterProxy(routingUpstream, CallOptions.DEFAULT))
+                .build();
+        proxy.start();
+
+        ManagedChannel channel = InProcessChannelBuilder.forName("greeter-proxy").build();
+        Greeter client = new HelloworldProto.GreeterService.GreeterClientImpl(channel, CallOptions.DEFAULT);
+        HelloReply reply = client.sayHello(new HelloRequest().setMessage("Hello").setId(42)).get(2, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("Hello World", reply.getName());
+        Assertions.assertEquals("Hello", received.get().getMessage());
+        Assertions.assertEquals(42, received.get().getId());
+        // The proxy read the key from the encoded request, formatted like the generated client does
+        Assertions.assertEquals("42", routingKey.get());
+
+        channel.shutdown();
+        upstream.shutdown();
+        proxy.shutdown();
+        backend.shutdown();
+    }
+}
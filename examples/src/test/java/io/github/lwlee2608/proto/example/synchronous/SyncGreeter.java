@@ -0,0 +1,9 @@
+package io.github.lwlee2608.proto.example.synchronous;
+
+import io.github.lwlee2608.proto.annotation.ProtoMethod;
+import io.github.lwlee2608.proto.annotation.ProtoService;
+
+@ProtoService(protoName = "synchronous", protoPackage = "example.synchronous")
+public interface SyncGreeter {
+    @ProtoMethod SyncReply sayHello(SyncRequest request);
+}
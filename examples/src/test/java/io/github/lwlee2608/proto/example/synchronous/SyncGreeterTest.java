@@ -0,0 +1,102 @@
+package io.github.lwlee2608.proto.example.synchronous;
+
+import io.github.lwlee2608.proto.gen.executor.BlockingExecutors;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+class SyncGreeterTest {
+
+    @Test
+    void testSynchronousMethodRunsOffTransportThread() throws IOException, InterruptedException {
+        int port = 8080;
+        AtomicReference<Thread> transportThread = new AtomicReference<>();
+        AtomicReference<Thread> implThread = new AtomicReference<>();
+        Server server = ServerBuilder
+                .forPort(port)
+                // Handlers run on the transport thread unless the generated server hands them off
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(new SynchronousProto.SyncGreeterService.SyncGreeterServerImpl(request -> {
+                    implThread.set(Thread.currentThread());
+                    return new SyncReply().setName(request.getMessage() + " World");
+                }), recordThread(transportThread)))
+                .build();
+        server.start();
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port).usePlaintext().build();
+        SyncGreeter client = new SynchronousProto.SyncGreeterService.SyncGreeterClientImpl(channel, CallOptions.DEFAULT);
+        SyncReply reply = client.sayHello(new SyncRequest().setMessage("Hello"));
+
+        Assertions.assertEquals("Hello World", reply.getName());
+        Assertions.assertNotNull(transportThread.get());
+        Assertions.assertNotSame(transportThread.get(), implThread.get());
+        if (BlockingExecutors.isVirtualThreads()) {
+            Assertions.assertTrue(isVirtual(implThread.get()), implThread.get().toString());
+        } else {
+            Assertions.assertTrue(implThread.get().getName().startsWith("proto-blocking-"), implThread.get().getName());
+            Assertions.assertTrue(implThread.get().isDaemon());
+        }
+        channel.shutdown();
+        server.shutdown();
+        server.awaitTermination();
+    }
+
+    @Test
+    void testSynchronousMethodWithBlockingExecutor() throws IOException, InterruptedException {
+        int port = 8080;
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-blocking"));
+        AtomicReference<Thread> implThread = new AtomicReference<>();
+        Server server = ServerBuilder
+                .forPort(port)
+                .directExecutor()
+                .addService(new SynchronousProto.SyncGreeterService.SyncGreeterServerImpl(request -> {
+                    implThread.set(Thread.currentThread());
+                    return new SyncReply().setName(request.getMessage() + " World");
+                }).withBlockingExecutor(executor))
+                .build();
+        server.start();
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port).usePlaintext().build();
+        SyncGreeter client = new SynchronousProto.SyncGreeterService.SyncGreeterClientImpl(channel, CallOptions.DEFAULT);
+        SyncReply reply = client.sayHello(new SyncRequest().setMessage("Hello"));
+
+        Assertions.assertEquals("Hello World", reply.getName());
+        Assertions.assertEquals("test-blocking", implThread.get().getName());
+        channel.shutdown();
+        server.shutdown();
+        server.awaitTermination();
+        executor.shutdown();
+    }
+
+    private static ServerInterceptor recordThread(AtomicReference<Thread> thread) {
+        return new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                thread.set(Thread.currentThread());
+                return next.startCall(call, headers);
+            }
+        };
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+}
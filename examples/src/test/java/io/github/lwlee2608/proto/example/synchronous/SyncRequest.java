@@ -0,0 +1,13 @@
+package io.github.lwlee2608.proto.example.synchronous;
+
+import io.github.lwlee2608.proto.annotation.ProtoField;
+import io.github.lwlee2608.proto.annotation.ProtoMessage;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+@ProtoMessage(protoName = "synchronous", protoPackage = "example.synchronous")
+public class SyncRequest {
+    @ProtoField(tag = 1) private String message;
+}
@@ -0,0 +1,19 @@
+package io.github.lwlee2608.proto.annotation;
+
+/**
+ * Where the generated Vert.x server runs the implementation of a method.
+ */
+public enum Offload {
+    /**
+     * On the event loop, the implementation must not block.
+     */
+    NONE,
+    /**
+     * On the Vert.x worker pool.
+     */
+    WORKER,
+    /**
+     * On a virtual thread per call (Java 21 or newer), otherwise on a shared pool of daemon threads.
+     */
+    VIRTUAL_THREAD
+}
@@ -9,4 +9,10 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.SOURCE)
 public @interface ProtoField {
     int tag();
-}
\ No newline at end of file
+
+    /**
+     * Marks the field as the routing key of the message. Clients generated for methods taking this message
+     * route calls with the same key to the same endpoint when used with a consistent-hash channel.
+     */
+    boolean routingKey() default false;
+}
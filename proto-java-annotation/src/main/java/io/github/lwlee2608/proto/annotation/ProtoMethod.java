@@ -8,4 +8,45 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.SOURCE)
 public @interface ProtoMethod {
-}
\ No newline at end of file
+    /**
+     * Priority of the method when the generated server dispatches calls through a priority executor, 0 being the
+     * highest. The default leaves one level above for interactive calls and one below for bulk calls.
+     * Clients may override it per call with the {@code x-priority} header.
+     */
+    int priority() default 1;
+
+    /**
+     * Maximum number of calls of a synchronous method the generated server runs at once, 0 for no limit.
+     * Calls above the limit wait for a slot until their deadline.
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * Codec compressing the request and reply messages of the method, e.g. {@code "gzip"}, empty for no compression.
+     * The codec must be registered on both sides, gzip is by default.
+     */
+    String compression() default "";
+
+    /**
+     * Minimum encoded size in bytes of a message to be compressed, smaller messages are sent uncompressed.
+     */
+    int compressionThreshold() default 1024;
+
+    /**
+     * Runs the implementation of the method off the event loop in the generated Vert.x server, for implementations
+     * that block. The reply is still sent from the event loop of the call.
+     */
+    Offload offload() default Offload.NONE;
+
+    /**
+     * The client sends a stream of requests. The method is declared as
+     * {@code StreamObserver<Request> method(StreamObserver<Reply> replies)}.
+     */
+    boolean clientStreaming() default false;
+
+    /**
+     * The server sends a stream of replies. Unless the client streams as well, the method is declared as
+     * {@code void method(Request request, StreamObserver<Reply> replies)}.
+     */
+    boolean serverStreaming() default false;
+}
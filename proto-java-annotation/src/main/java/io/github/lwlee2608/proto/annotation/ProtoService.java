@@ -10,4 +10,11 @@ import java.lang.annotation.Target;
 public @interface ProtoService {
     String protoName();
     String protoPackage();
+
+    /**
+     * Guarantees that no method of the service blocks the calling thread, so the generated server may run the calls
+     * directly on the transport thread (see {@code DirectCallExecutorSupplier}). Synchronous methods are still
+     * offloaded to their blocking executor.
+     */
+    boolean nonBlocking() default false;
 }
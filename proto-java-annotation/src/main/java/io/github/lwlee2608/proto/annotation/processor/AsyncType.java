@@ -2,5 +2,6 @@ package io.github.lwlee2608.proto.annotation.processor;
 
 public enum AsyncType {
     STREAM_OBSERVER,
-    COMPLETABLE_FUTURE
+    COMPLETABLE_FUTURE,
+    SYNCHRONOUS
 }
@@ -14,4 +14,5 @@ public class Field {
     private Boolean isEnum;
     private Boolean isList;
     private Boolean isMap;
+    private Boolean isRoutingKey;
 }
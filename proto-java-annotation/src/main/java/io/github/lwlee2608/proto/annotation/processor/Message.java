@@ -18,4 +18,8 @@ public class Message {
         fields.add(field);
         return this;
     }
+
+    public Field getRoutingKey() {
+        return fields.stream().filter(Field::getIsRoutingKey).findFirst().orElse(null);
+    }
 }
@@ -1,5 +1,6 @@
 package io.github.lwlee2608.proto.annotation.processor;
 
+import io.github.lwlee2608.proto.annotation.Offload;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -10,4 +11,15 @@ public class Method {
     private Message inputType;
     private Message outputType;
     private AsyncType asyncType;
+    private Integer priority;
+    private Integer maxConcurrency;
+    private String compression;
+    private Integer compressionThreshold;
+    private Offload offload;
+    private Boolean clientStreaming;
+    private Boolean serverStreaming;
+
+    public boolean isStreaming() {
+        return clientStreaming || serverStreaming;
+    }
 }
@@ -5,6 +5,7 @@ import io.github.lwlee2608.proto.annotation.ProtoEnumConstant;
 import io.github.lwlee2608.proto.annotation.ProtoEnumerated;
 import io.github.lwlee2608.proto.annotation.ProtoField;
 import io.github.lwlee2608.proto.annotation.ProtoMessage;
+import io.github.lwlee2608.proto.annotation.ProtoMethod;
 import io.github.lwlee2608.proto.annotation.ProtoService;
 import io.github.lwlee2608.proto.annotation.exception.UnsupportedTypeException;
 import io.github.lwlee2608.proto.gen.ClassFinder;
@@ -15,12 +16,14 @@ import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
 import java.io.File;
@@ -44,6 +47,7 @@ import java.util.regex.Pattern;
         "io.github.lwlee2608.proto.annotation.ProtoField",
         "io.github.lwlee2608.proto.annotation.ProtoService",
         "io.github.lwlee2608.proto.annotation.ProtoMethod"})
+@SupportedOptions({"proto.vertx.mode"})
 @SupportedSourceVersion(SourceVersion.RELEASE_11)
 @AutoService(Processor.class)
 public class ProtoProcessor extends AbstractProcessor {
@@ -124,6 +128,7 @@ public class ProtoProcessor extends AbstractProcessor {
                     String fieldName = element.getSimpleName().toString();
                     String javaType = element.asType().toString();
                     Integer tag = element.getAnnotation(ProtoField.class).tag();
+                    boolean isRoutingKey = element.getAnnotation(ProtoField.class).routingKey();
                     String protoType;
                     boolean isStruct = false;
                     boolean isEnum = false;
@@ -183,6 +188,14 @@ public class ProtoProcessor extends AbstractProcessor {
                     }
 
                     Message message = messages.computeIfAbsent(fullClassName, key -> new Message().setFullClassName(fullClassName));
+                    if (isRoutingKey) {
+                        if (isStruct || isEnum || isList || isMap || !isRoutingKeyType(javaType)) {
+                            throw new RuntimeException("Routing key '" + fieldName + "' must be a String, Short, Integer or Long");
+                        }
+                        if (message.getRoutingKey() != null) {
+                            throw new RuntimeException("Message " + fullClassName + " has more than one routing key");
+                        }
+                    }
                     message.addField(new Field()
                             .setName(fieldName)
                             .setJavaType(javaType)
@@ -191,6 +204,7 @@ public class ProtoProcessor extends AbstractProcessor {
                             .setIsEnum(isEnum)
                             .setIsList(isList)
                             .setIsMap(isMap)
+                            .setIsRoutingKey(isRoutingKey)
                             .setTag(tag));
 
                     // System.out.println("Field is " + fieldName);
@@ -205,6 +219,7 @@ public class ProtoProcessor extends AbstractProcessor {
 
                     Service service = services.computeIfAbsent(fullServiceName, key -> new Service().setFullServiceName(fullServiceName));
                     service.setServiceName(serviceName);
+                    service.setNonBlocking(typeElement.getAnnotation(ProtoService.class).nonBlocking());
 
                     ProtoFile protoFile = protoFiles.computeIfAbsent(protoName, key -> new ProtoFile().setFileName(protoName + ".proto"));
                     protoFile.setOuterClassName(outerClassName);
@@ -216,8 +231,26 @@ public class ProtoProcessor extends AbstractProcessor {
                     ExecutableElement methodElement = (ExecutableElement) element;
                     String methodName = methodElement.getSimpleName().toString();
 
+                    ProtoMethod protoMethod = methodElement.getAnnotation(ProtoMethod.class);
+                    if (protoMethod.priority() < 0) {
+                        throw new RuntimeException("Priority of method '" + methodName + "' must not be negative");
+                    }
+                    if (protoMethod.maxConcurrency() < 0) {
+                        throw new RuntimeException("Max concurrency of method '" + methodName + "' must not be negative");
+                    }
+                    if (protoMethod.compressionThreshold() < 0) {
+                        throw new RuntimeException("Compression threshold of method '" + methodName + "' must not be negative");
+                    }
+
                     Method method = new Method();
                     method.setMethodName(methodName);
+                    method.setPriority(protoMethod.priority());
+                    method.setMaxConcurrency(protoMethod.maxConcurrency());
+                    method.setCompression(protoMethod.compression().isEmpty() ? null : protoMethod.compression());
+                    method.setCompressionThreshold(protoMethod.compressionThreshold());
+                    method.setOffload(protoMethod.offload());
+                    method.setClientStreaming(protoMethod.clientStreaming());
+                    method.setServerStreaming(protoMethod.serverStreaming());
 
                     // Determine Asynchronous Type
                     String returnType = methodElement.getReturnType().toString();
@@ -255,8 +288,54 @@ public class ProtoProcessor extends AbstractProcessor {
                         method.setOutputType(outputType);
                         method.setAsyncType(AsyncType.STREAM_OBSERVER);
 
+                    } else if (extractTemplate(returnType, "io.grpc.stub.StreamObserver<(.*?)>") != null) {
+                        if (methodElement.getParameters().size() != 1) {
+                            throw new RuntimeException("Invalid parameters. Only one argument is allowed for client streaming method");
+                        }
+
+                        String inputName = extractTemplate(returnType, "io.grpc.stub.StreamObserver<(.*?)>");
+                        String arg0 = methodElement.getParameters().get(0).asType().toString();
+
+                        // Extract Output Type
+                        String outputName = extractTemplate(arg0, "io.grpc.stub.StreamObserver<(.*?)>");
+                        if (outputName == null) {
+                            throw new RuntimeException("Output argument format not supported");
+                        }
+                        Message inputType = messages.computeIfAbsent(inputName, key -> new Message().setFullClassName(inputName));
+                        Message outputType = messages.computeIfAbsent(outputName, key -> new Message().setFullClassName(outputName));
+                        method.setInputType(inputType);
+                        method.setOutputType(outputType);
+                        method.setAsyncType(AsyncType.STREAM_OBSERVER);
+
+                    } else if (methodElement.getReturnType().getKind() == TypeKind.DECLARED) {
+                        if (methodElement.getParameters().size() != 1) {
+                            throw new RuntimeException("Invalid parameters. Only one argument is allowed for synchronous method");
+                        }
+
+                        String inputName = methodElement.getParameters().get(0).asType().toString();
+                        String outputName = returnType;
+                        Message inputType = messages.computeIfAbsent(inputName, key -> new Message().setFullClassName(inputName));
+                        Message outputType = messages.computeIfAbsent(outputName, key -> new Message().setFullClassName(outputName));
+                        method.setInputType(inputType);
+                        method.setOutputType(outputType);
+                        method.setAsyncType(AsyncType.SYNCHRONOUS);
+
                     } else {
-                        throw new RuntimeException("Return type of a ProtoMethod must be void or CompletableFuture. Type '" + returnType + "' not supported");
+                        throw new RuntimeException("Return type of a ProtoMethod must be void, CompletableFuture or a message. Type '" + returnType + "' not supported");
+                    }
+
+                    boolean returnsStreamObserver = extractTemplate(returnType, "io.grpc.stub.StreamObserver<(.*?)>") != null;
+                    if (protoMethod.clientStreaming() != returnsStreamObserver) {
+                        throw new RuntimeException("Method '" + methodName + "' must return a StreamObserver of requests if and only if it is client streaming");
+                    }
+                    if (protoMethod.serverStreaming() && method.getAsyncType() != AsyncType.STREAM_OBSERVER) {
+                        throw new RuntimeException("Server streaming method '" + methodName + "' must send its replies to a StreamObserver");
+                    }
+                    if (protoMethod.clientStreaming() && method.getCompression() != null) {
+                        throw new RuntimeException("Compression is not supported on client streaming method '" + methodName + "'");
+                    }
+                    if (protoMethod.maxConcurrency() > 0 && method.getAsyncType() != AsyncType.SYNCHRONOUS) {
+                        throw new RuntimeException("Max concurrency is only supported on synchronous methods. Method '" + methodName + "' is asynchronous");
                     }
 
                     TypeElement serviceElement = (TypeElement) element.getEnclosingElement();
@@ -283,7 +362,7 @@ public class ProtoProcessor extends AbstractProcessor {
             Class<ProtoGen> clazz = ClassFinder.findClass(ProtoGen.class, "io.github.lwlee2608.proto.gen");
             if (!clazz.isInterface()) {
                 ProtoGen gen = clazz.getDeclaredConstructor().newInstance();
-                gen.generate(processingEnv.getFiler(), new ArrayList<>(protoFiles.values()));
+                gen.generate(processingEnv.getFiler(), new ArrayList<>(protoFiles.values()), processingEnv.getOptions());
             }
         }
 
@@ -337,9 +416,11 @@ public class ProtoProcessor extends AbstractProcessor {
             for (Service service : protoFile.getServices()) {
                 out.println("service " + service.getServiceName() + " {");
                 for (Method method: service.getMethods()) {
-                    out.println(String.format("    rpc %s (%s) returns (%s);",
+                    out.println(String.format("    rpc %s (%s%s) returns (%s%s);",
                             method.getMethodName(),
+                            method.getClientStreaming() ? "stream " : "",
                             method.getInputType().getClassName(),
+                            method.getServerStreaming() ? "stream " : "",
                             method.getOutputType().getClassName()));
                 }
                 out.println("}");
@@ -387,6 +468,16 @@ public class ProtoProcessor extends AbstractProcessor {
         }
     }
 
+    private boolean isRoutingKeyType(String javaType) {
+        switch (javaType) {
+            case "java.lang.String":
+            case "java.lang.Short":
+            case "java.lang.Integer":
+            case "java.lang.Long": return true;
+            default: return false;
+        }
+    }
+
     private String toProtoType(String javaType) {
         switch (javaType) {
             case "java.lang.String": return "google.protobuf.StringValue";
@@ -11,6 +11,7 @@ import java.util.List;
 public class Service {
     private String fullServiceName;
     private String serviceName;
+    private Boolean nonBlocking;
     private List<Method> methods = new ArrayList<>();
 
     public Service addMethod(Method method) {
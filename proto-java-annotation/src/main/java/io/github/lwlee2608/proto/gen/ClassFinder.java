@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ClassFinder {
     private static final Logger logger = LoggerFactory.getLogger(ClassFinder.class);
@@ -14,7 +15,11 @@ public class ClassFinder {
         String className = targetClass.getSimpleName();
 
         Reflections reflections = new Reflections(prefix);
-        Set<Class<? extends T>> classes = reflections.getSubTypesOf(targetClass);
+        Set<Class<? extends T>> subTypes = reflections.getSubTypesOf(targetClass);
+        // A subClass extending another one found (e.g. the Vert.x generator) takes precedence over it
+        Set<Class<? extends T>> classes = subTypes.stream()
+                .filter(clazz -> subTypes.stream().noneMatch(other -> other != clazz && clazz.isAssignableFrom(other)))
+                .collect(Collectors.toSet());
         if (classes.size() > 1) {
             logger.warn("Multiple subClasses found for {}", className);
         }
@@ -4,7 +4,15 @@ import io.github.lwlee2608.proto.annotation.processor.ProtoFile;
 
 import javax.annotation.processing.Filer;
 import java.util.List;
+import java.util.Map;
 
 public interface ProtoGen {
     void generate(Filer filer, List<ProtoFile> protoFiles);
+
+    /**
+     * Same as {@link #generate(Filer, List)}, with the options passed to the annotation processor ({@code -Akey=value}).
+     */
+    default void generate(Filer filer, List<ProtoFile> protoFiles, Map<String, String> options) {
+        generate(filer, protoFiles);
+    }
 }
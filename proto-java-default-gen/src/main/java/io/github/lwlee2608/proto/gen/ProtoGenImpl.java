@@ -21,6 +21,7 @@ import java.io.PrintWriter;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 public class ProtoGenImpl implements ProtoGen {
     private final CommandLineUtils.StringStreamConsumer error = new CommandLineUtils.StringStreamConsumer();
@@ -94,19 +95,62 @@ public class ProtoGenImpl implements ProtoGen {
                 out.println("package " + protoFile.getPackageName() + ";");
                 out.println("");
                 out.println("import com.google.protobuf.*;");
+                out.println("import java.nio.file.Path;");
+                out.println("import java.util.ArrayList;");
+                out.println("import java.util.LinkedHashMap;");
+                out.println("import java.util.List;");
                 out.println("import java.util.concurrent.CompletableFuture;");
+                out.println("import java.util.concurrent.Executor;");
+                out.println("import java.util.concurrent.RejectedExecutionException;");
+                out.println("import java.util.concurrent.Semaphore;");
+                out.println("import java.util.function.Function;");
+                out.println("import java.util.function.LongFunction;");
+                out.println("import java.util.function.Supplier;");
                 out.println("import java.util.stream.Collectors;");
+                out.println("import io.github.lwlee2608.proto.gen.balancer.ChannelPool;");
+                out.println("import io.github.lwlee2608.proto.gen.balancer.ConsistentHashChannel;");
+                out.println("import io.github.lwlee2608.proto.gen.balancer.EndpointSource;");
+                out.println("import io.github.lwlee2608.proto.gen.balancer.LoadAwareChannel;");
+                out.println("import io.github.lwlee2608.proto.gen.balancer.LoadReportingInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.compression.MessageCompression;");
+                out.println("import io.github.lwlee2608.proto.gen.executor.BlockingExecutors;");
+                out.println("import io.github.lwlee2608.proto.gen.executor.NonBlockingService;");
+                out.println("import io.github.lwlee2608.proto.gen.executor.PriorityExecutor;");
+                out.println("import io.github.lwlee2608.proto.gen.executor.PriorityInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.jfr.JfrClientInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.jfr.JfrServerInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.limit.ClientLimiter;");
+                out.println("import io.github.lwlee2608.proto.gen.load.LoadGenerator;");
+                out.println("import io.github.lwlee2608.proto.gen.limit.ConcurrencyLimitInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.local.PojoMarshaller;");
+                out.println("import io.github.lwlee2608.proto.gen.marshaller.ZeroCopyMarshaller;");
+                out.println("import io.github.lwlee2608.proto.gen.metrics.MethodMetrics;");
+                out.println("import io.github.lwlee2608.proto.gen.metrics.MetricsClientInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.metrics.MetricsServerInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.metrics.RpcMetrics;");
+                out.println("import io.github.lwlee2608.proto.gen.mask.FieldMask;");
+                out.println("import io.github.lwlee2608.proto.gen.mask.FieldMaskInterceptor;");
+                out.println("import io.github.lwlee2608.proto.gen.proxy.ByteArrayMarshaller;");
+                out.println("import io.github.lwlee2608.proto.gen.proxy.ProxyCallHandler;");
+                out.println("import io.github.lwlee2608.proto.gen.proxy.WireScanner;");
+                out.println("import io.github.lwlee2608.proto.gen.transport.DomainSockets;");
                 out.println("import io.github.lwlee2608.proto.gen.util.CompletableFutureUtil;");
                 out.println("import io.github.lwlee2608.proto.gen.util.StreamObserverUtil;");
                 out.println("import io.grpc.CallOptions;");
                 out.println("import io.grpc.Channel;");
+                out.println("import io.grpc.ClientInterceptors;");
+                out.println("import io.grpc.ManagedChannel;");
                 out.println("import io.grpc.MethodDescriptor;");
+                out.println("import io.grpc.Server;");
+                out.println("import io.grpc.ServerInterceptor;");
+                out.println("import io.grpc.ServerInterceptors;");
                 out.println("import io.grpc.ServerServiceDefinition;");
                 out.println("import io.grpc.ServiceDescriptor;");
+                out.println("import io.grpc.Status;");
                 out.println("import io.grpc.protobuf.ProtoMethodDescriptorSupplier;");
                 out.println("import io.grpc.protobuf.ProtoServiceDescriptorSupplier;");
-                out.println("import io.grpc.protobuf.ProtoUtils;");
                 out.println("import io.grpc.stub.ClientCalls;");
+                out.println("import io.grpc.stub.MetadataUtils;");
                 out.println("import io.grpc.stub.ServerCalls;");
                 out.println("import io.grpc.stub.StreamObserver;");
                 out.println("import static io.grpc.MethodDescriptor.generateFullMethodName;");
@@ -143,47 +187,19 @@ public class ProtoGenImpl implements ProtoGen {
                     out.println("    public static class " + messageClassName + "Message {");
                     out.println("        public static " + protoMessageClassName + " toProto(" + messageClassName + " pojo) {");
                     out.println("            " + protoMessageClassName + ".Builder builder = " + protoMessageClassName + ".newBuilder();");
-                    for (Field field : message.getFields()) {
-                        String setter = getSetter(field.getName());
-                        String getter = getGetter(field.getName());
-                        if (field.getIsList()) {
-                            String addOperation = getListAdd(field.getName());
-                            if (field.getIsStruct()) {
-                                String messageType = field.getProtoType() + "Message";
-                                String wrapperFunction = messageType + ".toProto";
-                                out.println("            if (pojo." + getter + "() != null) {");
-                                out.println("                pojo." + getter + "().forEach(x -> builder." + addOperation + "(" + wrapperFunction + "(x)));");
-                                out.println("            }");
-                            } else {
-                                String wrapperFunction = getSimpleClass(field.getProtoType()) + ".of";
-                                out.println("            if (pojo." + getter + "() != null) {");
-                                out.println("                pojo." + getter + "().forEach(x -> builder." + addOperation + "(" + wrapperFunction + "(x)));");
-                                out.println("            }");
-                            }
-                        } else if (field.getIsMap()) {
-                            String putAllFunction = getPutAllMapFunction(field.getName());
-                            out.println("            if (pojo." + getter + "() != null) {");
-                            out.println("                builder." + putAllFunction + "(pojo." + getter + "());");
-                            out.println("            }");
-                        } else {
-                            if (field.getIsStruct()) {
-                                String messageType = getSimpleClass(field.getJavaType()) + "Message";
-                                out.println("            if (pojo." + getter +"() != null) {");
-                                out.println("                builder." + setter + "(" + messageType + ".toProto(pojo." + getter + "()));");
-                                out.println("            }");
-                            } else if (field.getIsEnum()) {
-                                String enumType = field.getProtoType();
-                                out.println("            if (pojo." + getter + "() != null) {");
-                                out.println("                builder." + setter + "(" + enumType + ".toProto(pojo." + getter + "()));");
-                                out.println("            }");
-                            } else {
-                                String wrapperFunction = getSimpleClass(field.getProtoType()) + ".of";
-                                out.println("            if (pojo." + getter +"() != null) {");
-                                out.println("                builder." + setter + "(" + wrapperFunction + "(pojo." + getter + "()));");
-                                out.println("            }");
-                            }
-                        }
-                    }
+                    printToProtoFields(out, message, false);
+                    out.println("            return builder.build();");
+                    out.println("        }");
+                    out.println("");
+                    out.println("        /**");
+                    out.println("         * Converts only the fields included in {@code mask}, or all fields if {@code mask} is null.");
+                    out.println("         */");
+                    out.println("        public static " + protoMessageClassName + " toProto(" + messageClassName + " pojo, FieldMask mask) {");
+                    out.println("            if (mask == null) {");
+                    out.println("                return toProto(pojo);");
+                    out.println("            }");
+                    out.println("            " + protoMessageClassName + ".Builder builder = " + protoMessageClassName + ".newBuilder();");
+                    printToProtoFields(out, message, true);
                     out.println("            return builder.build();");
                     out.println("        }");
                     out.println("");
@@ -228,6 +244,37 @@ public class ProtoGenImpl implements ProtoGen {
                     }
                     out.println("            return pojo;");
                     out.println("        }");
+                    out.println("");
+                    out.println("        public static " + messageClassName + " copy(" + messageClassName + " pojo) {");
+                    out.println("            if (pojo == null) {");
+                    out.println("                return null;");
+                    out.println("            }");
+                    out.println("            " + messageClassName + " copy = new " + messageClassName + "();");
+                    for (Field field : message.getFields()) {
+                        String setter = getSetter(field.getName());
+                        String getter = getGetter(field.getName());
+                        if (field.getIsList()) {
+                            out.println("            if (pojo." + getter + "() != null) {");
+                            if (field.getIsStruct()) {
+                                String messageType = field.getProtoType() + "Message";
+                                out.println("                copy." + setter + "(pojo." + getter + "().stream().map(x -> " + messageType + ".copy(x)).collect(Collectors.toList()));");
+                            } else {
+                                out.println("                copy." + setter + "(new ArrayList<>(pojo." + getter + "()));");
+                            }
+                            out.println("            }");
+                        } else if (field.getIsMap()) {
+                            out.println("            if (pojo." + getter + "() != null) {");
+                            out.println("                copy." + setter + "(new LinkedHashMap<>(pojo." + getter + "()));");
+                            out.println("            }");
+                        } else if (field.getIsStruct()) {
+                            String messageType = getSimpleClass(field.getJavaType()) + "Message";
+                            out.println("            copy." + setter + "(" + messageType + ".copy(pojo." + getter + "()));");
+                        } else {
+                            out.println("            copy." + setter + "(pojo." + getter + "());");
+                        }
+                    }
+                    out.println("            return copy;");
+                    out.println("        }");
                     out.println("    }");
                     out.println("");
                 }
@@ -238,82 +285,486 @@ public class ProtoGenImpl implements ProtoGen {
                     out.println("    public static class " + service.getServiceName() + "Service {");
                     out.println("        public static final String SERVICE_NAME = \"" + service.getFullServiceName() + "\";");
                     out.println("");
+                    for (Method method : service.getMethods()) {
+                        if (method.getCompression() != null) {
+                            out.println("        public static final MessageCompression " + method.getMethodName() + "Compression = new MessageCompression(\"" + method.getCompression() + "\", " + method.getCompressionThreshold() + ");");
+                            out.println("");
+                        }
+                    }
                     out.println("        // Client");
                     out.println("        public static class " + service.getServiceName() + "ClientImpl implements " + service.getServiceName() + " {");
-                    out.println("            private final Channel channel;");
+                    out.println("            private Channel channel;");
                     out.println("            private final CallOptions callOptions;");
+                    out.println("            private ClientLimiter limiter;");
+                    for (Method method : service.getMethods()) {
+                        out.println("            private MethodMetrics " + method.getMethodName() + "Metrics = MethodMetrics.of(RpcMetrics.NOOP, " + method.getMethodName() + "Method, RpcMetrics.Side.CLIENT);");
+                    }
                     out.println("");
                     out.println("            public " + service.getServiceName() + "ClientImpl(Channel channel, CallOptions callOptions) {");
+                    out.println("                this.channel = ClientInterceptors.intercept(channel, new JfrClientInterceptor());");
+                    out.println("                this.callOptions = callOptions;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "ClientImpl withInflightLimit(ClientLimiter limiter) {");
+                    out.println("                this.limiter = limiter;");
+                    out.println("                return this;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * Records the calls of every method to {@code metrics}. Call it once, before the first call.");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "ClientImpl withMetrics(RpcMetrics metrics) {");
+                    for (Method method : service.getMethods()) {
+                        out.println("                " + method.getMethodName() + "Metrics = MethodMetrics.of(metrics, " + method.getMethodName() + "Method, RpcMetrics.Side.CLIENT);");
+                    }
+                    out.println("                channel = ClientInterceptors.intercept(channel, new MetricsClientInterceptor(" + getMetricsFields(service) + "));");
+                    out.println("                return this;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * A client over the same channel asking the server for only the fields in {@code fieldMask}.");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "ClientImpl withFieldMask(FieldMask fieldMask) {");
+                    out.println("                " + service.getServiceName() + "ClientImpl client = new " + service.getServiceName() + "ClientImpl(");
+                    out.println("                        ClientInterceptors.intercept(channel, MetadataUtils.newAttachHeadersInterceptor(fieldMask.toHeaders())), callOptions);");
+                    out.println("                client.limiter = limiter;");
+                    for (Method method : service.getMethods()) {
+                        out.println("                client." + method.getMethodName() + "Metrics = " + method.getMethodName() + "Metrics;");
+                    }
+                    out.println("                return client;");
+                    out.println("            }");
+                    for (Method method: service.getMethods()) {
+                        String inputType = method.getInputType().getClassName();
+                        String outputType = method.getOutputType().getClassName();
+                        String options = getCallOptions(method);
+                        String requestProto = getRequestProto(className, method, true);
+                        String metrics = method.getMethodName() + "Metrics";
+                        out.println("");
+                        out.println("            @Override");
+                        if (method.getClientStreaming()) {
+                            String call = method.getServerStreaming() ? "asyncBidiStreamingCall" : "asyncClientStreamingCall";
+                            out.println("            public StreamObserver<" + inputType + "> " + method.getMethodName() + "(StreamObserver<" + outputType + "> streamObserver) {");
+                            out.println("                return StreamObserverUtil.transform(ClientCalls." + call + "(channel.newCall(" + method.getMethodName() + "Method, callOptions),");
+                            out.println("                        StreamObserverUtil.transform(streamObserver, " + metrics + ".converter(" + className + "." + outputType + "Message::fromProto))),");
+                            out.println("                        " + metrics + ".converter(" + className + "." + inputType + "Message::toProto));");
+                        } else if (method.getServerStreaming()) {
+                            out.println("            public void " + method.getMethodName() + "(" + inputType + " request, StreamObserver<" + outputType + "> streamObserver) {");
+                            printCallOptions(out, className, protoFile, method, true);
+                            out.println("                ClientCalls.asyncServerStreamingCall(channel.newCall(" + method.getMethodName() + "Method, " + options + "),");
+                            out.println("                        " + requestProto + ",");
+                            out.println("                        StreamObserverUtil.transform(streamObserver, " + metrics + ".converter(" + className + "." + outputType + "Message::fromProto)));");
+                        } else if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                            out.println("            public void " + method.getMethodName() + "(" + inputType + " request, StreamObserver<" + outputType + "> streamObserver) {");
+                            out.println("                if (limiter != null) {");
+                            out.println("                    CompletableFuture<" + outputType + "> limited = limiter.submit(" + metrics + ".queued(() -> {");
+                            out.println("                        CompletableFuture<" + outputType + "> future = new CompletableFuture<>();");
+                            out.println("                        " + method.getMethodName() + "Call(request, CompletableFutureUtil.fromStreamObserver(future, Function.identity()));");
+                            out.println("                        return future;");
+                            out.println("                    }), callOptions.getDeadline());");
+                            out.println("                    CompletableFutureUtil.toStreamObserver(limited, streamObserver, Function.identity());");
+                            out.println("                    return;");
+                            out.println("                }");
+                            out.println("                " + method.getMethodName() + "Call(request, streamObserver);");
+                            out.println("            }");
+                            out.println("");
+                            out.println("            private void " + method.getMethodName() + "Call(" + inputType + " request, StreamObserver<" + outputType + "> streamObserver) {");
+                            printCallOptions(out, className, protoFile, method, true);
+                            out.println("                ClientCalls.asyncUnaryCall(channel.newCall(" + method.getMethodName() + "Method, " + options + "),");
+                            out.println("                        " + requestProto + ",");
+                            out.println("                        StreamObserverUtil.transform(streamObserver, " + metrics + ".converter(" + className + "." + outputType + "Message::fromProto)));");
+                        } else {
+                            if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
+                                out.println("            public CompletableFuture<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request) {");
+                                out.println("                if (limiter != null) {");
+                                out.println("                    return limiter.submit(" + metrics + ".queued(() -> " + method.getMethodName() + "Call(request)), callOptions.getDeadline());");
+                                out.println("                }");
+                                out.println("                return " + method.getMethodName() + "Call(request);");
+                            } else if (method.getAsyncType() == AsyncType.SYNCHRONOUS) {
+                                out.println("            public " + outputType + " " + method.getMethodName() + "(" + inputType + " request) {");
+                                out.println("                if (limiter != null) {");
+                                out.println("                    return CompletableFutureUtil.join(limiter.submit(" + metrics + ".queued(() -> " + method.getMethodName() + "Call(request)), callOptions.getDeadline()));");
+                                out.println("                }");
+                                printCallOptions(out, className, protoFile, method, true);
+                                out.println("                return " + metrics + ".convert(" + className + "." + outputType + "Message::fromProto, ClientCalls.blockingUnaryCall(channel, " + method.getMethodName() + "Method, " + options + ",");
+                                out.println("                        " + requestProto + "));");
+                            }
+                            out.println("            }");
+                            out.println("");
+                            out.println("            private CompletableFuture<" + outputType + "> " + method.getMethodName() + "Call(" + inputType + " request) {");
+                            out.println("                CompletableFuture<" + outputType + "> future = new CompletableFuture<>();");
+                            printCallOptions(out, className, protoFile, method, true);
+                            out.println("                ClientCalls.asyncUnaryCall(channel.newCall(" + method.getMethodName() + "Method, " + options + "),");
+                            out.println("                        " + requestProto + ",");
+                            out.println("                        CompletableFutureUtil.fromStreamObserver(future, " + metrics + ".converter(" + className + "." + outputType + "Message::fromProto)));");
+                            out.println("                return future;");
+                        }
+                        out.println("            }");
+                    }
+                    out.println("        }");
+                    out.println("");
+                    out.println("        // Blocking Client");
+                    out.println("        public static class " + service.getServiceName() + "BlockingClientImpl {");
+                    out.println("            private final Channel channel;");
+                    out.println("            private final CallOptions callOptions;");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "BlockingClientImpl(Channel channel, CallOptions callOptions) {");
                     out.println("                this.channel = channel;");
                     out.println("                this.callOptions = callOptions;");
                     out.println("            }");
                     out.println("");
+                    out.println("            /**");
+                    out.println("             * A client over the same channel asking the server for only the fields in {@code fieldMask}.");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "BlockingClientImpl withFieldMask(FieldMask fieldMask) {");
+                    out.println("                return new " + service.getServiceName() + "BlockingClientImpl(");
+                    out.println("                        ClientInterceptors.intercept(channel, MetadataUtils.newAttachHeadersInterceptor(fieldMask.toHeaders())), callOptions);");
+                    out.println("            }");
+                    for (Method method: service.getMethods()) {
+                        if (method.isStreaming()) {
+                            continue;
+                        }
+                        String inputType = method.getInputType().getClassName();
+                        String outputType = method.getOutputType().getClassName();
+                        String options = getCallOptions(method);
+                        String requestProto = getRequestProto(className, method, false);
+                        out.println("");
+                        out.println("            public " + outputType + " " + method.getMethodName() + "(" + inputType + " request) {");
+                        printCallOptions(out, className, protoFile, method, false);
+                        out.println("                return " + className + "." + outputType + "Message.fromProto(ClientCalls.blockingUnaryCall(channel, " + method.getMethodName() + "Method, " + options + ",");
+                        out.println("                        " + requestProto + "));");
+                        out.println("            }");
+                    }
+                    out.println("        }");
+                    out.println("");
+                    out.println("        // Local Client");
+                    out.println("        public static class " + service.getServiceName() + "LocalClientImpl implements " + service.getServiceName() + " {");
+                    out.println("            private final Channel channel;");
+                    out.println("            private final CallOptions callOptions;");
+                    out.println("            private final boolean copyMessages;");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "LocalClientImpl(Channel channel, CallOptions callOptions) {");
+                    out.println("                this(channel, callOptions, false);");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * @param copyMessages deep copy requests and replies, so that neither side sees later changes made by the other");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "LocalClientImpl(Channel channel, CallOptions callOptions, boolean copyMessages) {");
+                    out.println("                this.channel = channel;");
+                    out.println("                this.callOptions = callOptions;");
+                    out.println("                this.copyMessages = copyMessages;");
+                    out.println("            }");
                     for (Method method: service.getMethods()) {
                         String inputType = method.getInputType().getClassName();
                         String outputType = method.getOutputType().getClassName();
+                        String request = "copyMessages ? " + className + "." + inputType + "Message.copy(request) : request";
+                        String copyReply = "reply -> copyMessages ? " + className + "." + outputType + "Message.copy(reply) : reply";
+                        String call = "channel.newCall(" + method.getMethodName() + "LocalMethod, callOptions)";
+                        out.println("");
                         out.println("            @Override");
-                        if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                        if (method.getClientStreaming()) {
+                            String streamingCall = method.getServerStreaming() ? "asyncBidiStreamingCall" : "asyncClientStreamingCall";
+                            out.println("            public StreamObserver<" + inputType + "> " + method.getMethodName() + "(StreamObserver<" + outputType + "> streamObserver) {");
+                            out.println("                return StreamObserverUtil.transform(ClientCalls." + streamingCall + "(" + call + ",");
+                            out.println("                        StreamObserverUtil.transform(streamObserver, " + copyReply + ")),");
+                            out.println("                        request -> " + request + ");");
+                        } else if (method.getServerStreaming()) {
+                            out.println("            public void " + method.getMethodName() + "(" + inputType + " request, StreamObserver<" + outputType + "> streamObserver) {");
+                            out.println("                ClientCalls.asyncServerStreamingCall(" + call + ", " + request + ",");
+                            out.println("                        StreamObserverUtil.transform(streamObserver, " + copyReply + "));");
+                        } else if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
                             out.println("            public void " + method.getMethodName() + "(" + inputType + " request, StreamObserver<" + outputType + "> streamObserver) {");
-                            out.println("                ClientCalls.asyncUnaryCall(channel.newCall(" + method.getMethodName() + "Method, callOptions),");
-                            out.println("                        " + className + "." + inputType + "Message.toProto(request),");
-                            out.println("                        StreamObserverUtil.transform(streamObserver, " + className + "." + outputType + "Message::fromProto));");
+                            out.println("                ClientCalls.asyncUnaryCall(" + call + ", " + request + ",");
+                            out.println("                        StreamObserverUtil.transform(streamObserver, " + copyReply + "));");
                         } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
                             out.println("            public CompletableFuture<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request) {");
                             out.println("                CompletableFuture<" + outputType + "> future = new CompletableFuture<>();");
-                            out.println("                ClientCalls.asyncUnaryCall(channel.newCall(" + method.getMethodName() + "Method, callOptions),");
-                            out.println("                        " + className + "." + inputType + "Message.toProto(request),");
-                            out.println("                        CompletableFutureUtil.fromStreamObserver(future, " + className + "." + outputType + "Message::fromProto));");
+                            out.println("                ClientCalls.asyncUnaryCall(" + call + ", " + request + ",");
+                            out.println("                        CompletableFutureUtil.fromStreamObserver(future, " + copyReply + "));");
                             out.println("                return future;");
+                        } else if (method.getAsyncType() == AsyncType.SYNCHRONOUS) {
+                            out.println("            public " + outputType + " " + method.getMethodName() + "(" + inputType + " request) {");
+                            out.println("                " + outputType + " reply = ClientCalls.blockingUnaryCall(channel, " + method.getMethodName() + "LocalMethod, callOptions, " + request + ");");
+                            out.println("                return copyMessages ? " + className + "." + outputType + "Message.copy(reply) : reply;");
                         }
                         out.println("            }");
                     }
                     out.println("        }");
                     out.println("");
-                    out.println("        // Server");
-                    out.println("        public static class " + service.getServiceName() + "ServerImpl implements io.grpc.BindableService {");
-                    out.println("            private final " + service.getServiceName() + " impl;");
+                    out.println("        // Pooled Client");
+                    out.println("        public static class " + service.getServiceName() + "PooledClientImpl extends " + service.getServiceName() + "ClientImpl implements AutoCloseable {");
+                    out.println("            private final ChannelPool channelPool;");
                     out.println("");
-                    out.println("            public " + service.getServiceName() + "ServerImpl(" + service.getServiceName() + " impl) {");
-                    out.println("                this.impl = impl;");
+                    out.println("            public " + service.getServiceName() + "PooledClientImpl(Supplier<ManagedChannel> channelFactory, int poolSize, CallOptions callOptions) {");
+                    out.println("                this(new ChannelPool(channelFactory, poolSize), callOptions);");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "PooledClientImpl(Supplier<ManagedChannel> channelFactory, int minPoolSize, int maxPoolSize, CallOptions callOptions) {");
+                    out.println("                this(new ChannelPool(channelFactory, minPoolSize, maxPoolSize, ChannelPool.DEFAULT_MAX_CONCURRENT_STREAMS), callOptions);");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "PooledClientImpl(ChannelPool channelPool, CallOptions callOptions) {");
+                    out.println("                super(channelPool, callOptions);");
+                    out.println("                this.channelPool = channelPool;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public ChannelPool getChannelPool() {");
+                    out.println("                return channelPool;");
                     out.println("            }");
                     out.println("");
                     out.println("            @Override");
-                    out.println("            public ServerServiceDefinition bindService() {");
-                    out.println("                return io.grpc.ServerServiceDefinition.builder(serviceDescriptor)");
-                    for (Method method: service.getMethods()) {
+                    out.println("            public void close() {");
+                    out.println("                channelPool.shutdown();");
+                    out.println("            }");
+                    out.println("        }");
+                    out.println("");
+                    out.println("        // Unix Domain Socket Client");
+                    out.println("        public static class " + service.getServiceName() + "DomainSocketClientImpl extends " + service.getServiceName() + "ClientImpl implements AutoCloseable {");
+                    out.println("            private final ManagedChannel channel;");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "DomainSocketClientImpl(Path path, CallOptions callOptions) {");
+                    out.println("                this(DomainSockets.channelForPath(path).build(), callOptions);");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            private " + service.getServiceName() + "DomainSocketClientImpl(ManagedChannel channel, CallOptions callOptions) {");
+                    out.println("                super(channel, callOptions);");
+                    out.println("                this.channel = channel;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            @Override");
+                    out.println("            public void close() {");
+                    out.println("                channel.shutdown();");
+                    out.println("            }");
+                    out.println("        }");
+                    out.println("");
+                    out.println("        // Load Balanced Client");
+                    out.println("        public static class " + service.getServiceName() + "BalancedClientImpl extends " + service.getServiceName() + "ClientImpl implements AutoCloseable {");
+                    out.println("            private final LoadAwareChannel loadAwareChannel;");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "BalancedClientImpl(EndpointSource endpointSource, Function<String, ManagedChannel> channelFactory, CallOptions callOptions) {");
+                    out.println("                this(new LoadAwareChannel(endpointSource, channelFactory), callOptions);");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "BalancedClientImpl(LoadAwareChannel loadAwareChannel, CallOptions callOptions) {");
+                    out.println("                super(loadAwareChannel, callOptions);");
+                    out.println("                this.loadAwareChannel = loadAwareChannel;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public LoadAwareChannel getLoadAwareChannel() {");
+                    out.println("                return loadAwareChannel;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            @Override");
+                    out.println("            public void close() {");
+                    out.println("                loadAwareChannel.shutdown();");
+                    out.println("            }");
+                    out.println("        }");
+                    out.println("");
+                    if (service.getMethods().stream().anyMatch(method -> method.getInputType().getRoutingKey() != null)) {
+                        out.println("        // Consistent Hash Routed Client");
+                        out.println("        public static class " + service.getServiceName() + "HashRoutedClientImpl extends " + service.getServiceName() + "ClientImpl implements AutoCloseable {");
+                        out.println("            private final ConsistentHashChannel consistentHashChannel;");
+                        out.println("");
+                        out.println("            public " + service.getServiceName() + "HashRoutedClientImpl(EndpointSource endpointSource, Function<String, ManagedChannel> channelFactory, CallOptions callOptions) {");
+                        out.println("                this(new ConsistentHashChannel(endpointSource, channelFactory), callOptions);");
+                        out.println("            }");
+                        out.println("");
+                        out.println("            public " + service.getServiceName() + "HashRoutedClientImpl(ConsistentHashChannel consistentHashChannel, CallOptions callOptions) {");
+                        out.println("                super(consistentHashChannel, callOptions);");
+                        out.println("                this.consistentHashChannel = consistentHashChannel;");
+                        out.println("            }");
+                        out.println("");
+                        out.println("            public ConsistentHashChannel getConsistentHashChannel() {");
+                        out.println("                return consistentHashChannel;");
+                        out.println("            }");
+                        out.println("");
+                        out.println("            @Override");
+                        out.println("            public void close() {");
+                        out.println("                consistentHashChannel.shutdown();");
+                        out.println("            }");
+                        out.println("        }");
+                        out.println("");
+                    }
+                    out.println("        // Load Driver");
+                    out.println("        public static class " + service.getServiceName() + "LoadDriver {");
+                    out.println("            private final " + service.getServiceName() + " client;");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * Open-loop load of the unary methods sent through {@code client}, e.g. a {@link " + service.getServiceName() + "ClientImpl}");
+                    out.println("             * or a {@link " + service.getServiceName() + "LocalClientImpl} of a server in the same process.");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "LoadDriver(" + service.getServiceName() + " client) {");
+                    out.println("                this.client = client;");
+                    out.println("            }");
+                    for (Method method : service.getMethods()) {
+                        if (method.isStreaming()) {
+                            continue;
+                        }
                         String inputType = method.getInputType().getClassName();
                         String outputType = method.getOutputType().getClassName();
-                        String protoInput = protoFile.getOuterClassName() + "." + inputType;
-                        String protoOutput = protoFile.getOuterClassName() + "." + outputType;
-                        out.println("                        .addMethod(" + method.getMethodName() + "Method, ServerCalls.asyncUnaryCall(new ServerCalls.UnaryMethod<" + protoInput + ", " + protoOutput + ">() {");
-                        out.println("                            @Override");
-                        if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
-                            out.println("                            public void invoke(" + protoInput + " request, StreamObserver<" + protoOutput + "> streamObserver) {");
-                            out.println("                                impl.sayHello(" + className + "." + inputType + "Message.fromProto(request),");
-                            out.println("                                        StreamObserverUtil.transform(streamObserver, " + className + "." + outputType + "Message::toProto));");
-                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
-                            out.println("                            public void invoke(" + protoInput + " request, StreamObserver<" + protoOutput + "> streamObserver) {");
-                            out.println("                                CompletableFuture<" + outputType + "> future = impl." + method.getMethodName() + "(" + protoFile.getOuterClassName() + "Proto." + inputType + "Message.fromProto(request));");
-                            out.println("                                CompletableFutureUtil.toStreamObserver(future, streamObserver, " + protoFile.getOuterClassName() + "Proto." + outputType + "Message::toProto);");
+                        String generator = "LoadGenerator<" + inputType + ", " + outputType + ">";
+                        String name = method.getMethodName() + "Method.getFullMethodName()";
+                        out.println("");
+                        out.println("            public " + generator + " " + method.getMethodName() + "(" + inputType + " template) {");
+                        out.println("                return " + method.getMethodName() + "(n -> template);");
+                        out.println("            }");
+                        out.println("");
+                        out.println("            public " + generator + " " + method.getMethodName() + "(LongFunction<" + inputType + "> requests) {");
+                        if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
+                            out.println("                return new LoadGenerator<>(" + name + ", requests, client::" + method.getMethodName() + ");");
+                        } else if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                            out.println("                return new LoadGenerator<>(" + name + ", requests, request -> {");
+                            out.println("                    CompletableFuture<" + outputType + "> future = new CompletableFuture<>();");
+                            out.println("                    client." + method.getMethodName() + "(request, CompletableFutureUtil.fromStreamObserver(future, Function.identity()));");
+                            out.println("                    return future;");
+                            out.println("                });");
+                        } else if (method.getAsyncType() == AsyncType.SYNCHRONOUS) {
+                            out.println("                return LoadGenerator.blocking(" + name + ", requests, client::" + method.getMethodName() + ");");
                         }
-                        out.println("                            }");
-                        out.println("                        }))");
+                        out.println("            }");
+                    }
+                    out.println("        }");
+                    out.println("");
+                    out.println("        // Proxy");
+                    out.println("        public static class " + service.getServiceName() + "Proxy implements io.grpc.BindableService {");
+                    out.println("            private final Channel upstream;");
+                    out.println("            private final CallOptions callOptions;");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * Forwards the calls of this service to {@code upstream} without decoding them. Requests with a routing key");
+                    out.println("             * are only scanned for the key, to route them through a {@link ConsistentHashChannel}.");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "Proxy(Channel upstream, CallOptions callOptions) {");
+                    out.println("                this.upstream = upstream;");
+                    out.println("                this.callOptions = callOptions;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            @Override");
+                    out.println("            public ServerServiceDefinition bindService() {");
+                    out.println("                return io.grpc.ServerServiceDefinition.builder(SERVICE_NAME)");
+                    for (Method method : service.getMethods()) {
+                        Field routingKey = method.getInputType().getRoutingKey();
+                        String handler = "new ProxyCallHandler(upstream, callOptions)";
+                        if (routingKey != null) {
+                            String keyType = "java.lang.String".equals(routingKey.getJavaType()) ? "STRING" : "java.lang.Long".equals(routingKey.getJavaType()) ? "INT64" : "INT32";
+                            handler = "new ProxyCallHandler(upstream, callOptions,\n                                request -> WireScanner.routingKey(request, " + routingKey.getTag() + ", WireScanner.KeyType." + keyType + "))";
+                        }
+                        out.println("                        .addMethod(ByteArrayMarshaller.rawMethod(" + method.getMethodName() + "Method), " + handler + ")");
                     }
                     out.println("                        .build();");
                     out.println("            }");
                     out.println("        }");
                     out.println("");
+                    out.println("        // Server");
+                    String serverInterface = service.getNonBlocking() ? "NonBlockingService" : "io.grpc.BindableService";
+                    out.println("        public static class " + service.getServiceName() + "ServerImpl implements " + serverInterface + " {");
+                    out.println("            private final " + service.getServiceName() + " impl;");
+                    out.println("            private final List<ServerInterceptor> interceptors = new ArrayList<>();");
+                    out.println("            private PriorityExecutor priorityExecutor;");
+                    out.println("            private Executor blockingExecutor;");
+                    for (Method method : service.getMethods()) {
+                        if (method.getMaxConcurrency() > 0) {
+                            out.println("            private final Semaphore " + method.getMethodName() + "Permits = new Semaphore(" + method.getMaxConcurrency() + ", true);");
+                        }
+                    }
+                    for (Method method : service.getMethods()) {
+                        out.println("            private MethodMetrics " + method.getMethodName() + "Metrics = MethodMetrics.of(RpcMetrics.NOOP, " + method.getMethodName() + "Method, RpcMetrics.Side.SERVER);");
+                    }
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "ServerImpl(" + service.getServiceName() + " impl) {");
+                    out.println("                this.impl = impl;");
+                    out.println("                this.interceptors.add(new FieldMaskInterceptor());");
+                    out.println("                this.interceptors.add(new JfrServerInterceptor());");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "ServerImpl withLoadReporting(LoadReportingInterceptor loadReporting) {");
+                    out.println("                interceptors.add(loadReporting);");
+                    out.println("                return this;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "ServerImpl withConcurrencyLimit(ConcurrencyLimitInterceptor concurrencyLimit) {");
+                    out.println("                interceptors.add(concurrencyLimit);");
+                    out.println("                return this;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * Records the calls of every method to {@code metrics}. Call it once, before the service is bound.");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "ServerImpl withMetrics(RpcMetrics metrics) {");
+                    for (Method method : service.getMethods()) {
+                        out.println("                " + method.getMethodName() + "Metrics = MethodMetrics.of(metrics, " + method.getMethodName() + "Method, RpcMetrics.Side.SERVER);");
+                    }
+                    out.println("                interceptors.add(new MetricsServerInterceptor(" + getMetricsFields(service) + "));");
+                    out.println("                return this;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            public " + service.getServiceName() + "ServerImpl withPriorityExecutor(PriorityExecutor priorityExecutor) {");
+                    out.println("                this.priorityExecutor = priorityExecutor;");
+                    out.println("                interceptors.add(new PriorityInterceptor());");
+                    out.println("                return this;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * Executor running the synchronous methods, virtual threads by default when supported.");
+                    out.println("             * Ignored with a priority executor, synchronous methods then run on the priority executor.");
+                    out.println("             */");
+                    out.println("            public " + service.getServiceName() + "ServerImpl withBlockingExecutor(Executor blockingExecutor) {");
+                    out.println("                this.blockingExecutor = blockingExecutor;");
+                    out.println("                return this;");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * A server for this service listening on the Unix domain socket at {@code path}, not started yet.");
+                    out.println("             */");
+                    out.println("            public Server newDomainSocketServer(Path path) {");
+                    out.println("                return DomainSockets.forPath(path).addService(this).build();");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            private Executor blockingExecutor() {");
+                    out.println("                if (priorityExecutor != null) {");
+                    out.println("                    return Runnable::run;");
+                    out.println("                }");
+                    out.println("                return blockingExecutor != null ? blockingExecutor : BlockingExecutors.getDefault();");
+                    out.println("            }");
+                    out.println("");
+                    out.println("            private void dispatch(int priority, StreamObserver<?> streamObserver, Runnable task) {");
+                    out.println("                if (priorityExecutor == null) {");
+                    out.println("                    task.run();");
+                    out.println("                    return;");
+                    out.println("                }");
+                    out.println("                try {");
+                    out.println("                    priorityExecutor.execute(PriorityExecutor.priority(priority), () -> {");
+                    out.println("                        try {");
+                    out.println("                            task.run();");
+                    out.println("                        } catch (RuntimeException e) {");
+                    out.println("                            streamObserver.onError(Status.fromThrowable(e).asRuntimeException());");
+                    out.println("                        }");
+                    out.println("                    });");
+                    out.println("                } catch (RejectedExecutionException e) {");
+                    out.println("                    streamObserver.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());");
+                    out.println("                }");
+                    out.println("            }");
+                    out.println("");
+                    printBindService(out, className, protoFile, service, false);
+                    out.println("");
+                    out.println("            /**");
+                    out.println("             * Binds the service with POJO marshallers: calls from a local client over the in-process transport");
+                    out.println("             * reach {@code impl} without serialization, calls over any other transport are served as usual.");
+                    out.println("             */");
+                    printBindService(out, className, protoFile, service, true);
+                    out.println("        }");
+                    out.println("");
                     out.println("        // Method Descriptors");
                     for (Method method: service.getMethods()) {
                         String protoInput = protoFile.getOuterClassName() + "." + method.getInputType().getClassName();
                         String protoOutput = protoFile.getOuterClassName() + "." + method.getOutputType().getClassName();
                         out.println("        public static final MethodDescriptor<" + protoInput + ", " + protoOutput + "> " + method.getMethodName() + "Method");
                         out.println("                = MethodDescriptor.<" + protoInput + ", " + protoOutput + ">newBuilder()");
-                        out.println("                .setType(MethodDescriptor.MethodType.UNARY)");
+                        out.println("                .setType(MethodDescriptor.MethodType." + getMethodType(method) + ")");
                         out.println("                .setFullMethodName(generateFullMethodName(SERVICE_NAME, \"" + method.getMethodName() + "\"))");
                         out.println("                .setSampledToLocalTracing(true)");
-                        out.println("                .setRequestMarshaller(ProtoUtils.marshaller(" + protoInput + ".getDefaultInstance()))");
-                        out.println("                .setResponseMarshaller(ProtoUtils.marshaller(" + protoOutput + ".getDefaultInstance()))");
+                        out.println("                .setRequestMarshaller(ZeroCopyMarshaller.of(" + protoInput + ".getDefaultInstance()))");
+                        out.println("                .setResponseMarshaller(ZeroCopyMarshaller.of(" + protoOutput + ".getDefaultInstance()))");
                         out.println("                .setSchemaDescriptor(new ProtoMethodDescriptorSupplier() {");
                         out.println("                    @Override public Descriptors.ServiceDescriptor getServiceDescriptor() { return getFileDescriptor().findServiceByName(SERVICE_NAME);}");
                         out.println("                    @Override public Descriptors.MethodDescriptor getMethodDescriptor() { return getServiceDescriptor().findMethodByName(\"" + method.getMethodName() + "\"); }");
@@ -322,6 +773,19 @@ public class ProtoGenImpl implements ProtoGen {
                         out.println("                .build();");
                         out.println("");
                     }
+                    out.println("        // Local Method Descriptors");
+                    for (Method method: service.getMethods()) {
+                        String inputType = method.getInputType().getClassName();
+                        String outputType = method.getOutputType().getClassName();
+                        String protoInput = protoFile.getOuterClassName() + "." + inputType;
+                        String protoOutput = protoFile.getOuterClassName() + "." + outputType;
+                        out.println("        public static final MethodDescriptor<" + inputType + ", " + outputType + "> " + method.getMethodName() + "LocalMethod");
+                        out.println("                = " + method.getMethodName() + "Method.toBuilder(");
+                        out.println("                        new PojoMarshaller<>(" + method.getMethodName() + "Method.getRequestMarshaller(), " + className + "." + inputType + "Message::toProto, " + className + "." + inputType + "Message::fromProto),");
+                        out.println("                        new PojoMarshaller<>(" + method.getMethodName() + "Method.getResponseMarshaller(), " + className + "." + outputType + "Message::toProto, " + className + "." + outputType + "Message::fromProto))");
+                        out.println("                .build();");
+                        out.println("");
+                    }
                     out.println("        // Service Descriptors");
                     out.println("        public static final ServiceDescriptor serviceDescriptor = ServiceDescriptor.newBuilder(SERVICE_NAME)");
                     out.println("                .setSchemaDescriptor(new ProtoServiceDescriptorSupplier() {");
@@ -332,6 +796,13 @@ public class ProtoGenImpl implements ProtoGen {
                         out.println("                .addMethod(" + method.getMethodName() + "Method)");
                     }
                     out.println("                .build();");
+                    out.println("");
+                    out.println("        public static final ServiceDescriptor localServiceDescriptor = ServiceDescriptor.newBuilder(SERVICE_NAME)");
+                    out.println("                .setSchemaDescriptor(serviceDescriptor.getSchemaDescriptor())");
+                    for (Method method: service.getMethods()) {
+                        out.println("                .addMethod(" + method.getMethodName() + "LocalMethod)");
+                    }
+                    out.println("                .build();");
                     out.println("    }");
                     out.println("");
                 }
@@ -341,6 +812,183 @@ public class ProtoGenImpl implements ProtoGen {
         }
     }
 
+    private void printToProtoFields(PrintWriter out, Message message, boolean masked) {
+        for (Field field : message.getFields()) {
+            String setter = getSetter(field.getName());
+            String getter = getGetter(field.getName());
+            String included = masked ? " && mask.includes(\"" + field.getName() + "\")" : "";
+            String childMask = masked ? ", mask.child(\"" + field.getName() + "\")" : "";
+            if (field.getIsList()) {
+                String addOperation = getListAdd(field.getName());
+                if (field.getIsStruct()) {
+                    String messageType = field.getProtoType() + "Message";
+                    String wrapperFunction = messageType + ".toProto";
+                    out.println("            if (pojo." + getter + "() != null" + included + ") {");
+                    out.println("                pojo." + getter + "().forEach(x -> builder." + addOperation + "(" + wrapperFunction + "(x" + childMask + ")));");
+                    out.println("            }");
+                } else {
+                    String wrapperFunction = getSimpleClass(field.getProtoType()) + ".of";
+                    out.println("            if (pojo." + getter + "() != null" + included + ") {");
+                    out.println("                pojo." + getter + "().forEach(x -> builder." + addOperation + "(" + wrapperFunction + "(x)));");
+                    out.println("            }");
+                }
+            } else if (field.getIsMap()) {
+                String putAllFunction = getPutAllMapFunction(field.getName());
+                out.println("            if (pojo." + getter + "() != null" + included + ") {");
+                out.println("                builder." + putAllFunction + "(pojo." + getter + "());");
+                out.println("            }");
+            } else {
+                if (field.getIsStruct()) {
+                    String messageType = getSimpleClass(field.getJavaType()) + "Message";
+                    out.println("            if (pojo." + getter + "() != null" + included + ") {");
+                    out.println("                builder." + setter + "(" + messageType + ".toProto(pojo." + getter + "()" + childMask + "));");
+                    out.println("            }");
+                } else if (field.getIsEnum()) {
+                    String enumType = field.getProtoType();
+                    out.println("            if (pojo." + getter + "() != null" + included + ") {");
+                    out.println("                builder." + setter + "(" + enumType + ".toProto(pojo." + getter + "()));");
+                    out.println("            }");
+                } else {
+                    String wrapperFunction = getSimpleClass(field.getProtoType()) + ".of";
+                    out.println("            if (pojo." + getter + "() != null" + included + ") {");
+                    out.println("                builder." + setter + "(" + wrapperFunction + "(pojo." + getter + "()));");
+                    out.println("            }");
+                }
+            }
+        }
+    }
+
+    private void printBindService(PrintWriter out, String className, ProtoFile protoFile, Service service, boolean local) {
+        String suffix = local ? "Local" : "";
+        if (!local) {
+            out.println("            @Override");
+        }
+        out.println("            public ServerServiceDefinition bind" + suffix + "Service() {");
+        out.println("                ServerServiceDefinition definition = io.grpc.ServerServiceDefinition.builder(" + (local ? "localServiceDescriptor" : "serviceDescriptor") + ")");
+        for (Method method: service.getMethods()) {
+            String inputType = method.getInputType().getClassName();
+            String outputType = method.getOutputType().getClassName();
+            String requestType = local ? inputType : protoFile.getOuterClassName() + "." + inputType;
+            String responseType = local ? outputType : protoFile.getOuterClassName() + "." + outputType;
+            String metrics = method.getMethodName() + "Metrics";
+            String request = local ? "request" : metrics + ".convert(streamObserver, " + className + "." + inputType + "Message::fromProto, request)";
+            String toProto = local ? "Function.identity()" : "reply -> " + metrics + ".convert(streamObserver, " + className + "." + outputType + "Message::toProto, reply, fieldMask)";
+            if (method.getClientStreaming()) {
+                String streaming = method.getServerStreaming() ? "BidiStreaming" : "ClientStreaming";
+                out.println("                        .addMethod(" + method.getMethodName() + suffix + "Method, ServerCalls.async" + streaming + "Call(new ServerCalls." + streaming + "Method<" + requestType + ", " + responseType + ">() {");
+                out.println("                            @Override");
+                out.println("                            public StreamObserver<" + requestType + "> invoke(StreamObserver<" + responseType + "> responseObserver) {");
+                out.println("                                StreamObserver<" + responseType + "> streamObserver = " + metrics + ".observe(responseObserver);");
+                out.println("                                " + metrics + ".started(streamObserver);");
+                if (local) {
+                    out.println("                                return impl." + method.getMethodName() + "(streamObserver);");
+                } else {
+                    out.println("                                FieldMask fieldMask = FieldMask.current();");
+                    out.println("                                return StreamObserverUtil.transform(impl." + method.getMethodName() + "(StreamObserverUtil.transform(streamObserver, " + toProto + ")),");
+                    out.println("                                        request -> " + request + ");");
+                }
+                out.println("                            }");
+                out.println("                        }))");
+                continue;
+            }
+            String callType = method.getServerStreaming() ? "ServerStreaming" : "Unary";
+            out.println("                        .addMethod(" + method.getMethodName() + suffix + "Method, ServerCalls.async" + callType + "Call(new ServerCalls." + callType + "Method<" + requestType + ", " + responseType + ">() {");
+            out.println("                            @Override");
+            out.println("                            public void invoke(" + requestType + " request, StreamObserver<" + responseType + "> responseObserver) {");
+            if (!local && method.getCompression() != null) {
+                out.println("                                StreamObserver<" + responseType + "> streamObserver = " + metrics + ".observe(");
+                out.println("                                        " + method.getMethodName() + "Compression.responseObserver(responseObserver, " + responseType + "::getSerializedSize));");
+            } else {
+                out.println("                                StreamObserver<" + responseType + "> streamObserver = " + metrics + ".observe(responseObserver);");
+            }
+            if (!local) {
+                out.println("                                FieldMask fieldMask = FieldMask.current();");
+            }
+            out.println("                                dispatch(" + method.getPriority() + ", streamObserver, () -> {");
+            if (method.getAsyncType() != AsyncType.SYNCHRONOUS) {
+                out.println("                                    " + metrics + ".started(streamObserver);");
+            }
+            if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                if (local) {
+                    out.println("                                    impl." + method.getMethodName() + "(request, streamObserver);");
+                } else {
+                    out.println("                                    impl." + method.getMethodName() + "(" + request + ",");
+                    out.println("                                            StreamObserverUtil.transform(streamObserver, " + toProto + "));");
+                }
+            } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
+                out.println("                                    CompletableFuture<" + outputType + "> future = impl." + method.getMethodName() + "(" + request + ");");
+                out.println("                                    CompletableFutureUtil.toStreamObserver(future, streamObserver, " + toProto + ");");
+            } else if (method.getAsyncType() == AsyncType.SYNCHRONOUS) {
+                String permits = method.getMaxConcurrency() > 0 ? method.getMethodName() + "Permits" : "null";
+                String reply = "impl." + method.getMethodName() + "(" + request + ")";
+                out.println("                                    BlockingExecutors.invoke(blockingExecutor(), " + permits + ", streamObserver, () -> {");
+                out.println("                                        " + metrics + ".started(streamObserver);");
+                if (local) {
+                    out.println("                                        return " + reply + ";");
+                } else {
+                    out.println("                                        return " + metrics + ".convert(streamObserver, " + className + "." + outputType + "Message::toProto, " + reply + ", fieldMask);");
+                }
+                out.println("                                    });");
+            }
+            out.println("                                });");
+            out.println("                            }");
+            out.println("                        }))");
+        }
+        out.println("                        .build();");
+        out.println("                return ServerInterceptors.intercept(definition, interceptors);");
+        out.println("            }");
+    }
+
+    private void printCallOptions(PrintWriter out, String className, ProtoFile protoFile, Method method, boolean metered) {
+        Field routingKey = method.getInputType().getRoutingKey();
+        if (routingKey != null) {
+            String getter = getGetter(routingKey.getName());
+            out.println("                CallOptions options = request." + getter + "() != null");
+            out.println("                        ? callOptions.withOption(ConsistentHashChannel.ROUTING_KEY, String.valueOf(request." + getter + "()))");
+            out.println("                        : callOptions;");
+        }
+        if (method.getCompression() != null) {
+            String inputType = method.getInputType().getClassName();
+            out.println("                " + protoFile.getOuterClassName() + "." + inputType + " message = " + getRequestConversion(className, method, metered) + ";");
+            out.println("                CallOptions compressed = " + method.getMethodName() + "Compression.callOptions(" + (routingKey != null ? "options" : "callOptions") + ", message.getSerializedSize());");
+        }
+    }
+
+    private String getMethodType(Method method) {
+        if (method.getClientStreaming()) {
+            return method.getServerStreaming() ? "BIDI_STREAMING" : "CLIENT_STREAMING";
+        }
+        return method.getServerStreaming() ? "SERVER_STREAMING" : "UNARY";
+    }
+
+    private String getCallOptions(Method method) {
+        if (method.getCompression() != null) {
+            return "compressed";
+        }
+        return method.getInputType().getRoutingKey() != null ? "options" : "callOptions";
+    }
+
+    private String getRequestProto(String className, Method method, boolean metered) {
+        if (method.getCompression() != null) {
+            return "message";
+        }
+        return getRequestConversion(className, method, metered);
+    }
+
+    private String getRequestConversion(String className, Method method, boolean metered) {
+        String messageType = className + "." + method.getInputType().getClassName() + "Message";
+        if (metered) {
+            return method.getMethodName() + "Metrics.convert(" + messageType + "::toProto, request)";
+        }
+        return messageType + ".toProto(request)";
+    }
+
+    private String getMetricsFields(Service service) {
+        return service.getMethods().stream()
+                .map(method -> method.getMethodName() + "Metrics")
+                .collect(Collectors.joining(", "));
+    }
+
     private String getSetter(String fieldName) {
         String name = fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
         return "set" + name;
@@ -0,0 +1,66 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.ManagedChannel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the calls routed to a channel, from the moment the channel is picked until the call closes.
+ * A retired channel accepts no new calls and is shut down once the calls already counted on it are released,
+ * so a call picked right before the channel was retired still starts on a live channel.
+ */
+final class CallCounter {
+    private static final int RETIRED = Integer.MIN_VALUE / 2;
+
+    private final ManagedChannel channel;
+    // Calls in flight, offset by RETIRED once the channel is retired
+    private final AtomicInteger count = new AtomicInteger();
+
+    CallCounter(ManagedChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Counts a call on the channel, unless it was retired.
+     */
+    boolean acquire() {
+        while (true) {
+            int current = count.get();
+            if (current < 0) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        if (count.decrementAndGet() == RETIRED) {
+            channel.shutdown();
+        }
+    }
+
+    /**
+     * Retires the channel, it is shut down right away if no call is counted on it.
+     */
+    boolean retire() {
+        while (true) {
+            int current = count.get();
+            if (current < 0) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + RETIRED)) {
+                if (current == 0) {
+                    channel.shutdown();
+                }
+                return true;
+            }
+        }
+    }
+
+    int get() {
+        int current = count.get();
+        return current < 0 ? current - RETIRED : current;
+    }
+}
@@ -0,0 +1,298 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ManagedChannel} backed by several underlying channels (and therefore several HTTP/2 connections).
+ * Every call goes to the channel with the fewest outstanding calls. The pool grows when all channels are close
+ * to the server's max-concurrent-streams limit and shrinks again once the load drops.
+ */
+public class ChannelPool extends ManagedChannel {
+    public static final int DEFAULT_MAX_CONCURRENT_STREAMS = 100;
+
+    private static final double GROW_WATERMARK = 0.75;
+    private static final double SHRINK_WATERMARK = 0.25;
+    private static final long DEFAULT_RESIZE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Supplier<ManagedChannel> channelFactory;
+    private final int minSize;
+    private final int maxSize;
+    private final int maxConcurrentStreams;
+    private final long resizeIntervalNanos;
+    private final List<ManagedChannel> retired = new ArrayList<>();
+    private volatile PooledChannel[] channels;
+    private volatile boolean shutdown;
+    private volatile long lastResizeNanos;
+
+    public ChannelPool(Supplier<ManagedChannel> channelFactory, int size) {
+        this(channelFactory, size, size, DEFAULT_MAX_CONCURRENT_STREAMS);
+    }
+
+    public ChannelPool(Supplier<ManagedChannel> channelFactory, int minSize, int maxSize, int maxConcurrentStreams) {
+        this(channelFactory, minSize, maxSize, maxConcurrentStreams, DEFAULT_RESIZE_INTERVAL_NANOS);
+    }
+
+    ChannelPool(Supplier<ManagedChannel> channelFactory, int minSize, int maxSize, int maxConcurrentStreams, long resizeIntervalNanos) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid pool size [" + minSize + ", " + maxSize + "]");
+        }
+        if (maxConcurrentStreams < 1) {
+            throw new IllegalArgumentException("maxConcurrentStreams must be positive");
+        }
+        this.channelFactory = channelFactory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.resizeIntervalNanos = resizeIntervalNanos;
+        PooledChannel[] initial = new PooledChannel[minSize];
+        for (int i = 0; i < minSize; i++) {
+            initial[i] = new PooledChannel(channelFactory.get());
+        }
+        this.channels = initial;
+        this.lastResizeNanos = System.nanoTime();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        PooledChannel pooled = pick();
+        ClientCall<ReqT, RespT> call;
+        try {
+            call = pooled.channel.newCall(method, callOptions);
+        } catch (RuntimeException e) {
+            pooled.release();
+            throw e;
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+            private final AtomicBoolean released = new AtomicBoolean();
+            private volatile boolean started;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                started = true;
+                try {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            release();
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                } catch (RuntimeException e) {
+                    release();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void cancel(String message, Throwable cause) {
+                super.cancel(message, cause);
+                if (!started) {
+                    // No listener to be closed
+                    release();
+                }
+            }
+
+            private void release() {
+                if (released.compareAndSet(false, true)) {
+                    pooled.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Picks the channel of a new call and counts the call on it right away, so that concurrent picks see it and a
+     * picked channel is never retired before the call starts.
+     */
+    private PooledChannel pick() {
+        while (true) {
+            PooledChannel[] current = channels;
+            PooledChannel least = current[0];
+            int leastOutstanding = least.getOutstanding();
+            int total = leastOutstanding;
+            for (int i = 1; i < current.length; i++) {
+                int outstanding = current[i].getOutstanding();
+                total += outstanding;
+                if (outstanding < leastOutstanding) {
+                    least = current[i];
+                    leastOutstanding = outstanding;
+                }
+            }
+
+            PooledChannel picked = least;
+            if (System.nanoTime() - lastResizeNanos >= resizeIntervalNanos) {
+                if (leastOutstanding >= maxConcurrentStreams * GROW_WATERMARK && current.length < maxSize) {
+                    PooledChannel added = grow(current);
+                    if (added != null) {
+                        picked = added;
+                    }
+                } else if (current.length > minSize && total < (current.length - 1) * maxConcurrentStreams * SHRINK_WATERMARK) {
+                    shrink(current, least);
+                }
+            }
+            if (picked.acquire()) {
+                return picked;
+            }
+            // Retired by a concurrent shrink, pick again among the channels left
+        }
+    }
+
+    private synchronized PooledChannel grow(PooledChannel[] expected) {
+        if (shutdown || channels != expected || !resizeAllowed()) {
+            return null;
+        }
+        PooledChannel added = new PooledChannel(channelFactory.get());
+        PooledChannel[] next = new PooledChannel[expected.length + 1];
+        System.arraycopy(expected, 0, next, 0, expected.length);
+        next[expected.length] = added;
+        channels = next;
+        return added;
+    }
+
+    private synchronized void shrink(PooledChannel[] expected, PooledChannel picked) {
+        if (shutdown || channels != expected || !resizeAllowed()) {
+            return;
+        }
+        // Retire the least loaded channel other than the one just picked, it is shut down once its calls are done
+        int victim = -1;
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != picked && (victim < 0 || expected[i].getOutstanding() < expected[victim].getOutstanding())) {
+                victim = i;
+            }
+        }
+        if (victim < 0 || !expected[victim].retire()) {
+            return;
+        }
+        PooledChannel[] next = new PooledChannel[expected.length - 1];
+        for (int i = 0, j = 0; i < expected.length; i++) {
+            if (i != victim) {
+                next[j++] = expected[i];
+            }
+        }
+        channels = next;
+        retired.add(expected[victim].channel);
+        retired.removeIf(ManagedChannel::isTerminated);
+    }
+
+    private boolean resizeAllowed() {
+        long now = System.nanoTime();
+        if (now - lastResizeNanos < resizeIntervalNanos) {
+            return false;
+        }
+        lastResizeNanos = now;
+        return true;
+    }
+
+    public int getSize() {
+        return channels.length;
+    }
+
+    public int getOutstanding() {
+        int total = 0;
+        for (PooledChannel pooled : channels) {
+            total += pooled.getOutstanding();
+        }
+        return total;
+    }
+
+    @Override
+    public String authority() {
+        return channels[0].channel.authority();
+    }
+
+    @Override
+    public synchronized ManagedChannel shutdown() {
+        shutdown = true;
+        for (ManagedChannel channel : allChannels()) {
+            channel.shutdown();
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized ManagedChannel shutdownNow() {
+        shutdown = true;
+        for (ManagedChannel channel : allChannels()) {
+            channel.shutdownNow();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        for (ManagedChannel channel : allChannels()) {
+            if (!channel.isTerminated()) {
+                return false;
+            }
+        }
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<ManagedChannel> all;
+        synchronized (this) {
+            all = allChannels();
+        }
+        for (ManagedChannel channel : all) {
+            long remaining = deadline - System.nanoTime();
+            if (!channel.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<ManagedChannel> allChannels() {
+        List<ManagedChannel> all = new ArrayList<>(retired);
+        for (PooledChannel pooled : channels) {
+            all.add(pooled.channel);
+        }
+        return all;
+    }
+
+    private static class PooledChannel {
+        private final ManagedChannel channel;
+        private final CallCounter outstanding;
+
+        private PooledChannel(ManagedChannel channel) {
+            this.channel = channel;
+            this.outstanding = new CallCounter(channel);
+        }
+
+        private boolean acquire() {
+            return outstanding.acquire();
+        }
+
+        private void release() {
+            outstanding.release();
+        }
+
+        private boolean retire() {
+            return outstanding.retire();
+        }
+
+        private int getOutstanding() {
+            return outstanding.get();
+        }
+    }
+}
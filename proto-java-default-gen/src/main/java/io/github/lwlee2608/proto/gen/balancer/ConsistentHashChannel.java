@@ -0,0 +1,136 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Routes calls carrying a {@link #ROUTING_KEY} onto a consistent-hash ring of endpoints, so the same key keeps going
+ * to the same endpoint and only about 1/n of the keys move when an endpoint is added or removed.
+ * <p>
+ * Loads are bounded: an endpoint already holding more than {@code loadFactor} times the average number of
+ * outstanding calls is skipped and the key spills over to the next endpoint on the ring.
+ * Calls without a routing key go to the less loaded of two random endpoints.
+ */
+public class ConsistentHashChannel extends MultiEndpointChannel {
+    public static final CallOptions.Key<String> ROUTING_KEY = CallOptions.Key.create("io.github.lwlee2608.proto.routingKey");
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+    public static final double DEFAULT_LOAD_FACTOR = 1.25;
+
+    private final int virtualNodes;
+    private final double loadFactor;
+    private volatile Ring ring;
+
+    public ConsistentHashChannel(EndpointSource endpointSource, Function<String, ManagedChannel> channelFactory) {
+        this(endpointSource, channelFactory, DEFAULT_VIRTUAL_NODES, DEFAULT_LOAD_FACTOR);
+    }
+
+    public ConsistentHashChannel(EndpointSource endpointSource, Function<String, ManagedChannel> channelFactory, int virtualNodes, double loadFactor) {
+        super(endpointSource, channelFactory);
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        if (loadFactor < 1.0) {
+            throw new IllegalArgumentException("loadFactor must be at least 1.0");
+        }
+        this.virtualNodes = virtualNodes;
+        this.loadFactor = loadFactor;
+        init();
+    }
+
+    @Override
+    protected void onEndpointsChanged(Endpoint[] endpoints) {
+        ring = new Ring(endpoints, virtualNodes);
+    }
+
+    @Override
+    protected Endpoint pick(Endpoint[] endpoints, MethodDescriptor<?, ?> method, CallOptions callOptions) {
+        String key = callOptions.getOption(ROUTING_KEY);
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        if (key == null) {
+            // Two distinct endpoints, the second drawn from the remaining ones
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(endpoints.length);
+            int second = random.nextInt(endpoints.length - 1);
+            if (second >= first) {
+                second++;
+            }
+            Endpoint a = endpoints[first];
+            Endpoint b = endpoints[second];
+            return a.getOutstanding() <= b.getOutstanding() ? a : b;
+        }
+
+        Ring current = ring;
+        int total = 0;
+        for (Endpoint endpoint : current.endpoints) {
+            total += endpoint.getOutstanding();
+        }
+        double capacity = Math.ceil((total + 1) * loadFactor / current.endpoints.length);
+
+        int index = current.indexOf(hash(key));
+        for (int i = 0; i < current.owners.length; i++) {
+            Endpoint owner = current.owners[(index + i) % current.owners.length];
+            if (owner.getOutstanding() < capacity) {
+                return owner;
+            }
+        }
+        return current.owners[index];
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of the key, followed by the murmur3 finalizer to spread the bits.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static class Ring {
+        private final Endpoint[] endpoints;
+        private final long[] hashes;
+        private final Endpoint[] owners;
+
+        private Ring(Endpoint[] endpoints, int virtualNodes) {
+            this.endpoints = endpoints;
+            int size = endpoints.length * virtualNodes;
+            long[][] points = new long[size][2];
+            for (int e = 0; e < endpoints.length; e++) {
+                for (int v = 0; v < virtualNodes; v++) {
+                    points[e * virtualNodes + v][0] = hash(endpoints[e].getTarget() + "#" + v);
+                    points[e * virtualNodes + v][1] = e;
+                }
+            }
+            Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+            this.hashes = new long[size];
+            this.owners = new Endpoint[size];
+            for (int i = 0; i < size; i++) {
+                hashes[i] = points[i][0];
+                owners[i] = endpoints[(int) points[i][1]];
+            }
+        }
+
+        private int indexOf(long hash) {
+            int index = Arrays.binarySearch(hashes, hash);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index == hashes.length ? 0 : index;
+        }
+    }
+}
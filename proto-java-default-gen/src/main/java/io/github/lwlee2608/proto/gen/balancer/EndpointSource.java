@@ -0,0 +1,12 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import java.util.List;
+
+/**
+ * Supplies the targets (e.g. {@code host:port}) a multi-endpoint channel routes to.
+ * Implementations must return the same list instance for as long as the endpoints do not change,
+ * channels use the identity of the list to detect updates cheaply.
+ */
+public interface EndpointSource {
+    List<String> getEndpoints();
+}
@@ -0,0 +1,89 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads endpoints from a local file, one target per line. Blank lines and lines starting with '#' are ignored.
+ * The file is re-read whenever its modification time changes, checked at most once per refresh interval.
+ */
+public class FileEndpointSource implements EndpointSource {
+    private static final Logger logger = LoggerFactory.getLogger(FileEndpointSource.class);
+    private static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 1000;
+
+    private final Path path;
+    private final long refreshIntervalNanos;
+    private volatile List<String> endpoints;
+    private volatile long lastModified;
+    private volatile long lastCheckNanos;
+
+    public FileEndpointSource(Path path) {
+        this(path, DEFAULT_REFRESH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public FileEndpointSource(Path path, long refreshInterval, TimeUnit unit) {
+        this.path = path;
+        this.refreshIntervalNanos = unit.toNanos(refreshInterval);
+        try {
+            this.lastModified = Files.getLastModifiedTime(path).toMillis();
+            this.endpoints = read(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("No endpoints found in " + path);
+        }
+        this.lastCheckNanos = System.nanoTime();
+    }
+
+    @Override
+    public List<String> getEndpoints() {
+        long now = System.nanoTime();
+        if (now - lastCheckNanos >= refreshIntervalNanos) {
+            refresh(now);
+        }
+        return endpoints;
+    }
+
+    private synchronized void refresh(long now) {
+        if (now - lastCheckNanos < refreshIntervalNanos) {
+            return;
+        }
+        lastCheckNanos = now;
+        try {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == lastModified) {
+                return;
+            }
+            List<String> updated = read(path);
+            lastModified = modified;
+            if (updated.isEmpty()) {
+                logger.warn("Ignoring empty endpoint file {}", path);
+            } else if (!updated.equals(endpoints)) {
+                logger.info("Endpoints updated from {}: {}", path, updated);
+                endpoints = updated;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to reload endpoints from {}", path, e);
+        }
+    }
+
+    private static List<String> read(Path path) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            String target = line.trim();
+            if (!target.isEmpty() && !target.startsWith("#") && !result.contains(target)) {
+                result.add(target);
+            }
+        }
+        return List.copyOf(result);
+    }
+}
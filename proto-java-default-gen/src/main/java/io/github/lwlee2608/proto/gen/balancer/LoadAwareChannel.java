@@ -0,0 +1,91 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Routes every call with power-of-two-choices: two random endpoints are compared and the less loaded one wins.
+ * The load of an endpoint combines the calls this client has outstanding on it with the utilization the server
+ * reported in its last trailers (see {@link LoadReportingInterceptor}). Reports older than a few seconds are ignored.
+ */
+public class LoadAwareChannel extends MultiEndpointChannel {
+    private static final long REPORT_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    public LoadAwareChannel(EndpointSource endpointSource, Function<String, ManagedChannel> channelFactory) {
+        super(endpointSource, channelFactory);
+        init();
+    }
+
+    @Override
+    protected Endpoint pick(Endpoint[] endpoints, MethodDescriptor<?, ?> method, CallOptions callOptions) {
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(endpoints.length);
+        int second = random.nextInt(endpoints.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        LoadAwareEndpoint a = (LoadAwareEndpoint) endpoints[first];
+        LoadAwareEndpoint b = (LoadAwareEndpoint) endpoints[second];
+        return a.load(now) <= b.load(now) ? a : b;
+    }
+
+    @Override
+    protected Endpoint newEndpoint(String target, ManagedChannel channel) {
+        return new LoadAwareEndpoint(target, channel);
+    }
+
+    @Override
+    protected void onCallClosed(Endpoint endpoint, Status status, Metadata trailers) {
+        String inflight = trailers.get(LoadReportingInterceptor.INFLIGHT_KEY);
+        if (inflight == null) {
+            return;
+        }
+        LoadAwareEndpoint loadAware = (LoadAwareEndpoint) endpoint;
+        try {
+            String queueDepth = trailers.get(LoadReportingInterceptor.QUEUE_DEPTH_KEY);
+            String cpu = trailers.get(LoadReportingInterceptor.CPU_KEY);
+            // Clamped, a negative or out of range report must not make an endpoint look idle
+            loadAware.reportedInflight = Math.max(Integer.parseInt(inflight), 0);
+            loadAware.reportedQueueDepth = queueDepth != null ? Math.max(Integer.parseInt(queueDepth), 0) : 0;
+            loadAware.reportedCpu = cpu != null ? clampCpu(Double.parseDouble(cpu)) : 0;
+            loadAware.reportNanos = System.nanoTime();
+        } catch (NumberFormatException e) {
+            // Ignore malformed report, keep the previous one
+        }
+    }
+
+    private static double clampCpu(double cpu) {
+        return cpu > 0 ? Math.min(cpu, 1.0) : 0;
+    }
+
+    private static class LoadAwareEndpoint extends Endpoint {
+        private volatile int reportedInflight;
+        private volatile int reportedQueueDepth;
+        private volatile double reportedCpu;
+        private volatile long reportNanos;
+
+        private LoadAwareEndpoint(String target, ManagedChannel channel) {
+            super(target, channel);
+            this.reportNanos = System.nanoTime() - REPORT_TTL_NANOS;
+        }
+
+        private double load(long now) {
+            double load = getOutstanding() + 1;
+            if (now - reportNanos < REPORT_TTL_NANOS) {
+                load = (load + reportedInflight + reportedQueueDepth) * (1 + reportedCpu);
+            }
+            return load;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Reports a cheap utilization signal of this server in the trailers of every response: the number of calls in flight,
+ * an optional queue depth and the CPU load. The CPU load is omitted on platforms without a system load average
+ * (e.g. Windows). {@link LoadAwareChannel} uses it to weight endpoints.
+ * Share a single instance between all services of a server so that in-flight calls are counted server wide.
+ */
+public class LoadReportingInterceptor implements ServerInterceptor {
+    public static final Metadata.Key<String> INFLIGHT_KEY = Metadata.Key.of("x-load-inflight", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Metadata.Key<String> QUEUE_DEPTH_KEY = Metadata.Key.of("x-load-queue-depth", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Metadata.Key<String> CPU_KEY = Metadata.Key.of("x-load-cpu", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final long CPU_SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final IntSupplier queueDepth;
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private volatile String cpu;
+    private volatile long cpuSampleNanos = System.nanoTime() - CPU_SAMPLE_INTERVAL_NANOS;
+
+    public LoadReportingInterceptor() {
+        this(null);
+    }
+
+    /**
+     * @param queueDepth reports the number of calls waiting to be executed (e.g. the size of the server executor's queue),
+     *                   or {@code null} to omit it
+     */
+    public LoadReportingInterceptor(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        inflight.incrementAndGet();
+        AtomicBoolean done = new AtomicBoolean();
+        ServerCall<ReqT, RespT> reportingCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (!done.getAndSet(true)) {
+                    inflight.decrementAndGet();
+                }
+                report(trailers);
+                super.close(status, trailers);
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(reportingCall, headers);
+        } catch (RuntimeException e) {
+            if (!done.getAndSet(true)) {
+                inflight.decrementAndGet();
+            }
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onCancel() {
+                if (!done.getAndSet(true)) {
+                    inflight.decrementAndGet();
+                }
+                super.onCancel();
+            }
+        };
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private void report(Metadata trailers) {
+        trailers.put(INFLIGHT_KEY, Integer.toString(inflight.get()));
+        if (queueDepth != null) {
+            trailers.put(QUEUE_DEPTH_KEY, Integer.toString(Math.max(queueDepth.getAsInt(), 0)));
+        }
+        String cpu = sampleCpu();
+        if (cpu != null) {
+            trailers.put(CPU_KEY, cpu);
+        }
+    }
+
+    private String sampleCpu() {
+        long now = System.nanoTime();
+        if (now - cpuSampleNanos >= CPU_SAMPLE_INTERVAL_NANOS) {
+            cpuSampleNanos = now;
+            // Negative when the platform has no load average
+            double load = os.getSystemLoadAverage();
+            cpu = load >= 0 ? String.format(Locale.ROOT, "%.2f", Math.min(load / os.getAvailableProcessors(), 1.0)) : null;
+        }
+        return cpu;
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Base class of channels that route each call to one of several endpoints. Keeps one channel per endpoint in sync
+ * with an {@link EndpointSource} and tracks the outstanding calls of every endpoint. Subclasses decide which endpoint
+ * a call goes to.
+ */
+public abstract class MultiEndpointChannel extends ManagedChannel {
+    private final EndpointSource endpointSource;
+    private final Function<String, ManagedChannel> channelFactory;
+    private final List<ManagedChannel> retired = new ArrayList<>();
+    private volatile List<String> targets;
+    private volatile Endpoint[] endpoints;
+    private volatile boolean shutdown;
+
+    protected MultiEndpointChannel(EndpointSource endpointSource, Function<String, ManagedChannel> channelFactory) {
+        this.endpointSource = endpointSource;
+        this.channelFactory = channelFactory;
+        this.endpoints = new Endpoint[0];
+    }
+
+    /**
+     * Must be called at the end of the subclass constructor, once the subclass is ready to receive
+     * {@link #onEndpointsChanged(Endpoint[])}.
+     */
+    protected void init() {
+        endpoints();
+    }
+
+    protected abstract Endpoint pick(Endpoint[] endpoints, MethodDescriptor<?, ?> method, CallOptions callOptions);
+
+    protected Endpoint newEndpoint(String target, ManagedChannel channel) {
+        return new Endpoint(target, channel);
+    }
+
+    /**
+     * Called with the new set of endpoints whenever the endpoint source changes. Runs while holding the channel's lock.
+     */
+    protected void onEndpointsChanged(Endpoint[] endpoints) {
+    }
+
+    /**
+     * Called when a call routed to {@code endpoint} completes.
+     */
+    protected void onCallClosed(Endpoint endpoint, Status status, Metadata trailers) {
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        Endpoint endpoint;
+        do {
+            // Counted at pick time, an endpoint removed meanwhile refuses the call and another one is picked
+            endpoint = pick(endpoints(), method, callOptions);
+        } while (!endpoint.outstanding.acquire());
+        Endpoint picked = endpoint;
+        ClientCall<ReqT, RespT> call;
+        try {
+            call = picked.channel.newCall(method, callOptions);
+        } catch (RuntimeException e) {
+            picked.outstanding.release();
+            throw e;
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+            private final AtomicBoolean released = new AtomicBoolean();
+            private volatile boolean started;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                started = true;
+                try {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            release();
+                            onCallClosed(picked, status, trailers);
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                } catch (RuntimeException e) {
+                    release();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void cancel(String message, Throwable cause) {
+                super.cancel(message, cause);
+                if (!started) {
+                    // No listener to be closed
+                    release();
+                }
+            }
+
+            private void release() {
+                if (released.compareAndSet(false, true)) {
+                    picked.outstanding.release();
+                }
+            }
+        };
+    }
+
+    protected Endpoint[] endpoints() {
+        List<String> latest = endpointSource.getEndpoints();
+        if (latest != targets) {
+            update(latest);
+        }
+        return endpoints;
+    }
+
+    private synchronized void update(List<String> latest) {
+        if (latest == targets || shutdown) {
+            return;
+        }
+        Map<String, Endpoint> existing = new HashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            existing.put(endpoint.target, endpoint);
+        }
+        Endpoint[] next = new Endpoint[latest.size()];
+        for (int i = 0; i < next.length; i++) {
+            String target = latest.get(i);
+            Endpoint endpoint = existing.remove(target);
+            next[i] = endpoint != null ? endpoint : newEndpoint(target, channelFactory.apply(target));
+        }
+        // Endpoints that disappeared are shut down once the calls already routed to them are done
+        for (Endpoint removed : existing.values()) {
+            removed.outstanding.retire();
+            retired.add(removed.channel);
+        }
+        retired.removeIf(ManagedChannel::isTerminated);
+        onEndpointsChanged(next);
+        endpoints = next;
+        targets = latest;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return List.of(endpoints());
+    }
+
+    @Override
+    public String authority() {
+        Endpoint[] current = endpoints();
+        return current.length > 0 ? current[0].channel.authority() : null;
+    }
+
+    @Override
+    public synchronized ManagedChannel shutdown() {
+        shutdown = true;
+        for (ManagedChannel channel : allChannels()) {
+            channel.shutdown();
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized ManagedChannel shutdownNow() {
+        shutdown = true;
+        for (ManagedChannel channel : allChannels()) {
+            channel.shutdownNow();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        for (ManagedChannel channel : allChannels()) {
+            if (!channel.isTerminated()) {
+                return false;
+            }
+        }
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<ManagedChannel> all;
+        synchronized (this) {
+            all = allChannels();
+        }
+        for (ManagedChannel channel : all) {
+            long remaining = deadline - System.nanoTime();
+            if (!channel.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<ManagedChannel> allChannels() {
+        List<ManagedChannel> all = new ArrayList<>(retired);
+        for (Endpoint endpoint : endpoints) {
+            all.add(endpoint.channel);
+        }
+        return all;
+    }
+
+    public static class Endpoint {
+        private final String target;
+        private final ManagedChannel channel;
+        private final CallCounter outstanding;
+
+        protected Endpoint(String target, ManagedChannel channel) {
+            this.target = target;
+            this.channel = channel;
+            this.outstanding = new CallCounter(channel);
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class StaticEndpointSource implements EndpointSource {
+    private final List<String> endpoints;
+
+    public StaticEndpointSource(String... endpoints) {
+        this(Arrays.asList(endpoints));
+    }
+
+    public StaticEndpointSource(List<String> endpoints) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        this.endpoints = List.copyOf(endpoints);
+    }
+
+    @Override
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.lwlee2608.proto.gen.compression;
+
+import io.grpc.CallOptions;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Compression policy of one method: messages with an encoded size of at least {@code threshold} bytes are compressed
+ * with {@code codec}, smaller ones are sent as is since compressing them costs more CPU than it saves bandwidth.
+ * <p>
+ * The server only compresses replies if the client accepts the codec, and falls back to no compression otherwise.
+ */
+public class MessageCompression {
+    private final String codec;
+    private final int threshold;
+
+    public MessageCompression(String codec, int threshold) {
+        if (codec == null || codec.isEmpty()) {
+            throw new IllegalArgumentException("codec must not be empty");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public boolean shouldCompress(int encodedSize) {
+        return encodedSize >= threshold;
+    }
+
+    /**
+     * Call options for a unary call sending a request of {@code encodedSize} bytes.
+     */
+    public CallOptions callOptions(CallOptions callOptions, int encodedSize) {
+        return shouldCompress(encodedSize) ? callOptions.withCompression(codec) : callOptions;
+    }
+
+    /**
+     * Wraps the response observer of a server call to compress each reply reaching the threshold. Must be called
+     * before the first reply is sent. Observers not belonging to a server call are returned as is.
+     */
+    public <T> StreamObserver<T> responseObserver(StreamObserver<T> streamObserver, ToIntFunction<T> encodedSize) {
+        if (!(streamObserver instanceof ServerCallStreamObserver)) {
+            return streamObserver;
+        }
+        ServerCallStreamObserver<T> call = (ServerCallStreamObserver<T>) streamObserver;
+        call.setCompression(codec);
+        return new StreamObserver<T>() {
+            @Override
+            public void onNext(T value) {
+                call.setMessageCompression(shouldCompress(encodedSize.applyAsInt(value)));
+                call.onNext(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                call.onError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                call.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "MessageCompression{codec=" + codec + ", threshold=" + threshold + "}";
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs synchronous service methods off the transport threads. By default every call gets its own virtual thread when
+ * the runtime supports them (Java 21 or newer), otherwise calls run on a shared pool of daemon threads.
+ */
+public class BlockingExecutors {
+    private static final Logger logger = LoggerFactory.getLogger(BlockingExecutors.class);
+
+    private static volatile Executor defaultExecutor;
+    private static volatile boolean virtualThreads;
+
+    /**
+     * The shared default executor, created on first use.
+     */
+    public static Executor getDefault() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (BlockingExecutors.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = createDefault();
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public static boolean isVirtualThreads() {
+        getDefault();
+        return virtualThreads;
+    }
+
+    /**
+     * An executor starting a new virtual thread per task, or {@code null} if the runtime does not support them.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Not available before Java 21, or only as preview feature in Java 19 and 20
+            return null;
+        }
+    }
+
+    private static Executor createDefault() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor != null) {
+            virtualThreads = true;
+            return executor;
+        }
+        logger.info("Virtual threads not supported, running synchronous methods on a cached thread pool");
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "proto-blocking-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Runs {@code call} on {@code executor} in the current {@link Context} and completes {@code streamObserver} with
+     * its result. With {@code permits}, the call first waits for a permit until the deadline of the call.
+     */
+    public static <T> void invoke(Executor executor, Semaphore permits, StreamObserver<T> streamObserver, Supplier<T> call) {
+        Runnable task = Context.current().wrap(() -> {
+            if (permits != null && !acquire(permits, streamObserver)) {
+                return;
+            }
+            try {
+                T reply = call.get();
+                streamObserver.onNext(reply);
+                streamObserver.onCompleted();
+            } catch (RuntimeException e) {
+                streamObserver.onError(Status.fromThrowable(e).asRuntimeException());
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            streamObserver.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    private static boolean acquire(Semaphore permits, StreamObserver<?> streamObserver) {
+        Deadline deadline = Context.current().getDeadline();
+        try {
+            if (deadline == null) {
+                permits.acquire();
+                return true;
+            }
+            if (permits.tryAcquire(deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            streamObserver.onError(Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded while waiting for a free slot").asRuntimeException());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            streamObserver.onError(Status.CANCELLED.withDescription("Interrupted while waiting for a free slot").asRuntimeException());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.BindableService;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the calls of non-blocking services directly on the transport thread, saving the hop to the server executor.
+ * Calls of any other service keep going to the server executor.
+ * <pre>
+ *     ServerBuilder.forPort(8080)
+ *         .addService(greeterServer)
+ *         .callExecutor(DirectCallExecutorSupplier.forServices(greeterServer))
+ * </pre>
+ */
+public class DirectCallExecutorSupplier implements ServerCallExecutorSupplier {
+    private static final Executor DIRECT = Runnable::run;
+
+    private final Set<String> serviceNames;
+
+    private DirectCallExecutorSupplier(Set<String> serviceNames) {
+        this.serviceNames = serviceNames;
+    }
+
+    /**
+     * Direct execution for those of the given services that are {@link NonBlockingService}s.
+     */
+    public static DirectCallExecutorSupplier forServices(BindableService... services) {
+        Set<String> serviceNames = new HashSet<>();
+        for (BindableService service : services) {
+            if (service instanceof NonBlockingService) {
+                serviceNames.add(service.bindService().getServiceDescriptor().getName());
+            }
+        }
+        return new DirectCallExecutorSupplier(serviceNames);
+    }
+
+    @Override
+    public <ReqT, RespT> Executor getExecutor(ServerCall<ReqT, RespT> call, Metadata metadata) {
+        String serviceName = call.getMethodDescriptor().getServiceName();
+        return serviceNames.contains(serviceName) ? DIRECT : null;
+    }
+}
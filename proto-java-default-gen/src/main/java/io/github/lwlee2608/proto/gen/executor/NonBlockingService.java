@@ -0,0 +1,9 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.BindableService;
+
+/**
+ * Implemented by generated servers of services annotated with {@code @ProtoService(nonBlocking = true)}.
+ */
+public interface NonBlockingService extends BindableService {
+}
@@ -0,0 +1,202 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs tasks on a delegate executor, at most {@code concurrency} at a time, picking queued tasks by priority
+ * (0 is the highest). Each priority level has its own bounded queue; a task submitted to a full level is rejected
+ * with {@link RejectedExecutionException}.
+ * <p>
+ * To keep lower levels from starving, a queued task that has waited longer than {@code maxWait} is served before
+ * any higher priority task, oldest first.
+ */
+public class PriorityExecutor implements Executor {
+    private static final Logger logger = LoggerFactory.getLogger(PriorityExecutor.class);
+
+    public static final int HIGH = 0;
+    public static final int NORMAL = 1;
+    public static final int LOW = 2;
+    public static final int DEFAULT_LEVELS = 3;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 1000;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 200;
+
+    /**
+     * Priority of the current call, set from the request headers by {@link PriorityInterceptor}.
+     */
+    public static final Context.Key<Integer> PRIORITY_CONTEXT_KEY = Context.key("io.github.lwlee2608.proto.priority");
+
+    private final Executor delegate;
+    private final int concurrency;
+    private final int maxQueueSize;
+    private final long maxWaitNanos;
+    private final ArrayDeque<Task>[] queues;
+    private final AtomicLong[] rejected;
+    private final AtomicLong promoted = new AtomicLong();
+    private int queued;
+    private int running;
+
+    public PriorityExecutor(Executor delegate, int concurrency) {
+        this(delegate, concurrency, DEFAULT_LEVELS, DEFAULT_MAX_QUEUE_SIZE, DEFAULT_MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public PriorityExecutor(Executor delegate, int concurrency, int levels, int maxQueueSize, long maxWait, TimeUnit unit) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        if (levels < 1) {
+            throw new IllegalArgumentException("levels must be positive");
+        }
+        this.delegate = delegate;
+        this.concurrency = concurrency;
+        this.maxQueueSize = maxQueueSize;
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        this.queues = new ArrayDeque[levels];
+        this.rejected = new AtomicLong[levels];
+        for (int i = 0; i < levels; i++) {
+            queues[i] = new ArrayDeque<>();
+            rejected[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Priority of the current call if the client sent one, otherwise {@code defaultPriority}.
+     */
+    public static int priority(int defaultPriority) {
+        Integer priority = PRIORITY_CONTEXT_KEY.get();
+        return priority != null ? priority : defaultPriority;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(priority(NORMAL), command);
+    }
+
+    /**
+     * Runs {@code command} in the current {@link Context}, at the given priority. Priorities beyond the lowest level
+     * are treated as the lowest level.
+     */
+    public void execute(int priority, Runnable command) {
+        int level = Math.max(0, Math.min(priority, queues.length - 1));
+        Task task = new Task(level, Context.current().wrap(command));
+        synchronized (this) {
+            if (queued == 0 && running < concurrency) {
+                running++;
+            } else if (queues[level].size() >= maxQueueSize) {
+                rejected[level].incrementAndGet();
+                throw new RejectedExecutionException("Queue of priority " + level + " is full");
+            } else {
+                queues[level].addLast(task);
+                queued++;
+                return;
+            }
+        }
+        try {
+            delegate.execute(() -> work(task));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                running--;
+            }
+            throw e;
+        }
+    }
+
+    private void work(Task first) {
+        Task task = first;
+        while (task != null) {
+            try {
+                task.command.run();
+            } catch (RuntimeException e) {
+                logger.warn("Task of priority {} failed", task.level, e);
+            }
+            task = next();
+        }
+    }
+
+    private synchronized Task next() {
+        if (queued == 0) {
+            running--;
+            return null;
+        }
+        long now = System.nanoTime();
+        int level = -1;
+        long oldest = now - maxWaitNanos;
+        for (int i = 0; i < queues.length; i++) {
+            Task head = queues[i].peekFirst();
+            if (head != null && head.enqueueNanos - oldest < 0) {
+                oldest = head.enqueueNanos;
+                level = i;
+            }
+        }
+        if (level < 0) {
+            level = 0;
+            while (queues[level].isEmpty()) {
+                level++;
+            }
+        } else if (level > 0 && !queuesAboveEmpty(level)) {
+            promoted.incrementAndGet();
+        }
+        queued--;
+        return queues[level].pollFirst();
+    }
+
+    private boolean queuesAboveEmpty(int level) {
+        for (int i = 0; i < level; i++) {
+            if (!queues[i].isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getLevels() {
+        return queues.length;
+    }
+
+    public synchronized int getQueueDepth(int level) {
+        return queues[level].size();
+    }
+
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    public long getRejected(int level) {
+        return rejected[level].get();
+    }
+
+    /**
+     * Number of tasks served ahead of higher priority tasks because they waited longer than the max wait.
+     */
+    public long getPromoted() {
+        return promoted.get();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder depths = new StringBuilder();
+        for (int i = 0; i < queues.length; i++) {
+            depths.append(i == 0 ? "" : ", ").append(queues[i].size());
+        }
+        return "PriorityExecutor{running=" + running + ", queueDepths=[" + depths + "], promoted=" + promoted.get() + "}";
+    }
+
+    private static class Task {
+        private final int level;
+        private final Runnable command;
+        private final long enqueueNanos = System.nanoTime();
+
+        private Task(int level, Runnable command) {
+            this.level = level;
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Reads the per-call priority from the {@code x-priority} request header into {@link PriorityExecutor#PRIORITY_CONTEXT_KEY},
+ * overriding the priority of the method. Malformed or negative values are ignored.
+ */
+public class PriorityInterceptor implements ServerInterceptor {
+    public static final Metadata.Key<String> PRIORITY_KEY = Metadata.Key.of("x-priority", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        String value = headers.get(PRIORITY_KEY);
+        if (value != null) {
+            try {
+                int priority = Integer.parseInt(value.trim());
+                if (priority >= 0) {
+                    Context context = Context.current().withValue(PriorityExecutor.PRIORITY_CONTEXT_KEY, priority);
+                    return Contexts.interceptCall(context, call, headers, next);
+                }
+            } catch (NumberFormatException e) {
+                // Ignore malformed priority, the method priority applies
+            }
+        }
+        return next.startCall(call, headers);
+    }
+}
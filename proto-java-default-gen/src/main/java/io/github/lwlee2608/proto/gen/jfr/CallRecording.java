@@ -0,0 +1,40 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+import io.grpc.Status;
+
+/**
+ * The {@link RpcCallEvent} and {@link SlowRpcCallEvent} of one call, only created while {@link JfrEvents#isCallRecorded()}.
+ */
+class CallRecording {
+    private final RpcCallEvent event = new RpcCallEvent();
+    private final SlowRpcCallEvent slowEvent = new SlowRpcCallEvent();
+    private final String method;
+    private final String side;
+
+    CallRecording(String method, String side) {
+        this.method = method;
+        this.side = side;
+    }
+
+    void begin() {
+        event.begin();
+        slowEvent.begin();
+    }
+
+    void end(Status.Code code) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.side = side;
+            event.status = code.name();
+            event.commit();
+        }
+        slowEvent.end();
+        if (slowEvent.shouldCommit()) {
+            slowEvent.method = method;
+            slowEvent.side = side;
+            slowEvent.status = code.name();
+            slowEvent.commit();
+        }
+    }
+}
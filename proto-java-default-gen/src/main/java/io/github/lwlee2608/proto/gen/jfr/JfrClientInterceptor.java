@@ -0,0 +1,40 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * Emits a {@link RpcCallEvent} and a {@link SlowRpcCallEvent} per client call while a flight recording is on,
+ * otherwise passes calls through untouched. A call is recorded once, by the outermost of several such interceptors.
+ */
+public class JfrClientInterceptor implements ClientInterceptor {
+    private static final CallOptions.Key<Boolean> RECORDED = CallOptions.Key.createWithDefault("jfr-recorded", false);
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        if (!JfrEvents.isCallRecorded() || callOptions.getOption(RECORDED)) {
+            return next.newCall(method, callOptions);
+        }
+        CallRecording recording = new CallRecording(method.getFullMethodName(), "client");
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions.withOption(RECORDED, true))) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                recording.begin();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        recording.end(status.getCode());
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+/**
+ * Whether the events of this package are on in a running recording, checked before creating any event so that with
+ * no recording on the generated code neither allocates nor reads the clock for them. {@code isEnabled()} only reads
+ * the state of the event type, one shared instance per type answers for every thread.
+ */
+public final class JfrEvents {
+    private static final RpcCallEvent RPC_CALL = new RpcCallEvent();
+    private static final SlowRpcCallEvent SLOW_RPC_CALL = new SlowRpcCallEvent();
+    private static final MessageConversionEvent MESSAGE_CONVERSION = new MessageConversionEvent();
+    private static final MessageEncodeEvent MESSAGE_ENCODE = new MessageEncodeEvent();
+    private static final MessageDecodeEvent MESSAGE_DECODE = new MessageDecodeEvent();
+
+    private JfrEvents() {
+    }
+
+    public static boolean isCallRecorded() {
+        return RPC_CALL.isEnabled() || SLOW_RPC_CALL.isEnabled();
+    }
+
+    public static boolean isConversionRecorded() {
+        return MESSAGE_CONVERSION.isEnabled();
+    }
+
+    public static boolean isEncodeRecorded() {
+        return MESSAGE_ENCODE.isEnabled();
+    }
+
+    public static boolean isDecodeRecorded() {
+        return MESSAGE_DECODE.isEnabled();
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Emits a {@link RpcCallEvent} and a {@link SlowRpcCallEvent} per server call while a flight recording is on,
+ * otherwise passes calls through untouched.
+ */
+public class JfrServerInterceptor implements ServerInterceptor {
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        if (!JfrEvents.isCallRecorded()) {
+            return next.startCall(call, headers);
+        }
+        CallRecording recording = new CallRecording(call.getMethodDescriptor().getFullMethodName(), "server");
+        recording.begin();
+        RecordedCall<ReqT, RespT> recordedCall = new RecordedCall<>(call);
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(recordedCall, headers)) {
+            @Override
+            public void onComplete() {
+                recording.end(recordedCall.code);
+                super.onComplete();
+            }
+
+            @Override
+            public void onCancel() {
+                recording.end(Status.Code.CANCELLED);
+                super.onCancel();
+            }
+        };
+    }
+
+    private static class RecordedCall<ReqT, RespT> extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+        private volatile Status.Code code = Status.Code.OK;
+
+        RecordedCall(ServerCall<ReqT, RespT> call) {
+            super(call);
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            code = status.getCode();
+            super.close(status, trailers);
+        }
+    }
+}
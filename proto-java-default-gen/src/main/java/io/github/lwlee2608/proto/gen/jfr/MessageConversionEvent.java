@@ -0,0 +1,25 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.github.lwlee2608.proto.MessageConversion")
+@Label("Message Conversion")
+@Description("Conversion of a message of a call between its POJO and protobuf form")
+@Category({"Proto Java", "Serialization"})
+@StackTrace(false)
+public class MessageConversionEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Direction")
+    @Description("toProto or fromProto")
+    public String direction;
+}
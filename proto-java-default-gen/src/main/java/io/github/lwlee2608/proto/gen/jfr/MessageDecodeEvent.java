@@ -0,0 +1,21 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.github.lwlee2608.proto.MessageDecode")
+@Label("Message Decode")
+@Category({"Proto Java", "Serialization"})
+@StackTrace(false)
+public class MessageDecodeEvent extends Event {
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
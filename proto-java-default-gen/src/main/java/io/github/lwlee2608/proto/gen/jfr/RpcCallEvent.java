@@ -0,0 +1,25 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.github.lwlee2608.proto.RpcCall")
+@Label("RPC Call")
+@Description("A call of a generated client or server, from its start until it ends")
+@Category({"Proto Java", "RPC"})
+@StackTrace(false)
+public class RpcCallEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Side")
+    @Description("client or server")
+    public String side;
+
+    @Label("Status")
+    public String status;
+}
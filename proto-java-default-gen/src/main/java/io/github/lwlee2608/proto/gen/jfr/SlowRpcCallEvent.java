@@ -0,0 +1,31 @@
+package io.github.lwlee2608.proto.gen.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Same as {@link RpcCallEvent} but only for calls longer than the threshold, 500 ms unless set in the recording
+ * settings. Keeps slow calls in recordings that leave out {@link RpcCallEvent}.
+ */
+@Name("io.github.lwlee2608.proto.SlowRpcCall")
+@Label("Slow RPC Call")
+@Description("A call of a generated client or server taking longer than the threshold")
+@Category({"Proto Java", "RPC"})
+@StackTrace(false)
+@Threshold("500 ms")
+public class SlowRpcCallEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Side")
+    @Description("client or server")
+    public String side;
+
+    @Label("Status")
+    public String status;
+}
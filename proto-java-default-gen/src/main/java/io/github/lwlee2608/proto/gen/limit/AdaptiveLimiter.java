@@ -0,0 +1,144 @@
+package io.github.lwlee2608.proto.gen.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that adapts to observed latency, following the gradient algorithm: the limit shrinks when the
+ * short-term latency rises above the long-term baseline (requests start queueing) and grows again, by roughly
+ * the square root of the limit, while latency stays flat. Dropped calls (timeouts, overload errors) reduce the limit
+ * multiplicatively.
+ */
+public class AdaptiveLimiter {
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 1000;
+
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+    private static final double LONG_WINDOW = 600;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInflight;
+
+    public AdaptiveLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits, initial=" + initialLimit + " min=" + minLimit + " max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * @return {@code true} if the call may proceed, in which case it must be completed with {@link #onSuccess(long)}
+     *         or {@link #onDropped()}
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(true);
+    }
+
+    boolean tryAcquire(boolean countRejection) {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                if (countRejection) {
+                    rejected.incrementAndGet();
+                }
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int current = inflight.getAndDecrement();
+        sample(rttNanos, current);
+    }
+
+    public void onDropped() {
+        inflight.decrementAndGet();
+        synchronized (this) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    /**
+     * Releases a call without feeding its latency back into the limit, e.g. when it was cancelled by the client.
+     */
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    private synchronized void sample(long rttNanos, int inflightAtCompletion) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        // Aggregate about one limit's worth of samples before updating
+        windowRttNanos += rttNanos;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtCompletion);
+        if (++windowSamples < Math.max(MIN_WINDOW_SAMPLES, limit)) {
+            return;
+        }
+        double shortRttNanos = windowRttNanos / windowSamples;
+        int maxInflight = windowMaxInflight;
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos += (shortRttNanos - longRttNanos) / LONG_WINDOW;
+        }
+        // The baseline drifted up because of sustained load, let it recover faster
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // Don't grow the limit while the application does not use it
+        if (maxInflight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLimiter{limit=" + limit + ", inflight=" + inflight.get() + ", rejected=" + rejected.get() + "}";
+    }
+}
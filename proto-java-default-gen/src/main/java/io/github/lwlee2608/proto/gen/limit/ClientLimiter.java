@@ -0,0 +1,195 @@
+package io.github.lwlee2608.proto.gen.limit;
+
+import io.grpc.Deadline;
+import io.grpc.Status;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the calls a client has in flight against one target. The limit adapts to the latency and errors the client
+ * observes (see {@link AdaptiveLimiter}). Calls above the limit wait in a bounded FIFO queue, a queued call is failed
+ * with {@code DEADLINE_EXCEEDED} as soon as its deadline passes, and calls arriving while the queue is full fail
+ * immediately with {@code RESOURCE_EXHAUSTED}.
+ */
+public class ClientLimiter {
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 1000;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "proto-limiter-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AdaptiveLimiter limiter;
+    private final int maxQueueSize;
+    private final Deque<Pending<?>> queue = new ArrayDeque<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    public ClientLimiter() {
+        this(new AdaptiveLimiter(), DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    public ClientLimiter(AdaptiveLimiter limiter, int maxQueueSize) {
+        if (maxQueueSize < 0) {
+            throw new IllegalArgumentException("maxQueueSize must not be negative");
+        }
+        this.limiter = limiter;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Runs {@code call} now if the limit allows it, otherwise once a slot frees up.
+     *
+     * @param deadline deadline of the call, or {@code null} to wait in the queue until a slot frees up
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call, Deadline deadline) {
+        Pending<T> pending;
+        synchronized (queue) {
+            boolean acquired = queue.isEmpty() && limiter.tryAcquire(false);
+            if (!acquired) {
+                if (queue.size() >= maxQueueSize) {
+                    rejected.incrementAndGet();
+                    return CompletableFuture.failedFuture(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Client queue of " + maxQueueSize + " calls is full")
+                            .asRuntimeException());
+                }
+                pending = new Pending<>(call);
+                queue.addLast(pending);
+                if (deadline != null) {
+                    pending.expiryTimer = deadline.runOnExpiration(() -> expire(pending), scheduler);
+                    // The caller may complete the future first, e.g. with cancel() or orTimeout()
+                    pending.future.whenComplete((result, error) -> pending.expiryTimer.cancel(false));
+                }
+            } else {
+                pending = null;
+            }
+        }
+        if (pending == null) {
+            return run(call);
+        }
+        // A slot may have been released between the failed acquire and the enqueue
+        drain();
+        return pending.future;
+    }
+
+    private <T> CompletableFuture<T> run(Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            limiter.onIgnore();
+            drain();
+            return CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, error) -> {
+            if (error != null && isDropped(error)) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+            drain();
+        });
+        return future;
+    }
+
+    private void drain() {
+        while (true) {
+            Pending<?> pending;
+            boolean acquired;
+            synchronized (queue) {
+                pending = queue.peekFirst();
+                if (pending == null) {
+                    return;
+                }
+                // Calls the caller already gave up on are dropped without taking a slot
+                acquired = !pending.future.isDone();
+                if (acquired && !limiter.tryAcquire(false)) {
+                    return;
+                }
+                queue.pollFirst();
+            }
+            if (pending.expiryTimer != null) {
+                pending.expiryTimer.cancel(false);
+            }
+            if (acquired) {
+                pending.start();
+            }
+        }
+    }
+
+    private void expire(Pending<?> pending) {
+        synchronized (queue) {
+            // Already started otherwise
+            if (!queue.remove(pending)) {
+                return;
+            }
+        }
+        expired.incrementAndGet();
+        pending.future.completeExceptionally(Status.DEADLINE_EXCEEDED
+                .withDescription("Deadline exceeded while waiting in client queue")
+                .asRuntimeException());
+    }
+
+    private static boolean isDropped(Throwable error) {
+        switch (Status.fromThrowable(error).getCode()) {
+            case DEADLINE_EXCEEDED:
+            case RESOURCE_EXHAUSTED:
+            case UNAVAILABLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public AdaptiveLimiter getLimiter() {
+        return limiter;
+    }
+
+    public int getQueueSize() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    private class Pending<T> {
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private ScheduledFuture<?> expiryTimer;
+
+        private Pending(Supplier<CompletableFuture<T>> call) {
+            this.call = call;
+        }
+
+        private void start() {
+            if (future.isDone()) {
+                // Completed by the caller since it left the queue, release its slot without sending the call
+                limiter.onIgnore();
+                return;
+            }
+            run(call).whenComplete((result, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(result);
+                }
+            });
+        }
+    }
+}
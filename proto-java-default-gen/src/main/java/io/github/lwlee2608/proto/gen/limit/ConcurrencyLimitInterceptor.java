@@ -0,0 +1,106 @@
+package io.github.lwlee2608.proto.gen.limit;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Sheds load once a method reaches its adaptive concurrency limit: the call fails fast with
+ * {@code RESOURCE_EXHAUSTED} instead of queueing behind calls that are already slow.
+ * Every method gets its own {@link AdaptiveLimiter}, created by the default factory unless one was set explicitly.
+ */
+public class ConcurrencyLimitInterceptor implements ServerInterceptor {
+    private final Supplier<AdaptiveLimiter> limiterFactory;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor() {
+        this(AdaptiveLimiter::new);
+    }
+
+    public ConcurrencyLimitInterceptor(Supplier<AdaptiveLimiter> limiterFactory) {
+        this.limiterFactory = limiterFactory;
+    }
+
+    public ConcurrencyLimitInterceptor setLimiter(MethodDescriptor<?, ?> method, AdaptiveLimiter limiter) {
+        return setLimiter(method.getFullMethodName(), limiter);
+    }
+
+    public ConcurrencyLimitInterceptor setLimiter(String fullMethodName, AdaptiveLimiter limiter) {
+        limiters.put(fullMethodName, limiter);
+        return this;
+    }
+
+    /**
+     * Limiters by full method name, to expose the current limits and rejection counts as metrics.
+     */
+    public Map<String, AdaptiveLimiter> getLimiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        String fullMethodName = call.getMethodDescriptor().getFullMethodName();
+        AdaptiveLimiter limiter = limiters.computeIfAbsent(fullMethodName, key -> limiterFactory.get());
+        if (!limiter.tryAcquire()) {
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Concurrency limit of " + limiter.getLimit() + " reached for " + fullMethodName), new Metadata());
+            return new ServerCall.Listener<>() {};
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        ServerCall<ReqT, RespT> limitedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (!released.getAndSet(true)) {
+                    switch (status.getCode()) {
+                        case DEADLINE_EXCEEDED:
+                        case RESOURCE_EXHAUSTED:
+                        case UNAVAILABLE:
+                            limiter.onDropped();
+                            break;
+                        default:
+                            limiter.onSuccess(System.nanoTime() - start);
+                    }
+                }
+                super.close(status, trailers);
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(limitedCall, headers);
+        } catch (RuntimeException e) {
+            if (!released.getAndSet(true)) {
+                limiter.onIgnore();
+            }
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onCancel() {
+                if (!released.getAndSet(true)) {
+                    // A call cancelled because its deadline passed is a sign of overload, other cancellations are not
+                    Deadline deadline = Context.current().getDeadline();
+                    if (deadline != null && deadline.isExpired()) {
+                        limiter.onDropped();
+                    } else {
+                        limiter.onIgnore();
+                    }
+                }
+                super.onCancel();
+            }
+        };
+    }
+}
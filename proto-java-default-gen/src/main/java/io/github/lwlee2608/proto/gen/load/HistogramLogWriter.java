@@ -0,0 +1,67 @@
+package io.github.lwlee2608.proto.gen.load;
+
+import io.github.lwlee2608.proto.gen.metrics.AtomicHistogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Writes latencies in the text formats of HdrHistogram, in milliseconds: an interval log with the percentiles of every
+ * interval, timestamps in seconds since the recording started, and the percentile distribution ({@code .hgrm}).
+ */
+class HistogramLogWriter implements AutoCloseable {
+    private static final int TICKS_PER_HALF_DISTANCE = 5;
+
+    private final PrintWriter out;
+
+    HistogramLogWriter(Path path, LoadResult result) throws IOException {
+        this.out = new PrintWriter(Files.newBufferedWriter(path));
+        Instant now = Instant.now();
+        out.println(String.format(Locale.ROOT, "#[Histogram log of %s, rate %.1f/s, concurrency %d]",
+                result.getName(), result.getRate(), result.getConcurrency()));
+        out.println(String.format(Locale.ROOT, "#[StartTime: %.3f (seconds since epoch), %s]", now.toEpochMilli() / 1e3, now));
+        out.println("\"StartTimestamp\",\"Interval_Length\",\"Count\",\"P50\",\"P90\",\"P99\",\"P99.9\",\"Interval_Max\"");
+    }
+
+    void writeInterval(long startNanos, long lengthNanos, AtomicHistogram histogram) {
+        out.println(String.format(Locale.ROOT, "%.3f,%.3f,%d,%.3f,%.3f,%.3f,%.3f,%.3f",
+                startNanos / 1e9, lengthNanos / 1e9, histogram.getCount(),
+                LoadResult.millis(histogram.getValueAtQuantile(0.5)), LoadResult.millis(histogram.getValueAtQuantile(0.9)),
+                LoadResult.millis(histogram.getValueAtQuantile(0.99)), LoadResult.millis(histogram.getValueAtQuantile(0.999)),
+                LoadResult.millis(histogram.getMax())));
+    }
+
+    @Override
+    public void close() {
+        out.close();
+    }
+
+    /**
+     * Percentiles at the ticks HdrHistogram reports, 5 per halving of the distance to 100%.
+     */
+    static void writePercentiles(AtomicHistogram histogram, PrintWriter out) {
+        long total = histogram.getCount();
+        out.println(String.format(Locale.ROOT, "%12s %14s %10s %14s", "Value", "Percentile", "TotalCount", "1/(1-Percentile)"));
+        out.println();
+        double percentile = 0;
+        while (total > 0) {
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            if (rank >= total) {
+                break;
+            }
+            out.println(String.format(Locale.ROOT, "%12.3f %2.12f %10d %14.2f",
+                    LoadResult.millis(histogram.getValueAtQuantile(percentile / 100)), percentile / 100, rank, 1 / (1 - percentile / 100)));
+            long halfDistance = 1L << ((int) (Math.log(100 / (100 - percentile)) / Math.log(2)) + 1);
+            percentile += 100.0 / (TICKS_PER_HALF_DISTANCE * halfDistance);
+        }
+        if (total > 0) {
+            out.println(String.format(Locale.ROOT, "%12.3f %2.12f %10d", LoadResult.millis(histogram.getMax()), 1.0, total));
+        }
+        out.println(String.format(Locale.ROOT, "#[Mean    = %12.3f, Max            = %12.3f]", histogram.getMean() / 1e6, LoadResult.millis(histogram.getMax())));
+        out.println(String.format(Locale.ROOT, "#[Total count    = %12d]", total));
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.lwlee2608.proto.gen.load;
+
+import io.github.lwlee2608.proto.gen.metrics.AtomicHistogram;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Open-loop load of one method: calls are sent at a fixed rate whether the previous ones completed or not, with at most
+ * {@code concurrency} of them in flight. The latency of a call is measured from the time it was due to be sent, so a
+ * call held back by a saturated server or by the concurrency limit counts the time it waited, correcting the
+ * coordinated omission of clients that only send once a call completed. The service time, from the time the call was
+ * actually sent, is recorded as well.
+ */
+public class LoadGenerator<ReqT, RespT> {
+    private static final long DRAIN_TIMEOUT_SECONDS = 30;
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final String name;
+    private final LongFunction<ReqT> requests;
+    private final Function<ReqT, CompletableFuture<RespT>> call;
+    private final Function<ReqT, RespT> blockingCall;
+    private double rate = 1000;
+    private int concurrency = 100;
+    private Duration duration = Duration.ofSeconds(10);
+    private Duration warmup = Duration.ZERO;
+    private Duration interval = Duration.ofSeconds(1);
+    private Path histogramLog;
+
+    /**
+     * @param name     name of the method, in the logs
+     * @param requests request of the n-th call, e.g. {@code n -> template}
+     * @param call     sends a request
+     */
+    public LoadGenerator(String name, LongFunction<ReqT> requests, Function<ReqT, CompletableFuture<RespT>> call) {
+        this(name, requests, call, null);
+    }
+
+    private LoadGenerator(String name, LongFunction<ReqT> requests, Function<ReqT, CompletableFuture<RespT>> call, Function<ReqT, RespT> blockingCall) {
+        this.name = name;
+        this.requests = requests;
+        this.call = call;
+        this.blockingCall = blockingCall;
+    }
+
+    /**
+     * Load of a blocking method, its calls run on a pool of {@code concurrency} threads.
+     */
+    public static <ReqT, RespT> LoadGenerator<ReqT, RespT> blocking(String name, LongFunction<ReqT> requests, Function<ReqT, RespT> call) {
+        return new LoadGenerator<>(name, requests, null, call);
+    }
+
+    /**
+     * Calls sent per second, 1000 by default.
+     */
+    public LoadGenerator<ReqT, RespT> withRate(double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Invalid rate " + rate);
+        }
+        this.rate = rate;
+        return this;
+    }
+
+    /**
+     * Calls in flight at most, 100 by default. Calls due while the limit is reached wait, their latency included.
+     */
+    public LoadGenerator<ReqT, RespT> withConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Invalid concurrency " + concurrency);
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Time calls are sent and recorded for, 10 seconds by default.
+     */
+    public LoadGenerator<ReqT, RespT> withDuration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Time calls are sent for before the recording starts, none by default.
+     */
+    public LoadGenerator<ReqT, RespT> withWarmup(Duration warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    /**
+     * Writes the latency percentiles of every {@code interval} (1 second by default) to {@code histogramLog}.
+     */
+    public LoadGenerator<ReqT, RespT> withHistogramLog(Path histogramLog, Duration interval) {
+        this.histogramLog = histogramLog;
+        this.interval = interval;
+        return this;
+    }
+
+    public LoadGenerator<ReqT, RespT> withHistogramLog(Path histogramLog) {
+        return withHistogramLog(histogramLog, interval);
+    }
+
+    /**
+     * Sends the calls for the warmup and the duration, then waits for the calls in flight to complete.
+     */
+    public LoadResult run() throws IOException, InterruptedException {
+        LoadResult result = new LoadResult(name, rate, concurrency, duration);
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicLong sent = new AtomicLong();
+        ExecutorService executor = blockingCall != null ? Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "load-" + name);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+        long intervalNanos = interval.toNanos();
+        HistogramLogWriter log = histogramLog != null ? new HistogramLogWriter(histogramLog, result) : null;
+        try {
+            long nextInterval = recordFrom + intervalNanos;
+            for (long n = 0; ; n++) {
+                long due = start + (long) (n * 1e9 / rate);
+                if (due >= end) {
+                    break;
+                }
+                long now;
+                while ((now = System.nanoTime()) < due) {
+                    LockSupport.parkNanos(Math.min(due - now, POLL_NANOS));
+                    nextInterval = roll(log, result, recordFrom, nextInterval, intervalNanos);
+                }
+                while (!permits.tryAcquire(POLL_NANOS, TimeUnit.NANOSECONDS)) {
+                    nextInterval = roll(log, result, recordFrom, nextInterval, intervalNanos);
+                }
+                nextInterval = roll(log, result, recordFrom, nextInterval, intervalNanos);
+                boolean recorded = due >= recordFrom;
+                if (recorded) {
+                    sent.incrementAndGet();
+                }
+                long sentAt = System.nanoTime();
+                send(requests.apply(n), executor).whenComplete((reply, error) -> {
+                    long completed = System.nanoTime();
+                    permits.release();
+                    if (recorded) {
+                        result.record(completed - due, completed - sentAt, error == null);
+                    }
+                });
+            }
+            if (!permits.tryAcquire(concurrency, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                result.setPending(concurrency - permits.availablePermits());
+            }
+            long intervalStart = nextInterval - intervalNanos;
+            AtomicHistogram last = result.nextInterval();
+            if (log != null && System.nanoTime() > intervalStart) {
+                log.writeInterval(intervalStart - recordFrom, System.nanoTime() - intervalStart, last);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            if (log != null) {
+                log.close();
+            }
+        }
+        result.setSent(sent.get());
+        return result;
+    }
+
+    private CompletableFuture<RespT> send(ReqT request, ExecutorService executor) {
+        if (executor != null) {
+            return CompletableFuture.supplyAsync(() -> blockingCall.apply(request), executor);
+        }
+        try {
+            return call.apply(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static long roll(HistogramLogWriter log, LoadResult result, long recordFrom, long nextInterval, long intervalNanos) {
+        long now = System.nanoTime();
+        if (now < nextInterval) {
+            return nextInterval;
+        }
+        AtomicHistogram histogram = result.nextInterval();
+        if (log != null) {
+            log.writeInterval(nextInterval - intervalNanos - recordFrom, intervalNanos, histogram);
+        }
+        return nextInterval + intervalNanos;
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.lwlee2608.proto.gen.load;
+
+import io.github.lwlee2608.proto.gen.metrics.AtomicHistogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Calls recorded by a {@link LoadGenerator}, latencies in nanoseconds.
+ */
+public class LoadResult {
+    private final String name;
+    private final double rate;
+    private final int concurrency;
+    private final Duration duration;
+    private final AtomicHistogram latency = new AtomicHistogram();
+    private final AtomicHistogram serviceTime = new AtomicHistogram();
+    private final AtomicReference<AtomicHistogram> interval = new AtomicReference<>(new AtomicHistogram());
+    private final AtomicLong errors = new AtomicLong();
+    private volatile long sent;
+    private volatile long pending;
+
+    LoadResult(String name, double rate, int concurrency, Duration duration) {
+        this.name = name;
+        this.rate = rate;
+        this.concurrency = concurrency;
+        this.duration = duration;
+    }
+
+    void record(long latencyNanos, long serviceTimeNanos, boolean success) {
+        latency.record(latencyNanos);
+        serviceTime.record(serviceTimeNanos);
+        interval.get().record(latencyNanos);
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Starts a new interval, returning the latencies of the last one.
+     */
+    AtomicHistogram nextInterval() {
+        return interval.getAndSet(new AtomicHistogram());
+    }
+
+    void setSent(long sent) {
+        this.sent = sent;
+    }
+
+    void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Target rate, in calls per second.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Latency from the time each call was due to be sent, corrected for coordinated omission.
+     */
+    public AtomicHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Latency from the time each call was actually sent, as a closed-loop client would measure it.
+     */
+    public AtomicHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getCompleted() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Calls still in flight when the run gave up waiting for them.
+     */
+    public long getPending() {
+        return pending;
+    }
+
+    /**
+     * Calls completed per second.
+     */
+    public double getThroughput() {
+        return getCompleted() / (duration.toNanos() / 1e9);
+    }
+
+    /**
+     * Writes the latency distribution in the percentile format of HdrHistogram ({@code .hgrm}), in milliseconds.
+     */
+    public void writePercentiles(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        HistogramLogWriter.writePercentiles(latency, out);
+        out.flush();
+    }
+
+    public void writePercentiles(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            writePercentiles(writer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %.1f/s target, %.1f/s completed, %d sent, %d errors, %d pending,"
+                        + " latency p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms, service time p50=%.3fms p99=%.3fms",
+                name, rate, getThroughput(), sent, getErrors(), pending,
+                millis(latency.getValueAtQuantile(0.5)), millis(latency.getValueAtQuantile(0.99)),
+                millis(latency.getValueAtQuantile(0.999)), millis(latency.getMax()),
+                millis(serviceTime.getValueAtQuantile(0.5)), millis(serviceTime.getValueAtQuantile(0.99)));
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.lwlee2608.proto.gen.local;
+
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Marshals POJOs without serializing them when both ends run in the same JVM. The stream handed to the transport
+ * carries the POJO itself; the in-process transport passes that stream on unchanged, so the receiving side gets the
+ * very same object back. Any other transport reads the stream, which then serializes the POJO through its protobuf
+ * message, and the receiving side parses it as usual.
+ */
+public class PojoMarshaller<T, P> implements MethodDescriptor.Marshaller<T> {
+    private final MethodDescriptor.Marshaller<P> protoMarshaller;
+    private final Function<T, P> toProto;
+    private final Function<P, T> fromProto;
+
+    public PojoMarshaller(MethodDescriptor.Marshaller<P> protoMarshaller, Function<T, P> toProto, Function<P, T> fromProto) {
+        this.protoMarshaller = protoMarshaller;
+        this.toProto = toProto;
+        this.fromProto = fromProto;
+    }
+
+    @Override
+    public InputStream stream(T value) {
+        return new PojoInputStream<>(this, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T parse(InputStream stream) {
+        if (stream instanceof PojoInputStream && ((PojoInputStream<?>) stream).marshaller == this) {
+            PojoInputStream<T> pojoStream = (PojoInputStream<T>) stream;
+            if (!pojoStream.isSerialized()) {
+                return pojoStream.value;
+            }
+        }
+        return fromProto.apply(protoMarshaller.parse(stream));
+    }
+
+    private static class PojoInputStream<T> extends InputStream implements KnownLength {
+        private final PojoMarshaller<T, ?> marshaller;
+        private final T value;
+        private InputStream serialized;
+
+        private PojoInputStream(PojoMarshaller<T, ?> marshaller, T value) {
+            this.marshaller = marshaller;
+            this.value = value;
+        }
+
+        private boolean isSerialized() {
+            return serialized != null;
+        }
+
+        private InputStream serialized() {
+            if (serialized == null) {
+                serialized = serialize(marshaller);
+            }
+            return serialized;
+        }
+
+        private <P> InputStream serialize(PojoMarshaller<T, P> marshaller) {
+            return marshaller.protoMarshaller.stream(marshaller.toProto.apply(value));
+        }
+
+        @Override
+        public int read() throws IOException {
+            return serialized().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return serialized().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return serialized().available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (serialized != null) {
+                serialized.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.lwlee2608.proto.gen.marshaller;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import io.github.lwlee2608.proto.gen.jfr.JfrEvents;
+import io.github.lwlee2608.proto.gen.jfr.MessageDecodeEvent;
+import io.github.lwlee2608.proto.gen.jfr.MessageEncodeEvent;
+import io.grpc.Detachable;
+import io.grpc.Drainable;
+import io.grpc.HasByteBuffer;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protobuf marshaller copying each message once per hop.
+ * <p>
+ * Sending, the message is encoded straight into the transport's pooled (direct, with Netty) buffers when the transport
+ * drains the stream, without an intermediate array of the whole message. Receiving, a transport handing out its
+ * buffers ({@link HasByteBuffer}) is detached from, and the message is parsed from those buffers in place instead of
+ * being read into an array first. Any other stream is parsed as is.
+ * <p>
+ * While a flight recording is on, every message encoded or decoded emits a {@link MessageEncodeEvent} or
+ * {@link MessageDecodeEvent} with its type and size.
+ */
+public class ZeroCopyMarshaller<T extends MessageLite> implements MethodDescriptor.PrototypeMarshaller<T> {
+    private final T defaultInstance;
+    private final Parser<T> parser;
+    private final String messageType;
+
+    @SuppressWarnings("unchecked")
+    public ZeroCopyMarshaller(T defaultInstance) {
+        this.defaultInstance = defaultInstance;
+        this.parser = (Parser<T>) defaultInstance.getParserForType();
+        this.messageType = defaultInstance.getClass().getName();
+    }
+
+    public static <T extends MessageLite> ZeroCopyMarshaller<T> of(T defaultInstance) {
+        return new ZeroCopyMarshaller<>(defaultInstance);
+    }
+
+    @Override
+    public T getMessagePrototype() {
+        return defaultInstance;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<T> getMessageClass() {
+        return (Class<T>) defaultInstance.getClass();
+    }
+
+    @Override
+    public InputStream stream(T value) {
+        return new MessageStream(this, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T parse(InputStream stream) {
+        if (stream instanceof MessageStream && ((MessageStream) stream).marshaller == this) {
+            // in-process transport, messages are immutable
+            MessageStream messageStream = (MessageStream) stream;
+            if (messageStream.message != null) {
+                return (T) messageStream.message;
+            }
+        }
+        try {
+            if (stream instanceof Detachable && stream instanceof HasByteBuffer && ((HasByteBuffer) stream).byteBufferSupported()) {
+                try (InputStream detached = ((Detachable) stream).detach()) {
+                    // the mark keeps the buffers skipped over from being released until the stream is closed
+                    if (detached.markSupported()) {
+                        detached.mark(Integer.MAX_VALUE);
+                        return parse(CodedInputStream.newInstance(byteBuffers(detached)));
+                    }
+                    return parse(CodedInputStream.newInstance(detached));
+                }
+            }
+            return parse(CodedInputStream.newInstance(stream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private T parse(CodedInputStream input) {
+        // the transport limits the message size already
+        input.setSizeLimit(Integer.MAX_VALUE);
+        MessageDecodeEvent event = null;
+        if (JfrEvents.isDecodeRecorded()) {
+            event = new MessageDecodeEvent();
+            event.begin();
+        }
+        try {
+            T message = parser.parseFrom(input, ExtensionRegistryLite.getEmptyRegistry());
+            input.checkLastTagWas(0);
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.messageType = messageType;
+                    event.bytes = input.getTotalBytesRead();
+                    event.commit();
+                }
+            }
+            return message;
+        } catch (InvalidProtocolBufferException e) {
+            throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(e).asRuntimeException();
+        }
+    }
+
+    private static List<ByteBuffer> byteBuffers(InputStream stream) throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        while (stream.available() > 0) {
+            ByteBuffer buffer = ((HasByteBuffer) stream).getByteBuffer();
+            buffers.add(buffer);
+            stream.skip(buffer.remaining());
+        }
+        return buffers;
+    }
+
+    /**
+     * Holds the message until the transport drains it into its buffers, or reads it from a serialized copy otherwise.
+     */
+    private static class MessageStream extends InputStream implements Drainable, KnownLength {
+        private final ZeroCopyMarshaller<?> marshaller;
+        private MessageLite message;
+        private ByteArrayInputStream serialized;
+
+        private MessageStream(ZeroCopyMarshaller<?> marshaller, MessageLite message) {
+            this.marshaller = marshaller;
+            this.message = message;
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            int written;
+            if (message != null) {
+                MessageEncodeEvent event = beginEncode();
+                written = message.getSerializedSize();
+                message.writeTo(target);
+                message = null;
+                encoded(event, written);
+            } else if (serialized != null) {
+                written = serialized.available();
+                serialized.transferTo(target);
+                serialized = null;
+            } else {
+                written = 0;
+            }
+            return written;
+        }
+
+        private ByteArrayInputStream serialized() {
+            if (message != null) {
+                MessageEncodeEvent event = beginEncode();
+                byte[] bytes = message.toByteArray();
+                serialized = new ByteArrayInputStream(bytes);
+                message = null;
+                encoded(event, bytes.length);
+            }
+            return serialized;
+        }
+
+        private static MessageEncodeEvent beginEncode() {
+            if (!JfrEvents.isEncodeRecorded()) {
+                return null;
+            }
+            MessageEncodeEvent event = new MessageEncodeEvent();
+            event.begin();
+            return event;
+        }
+
+        private void encoded(MessageEncodeEvent event, int bytes) {
+            if (event == null) {
+                return;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.messageType = marshaller.messageType;
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+
+        @Override
+        public int read() {
+            ByteArrayInputStream in = serialized();
+            return in != null ? in.read() : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            ByteArrayInputStream in = serialized();
+            if (in == null) {
+                return len == 0 ? 0 : -1;
+            }
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public int available() {
+            if (message != null) {
+                return message.getSerializedSize();
+            }
+            return serialized != null ? serialized.available() : 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.lwlee2608.proto.gen.mask;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Selects the fields of a reply the client wants, as paths of POJO field names, e.g. {@code "name"} or
+ * {@code "payload.id"} for a field of a nested message. A message field listed without a sub-path is included whole.
+ * <p>
+ * The generated client sends the mask in the {@link #HEADER} header, the generated server then converts only those
+ * fields and makes the mask available to the service implementation through {@link #current()}.
+ */
+public class FieldMask {
+    public static final Metadata.Key<String> HEADER = Metadata.Key.of("x-field-mask", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Context.Key<FieldMask> CONTEXT_KEY = Context.key("io.github.lwlee2608.proto.fieldMask");
+
+    // field name -> mask of its sub-fields, null if the field is included whole
+    private final Map<String, FieldMask> fields;
+
+    private FieldMask(Map<String, FieldMask> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldMask of(String... paths) {
+        Map<String, FieldMask> fields = new LinkedHashMap<>();
+        for (String path : paths) {
+            add(fields, path.trim());
+        }
+        return new FieldMask(seal(fields));
+    }
+
+    /**
+     * Parses the comma-separated paths of the {@link #HEADER} header.
+     */
+    public static FieldMask parse(String header) {
+        return of(header.split(","));
+    }
+
+    /**
+     * The mask of the call being served, or {@code null} if the client wants all fields.
+     */
+    public static FieldMask current() {
+        return CONTEXT_KEY.get();
+    }
+
+    public boolean includes(String field) {
+        return fields.containsKey(field);
+    }
+
+    /**
+     * True if the dotted {@code path} is included, either itself or through one of its parents.
+     */
+    public boolean includesPath(String path) {
+        FieldMask mask = this;
+        for (String field : path.split("\\.")) {
+            if (!mask.includes(field)) {
+                return false;
+            }
+            mask = mask.child(field);
+            if (mask == null) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The mask of the sub-fields of {@code field}, or {@code null} if the field is included whole.
+     */
+    public FieldMask child(String field) {
+        return fields.get(field);
+    }
+
+    public Metadata toHeaders() {
+        Metadata headers = new Metadata();
+        headers.put(HEADER, toString());
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(",");
+        appendPaths(joiner, "");
+        return joiner.toString();
+    }
+
+    private void appendPaths(StringJoiner joiner, String prefix) {
+        for (Map.Entry<String, FieldMask> entry : fields.entrySet()) {
+            if (entry.getValue() == null) {
+                joiner.add(prefix + entry.getKey());
+            } else {
+                entry.getValue().appendPaths(joiner, prefix + entry.getKey() + ".");
+            }
+        }
+    }
+
+    private static void add(Map<String, FieldMask> fields, String path) {
+        if (path.isEmpty()) {
+            return;
+        }
+        int dot = path.indexOf('.');
+        String field = dot < 0 ? path : path.substring(0, dot);
+        if (dot < 0) {
+            fields.put(field, null);
+            return;
+        }
+        if (fields.containsKey(field) && fields.get(field) == null) {
+            // already included whole
+            return;
+        }
+        FieldMask child = fields.computeIfAbsent(field, key -> new FieldMask(new LinkedHashMap<>()));
+        add(child.fields, path.substring(dot + 1));
+    }
+
+    private static Map<String, FieldMask> seal(Map<String, FieldMask> fields) {
+        for (Map.Entry<String, FieldMask> entry : fields.entrySet()) {
+            if (entry.getValue() != null) {
+                entry.setValue(new FieldMask(seal(entry.getValue().fields)));
+            }
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+}
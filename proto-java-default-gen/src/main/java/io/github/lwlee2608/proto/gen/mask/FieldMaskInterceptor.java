@@ -0,0 +1,24 @@
+package io.github.lwlee2608.proto.gen.mask;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Makes the {@link FieldMask} sent by the client available as {@link FieldMask#current()} while serving the call.
+ */
+public class FieldMaskInterceptor implements ServerInterceptor {
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        String header = headers.get(FieldMask.HEADER);
+        if (header == null) {
+            return next.startCall(call, headers);
+        }
+        Context context = Context.current().withValue(FieldMask.CONTEXT_KEY, FieldMask.parse(header));
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+}
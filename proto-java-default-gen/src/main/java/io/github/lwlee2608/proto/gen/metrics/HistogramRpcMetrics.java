@@ -0,0 +1,117 @@
+package io.github.lwlee2608.proto.gen.metrics;
+
+import io.grpc.Status;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the metrics of every method in memory: a latency histogram per phase in nanoseconds, request and response size
+ * histograms in bytes, the calls in flight and the calls ended per status code. Share one instance between the clients
+ * and servers to read or export them in one place.
+ */
+public class HistogramRpcMetrics implements RpcMetrics {
+    private final Map<Side, Map<String, MethodStats>> methods = new EnumMap<>(Side.class);
+
+    public HistogramRpcMetrics() {
+        for (Side side : Side.values()) {
+            methods.put(side, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public MethodStats recorder(String fullMethodName, Side side) {
+        return methods.get(side).computeIfAbsent(fullMethodName, key -> new MethodStats());
+    }
+
+    /**
+     * Stats of the method on {@code side}, or {@code null} if no client or server recorded it.
+     */
+    public MethodStats getStats(String fullMethodName, Side side) {
+        return methods.get(side).get(fullMethodName);
+    }
+
+    /**
+     * Stats on {@code side} by full method name.
+     */
+    public Map<String, MethodStats> getStats(Side side) {
+        return Collections.unmodifiableMap(methods.get(side));
+    }
+
+    public static class MethodStats implements Recorder {
+        private final AtomicHistogram[] latencies = new AtomicHistogram[Phase.values().length];
+        private final AtomicHistogram requestSize = new AtomicHistogram();
+        private final AtomicHistogram responseSize = new AtomicHistogram();
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final AtomicLongArray ended = new AtomicLongArray(Status.Code.values().length);
+
+        MethodStats() {
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new AtomicHistogram();
+            }
+        }
+
+        @Override
+        public void recordLatency(Phase phase, long nanos) {
+            latencies[phase.ordinal()].record(nanos);
+        }
+
+        @Override
+        public void recordRequestSize(int bytes) {
+            requestSize.record(bytes);
+        }
+
+        @Override
+        public void recordResponseSize(int bytes) {
+            responseSize.record(bytes);
+        }
+
+        @Override
+        public void callStarted() {
+            inflight.incrementAndGet();
+        }
+
+        @Override
+        public void callEnded(Status.Code code) {
+            inflight.decrementAndGet();
+            ended.incrementAndGet(code.ordinal());
+        }
+
+        public AtomicHistogram getLatency(Phase phase) {
+            return latencies[phase.ordinal()];
+        }
+
+        public AtomicHistogram getRequestSize() {
+            return requestSize;
+        }
+
+        public AtomicHistogram getResponseSize() {
+            return responseSize;
+        }
+
+        public int getInflight() {
+            return inflight.get();
+        }
+
+        public long getCount(Status.Code code) {
+            return ended.get(code.ordinal());
+        }
+
+        /**
+         * Calls ended with any other status than {@code OK}.
+         */
+        public long getErrors() {
+            long errors = 0;
+            for (Status.Code code : Status.Code.values()) {
+                if (code != Status.Code.OK) {
+                    errors += ended.get(code.ordinal());
+                }
+            }
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package io.github.lwlee2608.proto.gen.metrics;
+
+import com.google.protobuf.MessageLite;
+import io.github.lwlee2608.proto.gen.jfr.JfrEvents;
+import io.github.lwlee2608.proto.gen.jfr.MessageConversionEvent;
+import io.grpc.MethodDescriptor;
+import io.grpc.stub.StreamObserver;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Times the phases of the calls of one method that the generated code runs itself: queueing, conversions and the
+ * implementation. The transport, sizes and status are recorded by {@link MetricsClientInterceptor} and
+ * {@link MetricsServerInterceptor}. Disabled, every hook returns what it is given without reading the clock.
+ * <p>
+ * Enabled, the hooks allocate a few small objects per call to carry its timestamps: the {@link #queued} call, the
+ * {@link #converter} of its replies and, on the server, the {@link #observe observed} response observer. Only the
+ * recording into the {@link RpcMetrics.Recorder} is free of locks and allocations.
+ * <p>
+ * Conversions also emit a {@link MessageConversionEvent} while a flight recording is on, enabled or not.
+ */
+public final class MethodMetrics {
+    private final String fullMethodName;
+    private final RpcMetrics.Side side;
+    private final RpcMetrics.Recorder recorder;
+    private final boolean enabled;
+
+    private MethodMetrics(String fullMethodName, RpcMetrics.Side side, RpcMetrics.Recorder recorder, boolean enabled) {
+        this.fullMethodName = fullMethodName;
+        this.side = side;
+        this.recorder = recorder;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Metrics of {@code method}, disabled with {@link RpcMetrics#NOOP}.
+     */
+    public static MethodMetrics of(RpcMetrics metrics, MethodDescriptor<?, ?> method, RpcMetrics.Side side) {
+        if (metrics == RpcMetrics.NOOP) {
+            return new MethodMetrics(method.getFullMethodName(), side, RpcMetrics.Recorder.NOOP, false);
+        }
+        return new MethodMetrics(method.getFullMethodName(), side, metrics.recorder(method.getFullMethodName(), side), true);
+    }
+
+    public String getFullMethodName() {
+        return fullMethodName;
+    }
+
+    public RpcMetrics.Side getSide() {
+        return side;
+    }
+
+    public RpcMetrics.Recorder getRecorder() {
+        return recorder;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the time {@code call} waits before it runs, e.g. in the client in-flight limiter.
+     */
+    public <T> Supplier<CompletableFuture<T>> queued(Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call;
+        }
+        long queued = System.nanoTime();
+        return () -> {
+            recorder.recordLatency(RpcMetrics.Phase.QUEUE, System.nanoTime() - queued);
+            return call.get();
+        };
+    }
+
+    public <T, R> R convert(Function<T, R> conversion, T value) {
+        return convert(null, conversion, value);
+    }
+
+    /**
+     * {@code conversion} timing every message it converts, or {@code conversion} itself when there is nothing to record.
+     */
+    public <T, R> Function<T, R> converter(Function<T, R> conversion) {
+        if (!enabled && !JfrEvents.isConversionRecorded()) {
+            return conversion;
+        }
+        return value -> convert(null, conversion, value);
+    }
+
+    /**
+     * Converts a message of the server call answered through {@code call}, the time is left out of its handler phase.
+     */
+    public <T, R> R convert(StreamObserver<?> call, Function<T, R> conversion, T value) {
+        boolean recorded = JfrEvents.isConversionRecorded();
+        if (!enabled && !recorded) {
+            return conversion.apply(value);
+        }
+        MessageConversionEvent event = begin(recorded);
+        long start = System.nanoTime();
+        R converted = conversion.apply(value);
+        converted(call, event, value, converted, System.nanoTime() - start);
+        return converted;
+    }
+
+    public <T, U, R> R convert(StreamObserver<?> call, BiFunction<T, U, R> conversion, T value, U argument) {
+        boolean recorded = JfrEvents.isConversionRecorded();
+        if (!enabled && !recorded) {
+            return conversion.apply(value, argument);
+        }
+        MessageConversionEvent event = begin(recorded);
+        long start = System.nanoTime();
+        R converted = conversion.apply(value, argument);
+        converted(call, event, value, converted, System.nanoTime() - start);
+        return converted;
+    }
+
+    private static MessageConversionEvent begin(boolean recorded) {
+        if (!recorded) {
+            return null;
+        }
+        MessageConversionEvent event = new MessageConversionEvent();
+        event.begin();
+        return event;
+    }
+
+    private void converted(StreamObserver<?> call, MessageConversionEvent event, Object value, Object converted, long nanos) {
+        if (enabled) {
+            recorder.recordLatency(RpcMetrics.Phase.CONVERSION, nanos);
+            if (call instanceof HandlerObserver) {
+                ((HandlerObserver<?>) call).converted(nanos);
+            }
+        }
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            boolean toProto = converted instanceof MessageLite;
+            Object message = toProto ? converted : value;
+            event.method = fullMethodName;
+            event.messageType = message != null ? message.getClass().getName() : null;
+            event.direction = toProto ? "toProto" : "fromProto";
+            event.commit();
+        }
+    }
+
+    /**
+     * Wraps the response observer of a server call as it is received, to time its queue and handler phases.
+     */
+    public <T> StreamObserver<T> observe(StreamObserver<T> responseObserver) {
+        if (!enabled) {
+            return responseObserver;
+        }
+        return new HandlerObserver<>(recorder, responseObserver);
+    }
+
+    /**
+     * The server call answered through {@code call} leaves the queue and its implementation starts.
+     */
+    public void started(StreamObserver<?> call) {
+        if (call instanceof HandlerObserver) {
+            ((HandlerObserver<?>) call).started();
+        }
+    }
+
+    private static class HandlerObserver<T> implements StreamObserver<T> {
+        private static final AtomicLongFieldUpdater<HandlerObserver> CONVERTING = AtomicLongFieldUpdater.newUpdater(HandlerObserver.class, "converting");
+        private static final AtomicIntegerFieldUpdater<HandlerObserver> HANDLED = AtomicIntegerFieldUpdater.newUpdater(HandlerObserver.class, "handled");
+
+        private final RpcMetrics.Recorder recorder;
+        private final StreamObserver<T> delegate;
+        private final long received = System.nanoTime();
+        private volatile long started;
+        private volatile long converting;
+        private volatile int handled;
+
+        HandlerObserver(RpcMetrics.Recorder recorder, StreamObserver<T> delegate) {
+            this.recorder = recorder;
+            this.delegate = delegate;
+        }
+
+        void started() {
+            long now = System.nanoTime();
+            started = now;
+            recorder.recordLatency(RpcMetrics.Phase.QUEUE, now - received);
+        }
+
+        void converted(long nanos) {
+            CONVERTING.addAndGet(this, nanos);
+        }
+
+        private void handled() {
+            long start = started;
+            if (start != 0 && HANDLED.compareAndSet(this, 0, 1)) {
+                recorder.recordLatency(RpcMetrics.Phase.HANDLER, System.nanoTime() - start - converting);
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            handled();
+            delegate.onNext(value);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            handled();
+            delegate.onError(error);
+        }
+
+        @Override
+        public void onCompleted() {
+            handled();
+            delegate.onCompleted();
+        }
+    }
+}
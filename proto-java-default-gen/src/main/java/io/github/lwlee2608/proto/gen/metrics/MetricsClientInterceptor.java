@@ -0,0 +1,72 @@
+package io.github.lwlee2608.proto.gen.metrics;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the calls in flight, the message sizes, the status and the transport phase of the client calls of the given
+ * methods.
+ */
+public class MetricsClientInterceptor implements ClientInterceptor {
+    private final Map<String, MethodMetrics> methods = new HashMap<>();
+
+    public MetricsClientInterceptor(MethodMetrics... methods) {
+        for (MethodMetrics method : methods) {
+            if (method.isEnabled()) {
+                this.methods.put(method.getFullMethodName(), method);
+            }
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        MethodMetrics metrics = methods.get(method.getFullMethodName());
+        if (metrics == null) {
+            return next.newCall(method, callOptions);
+        }
+        RpcMetrics.Recorder recorder = metrics.getRecorder();
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                recorder.callStarted();
+                long started = System.nanoTime();
+                Listener<RespT> listener = new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onMessage(RespT message) {
+                        if (message instanceof MessageLite) {
+                            recorder.recordResponseSize(((MessageLite) message).getSerializedSize());
+                        }
+                        super.onMessage(message);
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        recorder.recordLatency(RpcMetrics.Phase.TRANSPORT, System.nanoTime() - started);
+                        recorder.callEnded(status.getCode());
+                        super.onClose(status, trailers);
+                    }
+                };
+                super.start(listener, headers);
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                if (message instanceof MessageLite) {
+                    recorder.recordRequestSize(((MessageLite) message).getSerializedSize());
+                }
+                super.sendMessage(message);
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.lwlee2608.proto.gen.metrics;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the calls in flight, the message sizes, the status and the transport phase of the server calls of the given
+ * methods.
+ */
+public class MetricsServerInterceptor implements ServerInterceptor {
+    private final Map<String, MethodMetrics> methods = new HashMap<>();
+
+    public MetricsServerInterceptor(MethodMetrics... methods) {
+        for (MethodMetrics method : methods) {
+            if (method.isEnabled()) {
+                this.methods.put(method.getFullMethodName(), method);
+            }
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        MethodMetrics metrics = methods.get(call.getMethodDescriptor().getFullMethodName());
+        if (metrics == null) {
+            return next.startCall(call, headers);
+        }
+        RpcMetrics.Recorder recorder = metrics.getRecorder();
+        recorder.callStarted();
+        MeteredCall<ReqT, RespT> meteredCall = new MeteredCall<>(call, recorder);
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(meteredCall, headers)) {
+            @Override
+            public void onMessage(ReqT message) {
+                if (message instanceof MessageLite) {
+                    recorder.recordRequestSize(((MessageLite) message).getSerializedSize());
+                }
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onHalfClose() {
+                meteredCall.halfClosed = System.nanoTime();
+                super.onHalfClose();
+            }
+
+            @Override
+            public void onComplete() {
+                meteredCall.completed();
+                super.onComplete();
+            }
+
+            @Override
+            public void onCancel() {
+                recorder.callEnded(Status.Code.CANCELLED);
+                super.onCancel();
+            }
+        };
+    }
+
+    private static class MeteredCall<ReqT, RespT> extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+        private final RpcMetrics.Recorder recorder;
+        private final long started = System.nanoTime();
+        private volatile long halfClosed;
+        private volatile long closed;
+        private volatile Status.Code code = Status.Code.OK;
+
+        MeteredCall(ServerCall<ReqT, RespT> call, RpcMetrics.Recorder recorder) {
+            super(call);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void sendMessage(RespT message) {
+            if (message instanceof MessageLite) {
+                recorder.recordResponseSize(((MessageLite) message).getSerializedSize());
+            }
+            super.sendMessage(message);
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            code = status.getCode();
+            closed = System.nanoTime();
+            super.close(status, trailers);
+        }
+
+        void completed() {
+            if (halfClosed != 0 && closed != 0) {
+                recorder.recordLatency(RpcMetrics.Phase.TRANSPORT, halfClosed - started + System.nanoTime() - closed);
+            }
+            recorder.callEnded(code);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.lwlee2608.proto.gen.metrics;
+
+import io.grpc.Status;
+
+/**
+ * Receives the metrics of the generated clients and servers, set with their {@code withMetrics}. Implementations hand
+ * out one {@link Recorder} per method and side when the client or server is configured. Recorders are called on the
+ * call path from any thread and must neither lock nor allocate.
+ * <p>
+ * {@link #NOOP} records nothing and is the default, {@link HistogramRpcMetrics} keeps histograms in memory.
+ */
+public interface RpcMetrics {
+    RpcMetrics NOOP = (fullMethodName, side) -> Recorder.NOOP;
+
+    Recorder recorder(String fullMethodName, Side side);
+
+    enum Side {
+        CLIENT,
+        SERVER
+    }
+
+    /**
+     * Phases of a call. Each conversion is recorded on its own, the other phases once per call.
+     */
+    enum Phase {
+        /**
+         * Waiting for a slot: in the client in-flight limiter, or in the server executors and method permits.
+         */
+        QUEUE,
+        /**
+         * Converting one message between its POJO and protobuf form.
+         */
+        CONVERSION,
+        /**
+         * Server only, the implementation running until its first reply or failure, less the conversions.
+         */
+        HANDLER,
+        /**
+         * Client, from the call starting until it is closed. Server, receiving the request until the client
+         * half-closes plus sending the status until the call completes.
+         */
+        TRANSPORT
+    }
+
+    interface Recorder {
+        Recorder NOOP = new Recorder() {
+            @Override
+            public void recordLatency(Phase phase, long nanos) {
+            }
+
+            @Override
+            public void recordRequestSize(int bytes) {
+            }
+
+            @Override
+            public void recordResponseSize(int bytes) {
+            }
+
+            @Override
+            public void callStarted() {
+            }
+
+            @Override
+            public void callEnded(Status.Code code) {
+            }
+        };
+
+        void recordLatency(Phase phase, long nanos);
+
+        /**
+         * Encoded size of a request message, calls between a local client and server carry no encoded messages.
+         */
+        void recordRequestSize(int bytes);
+
+        void recordResponseSize(int bytes);
+
+        void callStarted();
+
+        /**
+         * The call started before ended with {@code code}, {@code OK} or the error.
+         */
+        void callEnded(Status.Code code);
+    }
+}
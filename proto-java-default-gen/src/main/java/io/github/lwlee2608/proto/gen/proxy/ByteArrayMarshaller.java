@@ -0,0 +1,53 @@
+package io.github.lwlee2608.proto.gen.proxy;
+
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Passes messages through as their encoded bytes, for forwarding calls without decoding them.
+ */
+public class ByteArrayMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+    public static final ByteArrayMarshaller INSTANCE = new ByteArrayMarshaller();
+
+    /**
+     * The same method exchanging encoded messages.
+     */
+    public static MethodDescriptor<byte[], byte[]> rawMethod(MethodDescriptor<?, ?> method) {
+        return method.toBuilder(INSTANCE, INSTANCE).build();
+    }
+
+    @Override
+    public InputStream stream(byte[] value) {
+        return new ByteArrayStream(value);
+    }
+
+    @Override
+    public byte[] parse(InputStream stream) {
+        try (InputStream in = stream) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class ByteArrayStream extends ByteArrayInputStream implements KnownLength, Drainable {
+        private ByteArrayStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            int length = count - pos;
+            target.write(buf, pos, length);
+            pos = count;
+            return length;
+        }
+    }
+}
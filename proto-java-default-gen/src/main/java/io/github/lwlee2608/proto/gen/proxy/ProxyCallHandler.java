@@ -0,0 +1,136 @@
+package io.github.lwlee2608.proto.gen.proxy;
+
+import io.github.lwlee2608.proto.gen.balancer.ConsistentHashChannel;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Forwards calls of raw methods ({@link ByteArrayMarshaller#rawMethod}) to {@code upstream} and streams the responses
+ * back, both as the encoded bytes received, so unknown fields pass through untouched. Headers, trailers, deadline and
+ * cancellation are propagated, and flow control is kept end to end: the next message is only requested from one side
+ * once the other side is ready for it.
+ * <p>
+ * With a {@code routingKey} function, the upstream call is started once the first request arrives and carries the
+ * routing key read from it as {@link ConsistentHashChannel#ROUTING_KEY}.
+ */
+public class ProxyCallHandler implements ServerCallHandler<byte[], byte[]> {
+    private final Channel upstream;
+    private final CallOptions callOptions;
+    private final Function<byte[], String> routingKey;
+
+    public ProxyCallHandler(Channel upstream, CallOptions callOptions) {
+        this(upstream, callOptions, null);
+    }
+
+    public ProxyCallHandler(Channel upstream, CallOptions callOptions, Function<byte[], String> routingKey) {
+        this.upstream = upstream;
+        this.callOptions = callOptions;
+        this.routingKey = routingKey;
+    }
+
+    @Override
+    public ServerCall.Listener<byte[]> startCall(ServerCall<byte[], byte[]> call, Metadata headers) {
+        CallProxy proxy = new CallProxy(call, headers);
+        call.request(1);
+        return proxy.requestListener;
+    }
+
+    private class CallProxy {
+        private final ServerCall<byte[], byte[]> serverCall;
+        private final Metadata headers;
+        private final AtomicBoolean requestPending = new AtomicBoolean();
+        private final AtomicBoolean responsePending = new AtomicBoolean();
+        private volatile ClientCall<byte[], byte[]> clientCall;
+
+        private final ServerCall.Listener<byte[]> requestListener = new ServerCall.Listener<byte[]>() {
+            @Override
+            public void onMessage(byte[] message) {
+                if (clientCall == null) {
+                    start(message);
+                }
+                clientCall.sendMessage(message);
+                requestPending.set(true);
+                if (clientCall.isReady() && requestPending.compareAndSet(true, false)) {
+                    serverCall.request(1);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                if (clientCall == null) {
+                    start(null);
+                }
+                clientCall.halfClose();
+            }
+
+            @Override
+            public void onCancel() {
+                if (clientCall != null) {
+                    clientCall.cancel("Client cancelled", null);
+                }
+            }
+
+            @Override
+            public void onReady() {
+                if (clientCall != null && responsePending.compareAndSet(true, false)) {
+                    clientCall.request(1);
+                }
+            }
+        };
+
+        private final ClientCall.Listener<byte[]> responseListener = new ClientCall.Listener<byte[]>() {
+            @Override
+            public void onHeaders(Metadata headers) {
+                serverCall.sendHeaders(headers);
+            }
+
+            @Override
+            public void onMessage(byte[] message) {
+                serverCall.sendMessage(message);
+                responsePending.set(true);
+                if (serverCall.isReady() && responsePending.compareAndSet(true, false)) {
+                    clientCall.request(1);
+                }
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                serverCall.close(status, trailers);
+            }
+
+            @Override
+            public void onReady() {
+                if (requestPending.compareAndSet(true, false)) {
+                    serverCall.request(1);
+                }
+            }
+        };
+
+        private CallProxy(ServerCall<byte[], byte[]> serverCall, Metadata headers) {
+            this.serverCall = serverCall;
+            this.headers = headers;
+        }
+
+        private void start(byte[] firstMessage) {
+            CallOptions options = callOptions;
+            if (routingKey != null && firstMessage != null) {
+                String key = routingKey.apply(firstMessage);
+                if (key != null) {
+                    options = options.withOption(ConsistentHashChannel.ROUTING_KEY, key);
+                }
+            }
+            ClientCall<byte[], byte[]> call = upstream.newCall(serverCall.getMethodDescriptor(), options);
+            clientCall = call;
+            call.start(responseListener, headers);
+            call.request(1);
+        }
+    }
+}
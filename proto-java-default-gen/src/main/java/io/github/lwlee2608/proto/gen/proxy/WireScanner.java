@@ -0,0 +1,125 @@
+package io.github.lwlee2608.proto.gen.proxy;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a single field of an encoded message by walking the protobuf wire format, skipping every other field
+ * without decoding it.
+ * <p>
+ * Routing keys are wrapper messages ({@code google.protobuf.StringValue}, {@code Int32Value} or {@code Int64Value})
+ * holding the value in field 1, so {@link #routingKey} looks into field 1 of field {@code tag}.
+ */
+public class WireScanner {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    public enum KeyType {
+        STRING, INT32, INT64
+    }
+
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    private WireScanner(byte[] buffer, int position, int limit) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+    }
+
+    /**
+     * The routing key in field {@code tag} of {@code message} as the generated client sends it, or {@code null} if
+     * the field is missing or the message is malformed.
+     */
+    public static String routingKey(byte[] message, int tag, KeyType type) {
+        try {
+            WireScanner scanner = new WireScanner(message, 0, message.length);
+            String key = null;
+            while (scanner.position < scanner.limit) {
+                int fieldTag = scanner.readVarint32();
+                if (fieldTag >>> 3 == tag && (fieldTag & 7) == LENGTH_DELIMITED) {
+                    int end = scanner.checkLength(scanner.readVarint32());
+                    String value = new WireScanner(message, scanner.position, end).wrappedValue(type);
+                    if (value != null || key == null) {
+                        key = value != null ? value : defaultValue(type);
+                    }
+                    scanner.position = end;
+                } else {
+                    scanner.skip(fieldTag & 7);
+                }
+            }
+            return key;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private String wrappedValue(KeyType type) {
+        String value = null;
+        while (position < limit) {
+            int fieldTag = readVarint32();
+            if (fieldTag >>> 3 == 1 && type == KeyType.STRING && (fieldTag & 7) == LENGTH_DELIMITED) {
+                int end = checkLength(readVarint32());
+                value = new String(buffer, position, end - position, StandardCharsets.UTF_8);
+                position = end;
+            } else if (fieldTag >>> 3 == 1 && type != KeyType.STRING && (fieldTag & 7) == VARINT) {
+                long varint = readVarint64();
+                value = type == KeyType.INT32 ? String.valueOf((int) varint) : String.valueOf(varint);
+            } else {
+                skip(fieldTag & 7);
+            }
+        }
+        return value;
+    }
+
+    private static String defaultValue(KeyType type) {
+        return type == KeyType.STRING ? "" : "0";
+    }
+
+    private void skip(int wireType) {
+        switch (wireType) {
+            case VARINT:
+                readVarint64();
+                break;
+            case FIXED64:
+                position = checkLength(8);
+                break;
+            case LENGTH_DELIMITED:
+                position = checkLength(readVarint32());
+                break;
+            case FIXED32:
+                position = checkLength(4);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported wire type " + wireType);
+        }
+    }
+
+    private int checkLength(int length) {
+        if (length < 0 || position + length > limit) {
+            throw new IllegalArgumentException("Truncated message");
+        }
+        return position + length;
+    }
+
+    private int readVarint32() {
+        return (int) readVarint64();
+    }
+
+    private long readVarint64() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = buffer[position++];
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.lwlee2608.proto.gen.transport;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.ServerBuilder;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.nio.file.Path;
+
+/**
+ * Servers and channels over Unix domain sockets, for clients and servers on the same host (e.g. a sidecar).
+ * Requires grpc-netty and netty-transport-native-epoll on the classpath, and Linux.
+ * <p>
+ * All servers and channels share daemon event loops: one boss thread, as many server workers as processors and half
+ * as many client threads. A domain socket connection does little more than copy buffers, so more threads do not help.
+ */
+public class DomainSockets {
+
+    public static boolean isAvailable() {
+        try {
+            return Epoll.isAvailable();
+        } catch (NoClassDefFoundError e) {
+            return false;
+        }
+    }
+
+    /**
+     * A server builder listening on {@code path}. The socket file must not exist yet.
+     */
+    public static ServerBuilder<?> forPath(Path path) {
+        checkAvailable();
+        return NettyServerBuilder.forAddress(new DomainSocketAddress(path.toFile()))
+                .channelType(EpollServerDomainSocketChannel.class)
+                .bossEventLoopGroup(EventLoops.BOSS)
+                .workerEventLoopGroup(EventLoops.SERVER_WORKERS);
+    }
+
+    /**
+     * A plaintext channel builder connecting to the server listening on {@code path}.
+     */
+    public static ManagedChannelBuilder<?> channelForPath(Path path) {
+        checkAvailable();
+        return NettyChannelBuilder.forAddress(new DomainSocketAddress(path.toFile()))
+                .channelType(EpollDomainSocketChannel.class)
+                .eventLoopGroup(EventLoops.CLIENT)
+                .usePlaintext();
+    }
+
+    private static void checkAvailable() {
+        if (!isAvailable()) {
+            throw new IllegalStateException("Unix domain sockets require Linux and netty-transport-native-epoll");
+        }
+    }
+
+    private static class EventLoops {
+        private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+        private static final EventLoopGroup BOSS = new EpollEventLoopGroup(1, new DefaultThreadFactory("proto-uds-boss", true));
+        private static final EventLoopGroup SERVER_WORKERS = new EpollEventLoopGroup(PROCESSORS, new DefaultThreadFactory("proto-uds-server", true));
+        private static final EventLoopGroup CLIENT = new EpollEventLoopGroup(Math.max(1, PROCESSORS / 2), new DefaultThreadFactory("proto-uds-client", true));
+    }
+}
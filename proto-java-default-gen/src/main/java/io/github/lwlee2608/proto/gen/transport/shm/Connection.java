@@ -0,0 +1,188 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A memory-mapped file shared by one client and one server: a control block followed by the client-to-server and
+ * the server-to-client {@link RingBuffer}. The client creates the file, the server finds and opens it.
+ * <p>
+ * Control block: magic, ring capacity, client state, server state and the pids of the client and server processes.
+ */
+class Connection {
+    static final String SUFFIX = ".shm";
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int MAGIC = 0x50524f54;
+    private static final int CONTROL_SIZE = 128;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int CLIENT_STATE_OFFSET = 8;
+    private static final int SERVER_STATE_OFFSET = 12;
+    static final int CLIENT_PID_OFFSET = 16;
+    static final int SERVER_PID_OFFSET = 24;
+    private static final long PROCESS_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    static final int STATE_NEW = 0;
+    static final int STATE_OPEN = 1;
+    static final int STATE_CLOSED = 2;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "proto-shm-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final boolean client;
+    private final MappedByteBuffer buffer;
+    private final RingBuffer inbound;
+    private final RingBuffer outbound;
+    private final Object sendLock = new Object();
+    private long nextProcessCheckNanos = System.nanoTime();
+
+    private Connection(Path file, boolean client, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.client = client;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.nativeOrder());
+        RingBuffer clientToServer = new RingBuffer(slice(buffer, CONTROL_SIZE, RingBuffer.HEADER_SIZE + capacity), capacity);
+        RingBuffer serverToClient = new RingBuffer(slice(buffer, CONTROL_SIZE + RingBuffer.HEADER_SIZE + capacity, RingBuffer.HEADER_SIZE + capacity), capacity);
+        this.inbound = client ? serverToClient : clientToServer;
+        this.outbound = client ? clientToServer : serverToClient;
+    }
+
+    /**
+     * Creates the file of a new connection, it must not exist yet.
+     */
+    static Connection create(Path file, int capacity) throws IOException {
+        int size = CONTROL_SIZE + 2 * (RingBuffer.HEADER_SIZE + capacity);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.nativeOrder());
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putLong(CLIENT_PID_OFFSET, ProcessHandle.current().pid());
+        Connection connection = new Connection(file, true, buffer, capacity);
+        INT.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+        connection.setState(STATE_OPEN);
+        return connection;
+    }
+
+    /**
+     * Opens the server side of a connection created by a client, or returns {@code null} if the file is not (yet)
+     * a connection open on the client side.
+     */
+    static Connection open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < CONTROL_SIZE) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.nativeOrder());
+        if ((int) INT.getAcquire(buffer, MAGIC_OFFSET) != MAGIC
+                || (int) INT.getAcquire(buffer, CLIENT_STATE_OFFSET) != STATE_OPEN
+                || (int) INT.getAcquire(buffer, SERVER_STATE_OFFSET) != STATE_NEW) {
+            return null;
+        }
+        Connection connection = new Connection(file, false, buffer, buffer.getInt(CAPACITY_OFFSET));
+        buffer.putLong(SERVER_PID_OFFSET, ProcessHandle.current().pid());
+        connection.setState(STATE_OPEN);
+        return connection;
+    }
+
+    static ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    RingBuffer inbound() {
+        return inbound;
+    }
+
+    int maxFrameSize() {
+        return outbound.maxRecordSize();
+    }
+
+    /**
+     * Appends a frame to the outbound ring, waiting while the ring is full.
+     *
+     * @return false if either side closed the connection
+     */
+    boolean send(ByteBuffer frame) {
+        synchronized (sendLock) {
+            WaitStrategy waitStrategy = null;
+            while (!outbound.offer(frame)) {
+                if (isClosed()) {
+                    return false;
+                }
+                if (waitStrategy == null) {
+                    waitStrategy = new WaitStrategy();
+                }
+                waitStrategy.idle();
+            }
+            return true;
+        }
+    }
+
+    boolean isClosed() {
+        return getState(CLIENT_STATE_OFFSET) == STATE_CLOSED || getState(SERVER_STATE_OFFSET) == STATE_CLOSED;
+    }
+
+    /**
+     * True if the other side closed the connection or its process is gone. Called by the polling thread whenever the
+     * inbound ring is empty, so the process is only looked up every {@link #PROCESS_CHECK_INTERVAL_NANOS}.
+     */
+    boolean isPeerClosed() {
+        int peerState = getState(client ? SERVER_STATE_OFFSET : CLIENT_STATE_OFFSET);
+        if (peerState == STATE_CLOSED) {
+            return true;
+        }
+        // The server has not opened the connection yet
+        if (peerState == STATE_NEW) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - nextProcessCheckNanos < 0) {
+            return false;
+        }
+        nextProcessCheckNanos = now + PROCESS_CHECK_INTERVAL_NANOS;
+        long pid = (long) LONG.getAcquire(buffer, client ? SERVER_PID_OFFSET : CLIENT_PID_OFFSET);
+        return !ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    void close() {
+        setState(STATE_CLOSED);
+    }
+
+    private void setState(int state) {
+        INT.setRelease(buffer, client ? CLIENT_STATE_OFFSET : SERVER_STATE_OFFSET, state);
+    }
+
+    private int getState(int offset) {
+        return (int) INT.getAcquire(buffer, offset);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset).limit(offset + length);
+        return duplicate.slice();
+    }
+}
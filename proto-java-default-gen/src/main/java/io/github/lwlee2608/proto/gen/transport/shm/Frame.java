@@ -0,0 +1,151 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoding of the frames exchanged over a {@link Connection}. Every frame starts with its type and the id of the call
+ * it belongs to. Metadata is sent as key/value pairs, values of binary ({@code -bin}) keys as raw bytes.
+ */
+class Frame {
+    /** Client to server: method name, timeout in nanoseconds or -1, headers. */
+    static final byte START = 1;
+    /** Both directions: one serialized message. */
+    static final byte MESSAGE = 2;
+    /** Client to server: no more messages. */
+    static final byte HALF_CLOSE = 3;
+    /** Client to server: the client cancelled the call. */
+    static final byte CANCEL = 4;
+    /** Server to client: status code, description, trailers. */
+    static final byte CLOSE = 5;
+
+    private static final int HEADER_SIZE = 9;
+
+    static ByteBuffer start(long callId, String methodName, long timeoutNanos, Metadata headers) {
+        byte[] name = methodName.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> metadata = encode(headers);
+        ByteBuffer frame = allocate(START, callId, 4 + name.length + 8 + size(metadata));
+        putBytes(frame, name);
+        frame.putLong(timeoutNanos);
+        putMetadata(frame, metadata);
+        return frame.flip();
+    }
+
+    static ByteBuffer message(long callId, byte[] message) {
+        ByteBuffer frame = allocate(MESSAGE, callId, 4 + message.length);
+        putBytes(frame, message);
+        return frame.flip();
+    }
+
+    static ByteBuffer halfClose(long callId) {
+        return allocate(HALF_CLOSE, callId, 0).flip();
+    }
+
+    static ByteBuffer cancel(long callId) {
+        return allocate(CANCEL, callId, 0).flip();
+    }
+
+    static ByteBuffer close(long callId, Status status, Metadata trailers) {
+        byte[] description = status.getDescription() == null ? new byte[0] : status.getDescription().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> metadata = encode(trailers);
+        ByteBuffer frame = allocate(CLOSE, callId, 4 + 4 + description.length + size(metadata));
+        frame.putInt(status.getCode().value());
+        putBytes(frame, description);
+        putMetadata(frame, metadata);
+        return frame.flip();
+    }
+
+    static byte[] getBytes(ByteBuffer frame) {
+        byte[] bytes = new byte[frame.getInt()];
+        frame.get(bytes);
+        return bytes;
+    }
+
+    static String getString(ByteBuffer frame) {
+        return new String(getBytes(frame), StandardCharsets.UTF_8);
+    }
+
+    static Status getStatus(ByteBuffer frame) {
+        Status status = Status.fromCodeValue(frame.getInt());
+        String description = getString(frame);
+        return description.isEmpty() ? status : status.withDescription(description);
+    }
+
+    static Metadata getMetadata(ByteBuffer frame) {
+        Metadata metadata = new Metadata();
+        int count = frame.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = getString(frame);
+            byte[] value = getBytes(frame);
+            if (key.endsWith(Metadata.BINARY_HEADER_SUFFIX)) {
+                metadata.put(Metadata.Key.of(key, Metadata.BINARY_BYTE_MARSHALLER), value);
+            } else {
+                metadata.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), new String(value, StandardCharsets.US_ASCII));
+            }
+        }
+        return metadata;
+    }
+
+    static byte[] toBytes(InputStream stream) {
+        try (InputStream in = stream) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer allocate(byte type, long callId, int bodySize) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + bodySize).order(ByteOrder.nativeOrder());
+        frame.put(type);
+        frame.putLong(callId);
+        return frame;
+    }
+
+    private static void putBytes(ByteBuffer frame, byte[] bytes) {
+        frame.putInt(bytes.length);
+        frame.put(bytes);
+    }
+
+    private static List<byte[]> encode(Metadata metadata) {
+        List<byte[]> encoded = new ArrayList<>();
+        for (String key : metadata.keys()) {
+            byte[] name = key.getBytes(StandardCharsets.US_ASCII);
+            if (key.endsWith(Metadata.BINARY_HEADER_SUFFIX)) {
+                for (byte[] value : metadata.getAll(Metadata.Key.of(key, Metadata.BINARY_BYTE_MARSHALLER))) {
+                    encoded.add(name);
+                    encoded.add(value);
+                }
+            } else {
+                for (String value : metadata.getAll(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER))) {
+                    encoded.add(name);
+                    encoded.add(value.getBytes(StandardCharsets.US_ASCII));
+                }
+            }
+        }
+        return encoded;
+    }
+
+    private static int size(List<byte[]> metadata) {
+        int size = 4;
+        for (byte[] bytes : metadata) {
+            size += 4 + bytes.length;
+        }
+        return size;
+    }
+
+    private static void putMetadata(ByteBuffer frame, List<byte[]> metadata) {
+        frame.putInt(metadata.size() / 2);
+        for (byte[] bytes : metadata) {
+            putBytes(frame, bytes);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer of length-prefixed records, laid out in a (memory-mapped)
+ * byte buffer so that producer and consumer may live in different processes.
+ * <p>
+ * Layout: the consumer position at offset 0 and the producer position at offset 64 (separate cache lines), records
+ * from offset 128. Each record is an int length, 4 bytes of padding and the payload, aligned to 8 bytes. A record that
+ * does not fit before the end of the buffer is preceded by a padding record and starts over at the beginning.
+ */
+class RingBuffer {
+    static final int HEADER_SIZE = 128;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int HEAD_OFFSET = 0;
+    private static final int TAIL_OFFSET = 64;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int PADDING = -1;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final ByteBuffer producerView;
+    private final ByteBuffer consumerView;
+
+    /**
+     * @param buffer region of {@link #HEADER_SIZE} plus {@code capacity} bytes, zeroed when used the first time
+     */
+    RingBuffer(ByteBuffer buffer, int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < 1024) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 1024 bytes");
+        }
+        this.buffer = buffer.order(ByteOrder.nativeOrder());
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.producerView = this.buffer.duplicate().order(ByteOrder.nativeOrder());
+        this.consumerView = this.buffer.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    int maxRecordSize() {
+        return capacity / 2 - RECORD_HEADER_SIZE;
+    }
+
+    /**
+     * Appends the remaining bytes of {@code record}. Must only be called by the producer.
+     *
+     * @return false if there is not enough free space
+     */
+    boolean offer(ByteBuffer record) {
+        int length = record.remaining();
+        if (length > maxRecordSize()) {
+            throw new IllegalArgumentException("Record of " + length + " bytes exceeds " + maxRecordSize() + " bytes");
+        }
+        long tail = (long) LONG.getOpaque(buffer, TAIL_OFFSET);
+        long head = (long) LONG.getAcquire(buffer, HEAD_OFFSET);
+        int required = align(RECORD_HEADER_SIZE + length);
+        int index = (int) (tail & mask);
+        int padding = index + required > capacity ? capacity - index : 0;
+        if (capacity - (tail - head) < padding + required) {
+            return false;
+        }
+        if (padding > 0) {
+            producerView.putInt(HEADER_SIZE + index, PADDING);
+            tail += padding;
+            index = 0;
+        }
+        producerView.putInt(HEADER_SIZE + index, length);
+        producerView.position(HEADER_SIZE + index + RECORD_HEADER_SIZE);
+        producerView.put(record);
+        LONG.setRelease(buffer, TAIL_OFFSET, tail + required);
+        return true;
+    }
+
+    /**
+     * Hands the next record to {@code handler}, the buffer passed is only valid during the call.
+     * Must only be called by the consumer.
+     *
+     * @return false if the ring is empty
+     */
+    boolean poll(RecordHandler handler) {
+        long head = (long) LONG.getOpaque(buffer, HEAD_OFFSET);
+        long tail = (long) LONG.getAcquire(buffer, TAIL_OFFSET);
+        if (head == tail) {
+            return false;
+        }
+        int index = (int) (head & mask);
+        int length = consumerView.getInt(HEADER_SIZE + index);
+        if (length == PADDING) {
+            head += capacity - index;
+            index = 0;
+            length = consumerView.getInt(HEADER_SIZE);
+        }
+        int start = HEADER_SIZE + index + RECORD_HEADER_SIZE;
+        consumerView.limit(start + length).position(start);
+        try {
+            handler.onRecord(consumerView);
+        } finally {
+            consumerView.clear();
+            LONG.setRelease(buffer, HEAD_OFFSET, head + align(RECORD_HEADER_SIZE + length));
+        }
+        return true;
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    interface RecordHandler {
+        void onRecord(ByteBuffer record);
+    }
+}
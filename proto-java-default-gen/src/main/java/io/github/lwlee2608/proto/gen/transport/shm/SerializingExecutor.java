@@ -0,0 +1,69 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the callbacks of one call on {@code delegate} one at a time and in order, or inline if there is no delegate.
+ */
+class SerializingExecutor implements Executor, Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(SerializingExecutor.class);
+
+    private final Executor delegate;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    SerializingExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (delegate == null) {
+            runSafely(command);
+            return;
+        }
+        queue.add(command);
+        schedule();
+    }
+
+    @Override
+    public void run() {
+        try {
+            Runnable command;
+            while ((command = queue.poll()) != null) {
+                runSafely(command);
+            }
+        } finally {
+            running.set(false);
+        }
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                delegate.execute(this);
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private static void runSafely(Runnable command) {
+        try {
+            command.run();
+        } catch (RuntimeException e) {
+            logger.error("Call callback failed", e);
+        }
+    }
+}
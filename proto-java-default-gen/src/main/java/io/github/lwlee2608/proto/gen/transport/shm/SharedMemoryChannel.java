@@ -0,0 +1,247 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Experimental channel to a {@link SharedMemoryServer} in another process on the same host, exchanging encoded
+ * messages through a memory-mapped file instead of a socket. Use it like any other channel, e.g.
+ * {@code new GreeterClientImpl(new SharedMemoryChannel(directory), CallOptions.DEFAULT)}.
+ * <p>
+ * Each channel is one connection: a new file in {@code directory} holding a pair of single-producer/single-consumer
+ * ring buffers. Responses are read by a dedicated thread that busy-spins before parking, so a channel costs up to a
+ * core while busy. Listener callbacks run on the executor of the call options, or on that thread if there is none.
+ * There is no flow control, and a message must fit in half the ring capacity.
+ */
+public class SharedMemoryChannel extends Channel implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private static final AtomicLong threadCount = new AtomicLong();
+
+    private final Connection connection;
+    private final Map<Long, Call<?, ?>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong nextCallId = new AtomicLong();
+    private final Thread reader;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean shutdown;
+
+    public SharedMemoryChannel(Path directory) {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity size of each ring buffer in bytes, a power of two
+     */
+    public SharedMemoryChannel(Path directory, int capacity) {
+        try {
+            this.connection = Connection.create(directory.resolve(UUID.randomUUID() + Connection.SUFFIX), capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.reader = new Thread(this::read, "proto-shm-client-" + threadCount.incrementAndGet());
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+        return new Call<>(methodDescriptor, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return "localhost";
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Closes the connection, fails the outstanding calls with UNAVAILABLE and deletes the file.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        shutdown = true;
+        connection.close();
+        failAll(Status.UNAVAILABLE.withDescription("Channel shut down"));
+        try {
+            reader.join(TimeUnit.SECONDS.toMillis(1));
+            Files.deleteIfExists(connection.getFile());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void read() {
+        WaitStrategy waitStrategy = new WaitStrategy();
+        while (!shutdown) {
+            if (connection.inbound().poll(this::onFrame)) {
+                waitStrategy.reset();
+            } else if (connection.isPeerClosed()) {
+                shutdown = true;
+                failAll(Status.UNAVAILABLE.withDescription("Server closed the connection"));
+            } else {
+                waitStrategy.idle();
+            }
+        }
+    }
+
+    private void onFrame(ByteBuffer frame) {
+        byte type = frame.get();
+        Call<?, ?> call = calls.get(frame.getLong());
+        if (call == null) {
+            // cancelled or timed out already
+            return;
+        }
+        if (type == Frame.MESSAGE) {
+            call.onMessage(Frame.getBytes(frame));
+        } else if (type == Frame.CLOSE) {
+            Status status = Frame.getStatus(frame);
+            call.onClose(status, Frame.getMetadata(frame));
+        }
+    }
+
+    private void failAll(Status status) {
+        for (Call<?, ?> call : calls.values()) {
+            call.onClose(status, new Metadata());
+        }
+    }
+
+    private class Call<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        private final MethodDescriptor<ReqT, RespT> method;
+        private final CallOptions callOptions;
+        private final SerializingExecutor callbacks;
+        private final long callId = nextCallId.incrementAndGet();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private Listener<RespT> listener;
+        private ScheduledFuture<?> deadlineTimer;
+        private boolean headersReceived;
+        private boolean listenerClosed;
+
+        private Call(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+            this.method = method;
+            this.callOptions = callOptions;
+            this.callbacks = new SerializingExecutor(callOptions.getExecutor());
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            this.listener = responseListener;
+            Deadline deadline = callOptions.getDeadline();
+            Deadline contextDeadline = Context.current().getDeadline();
+            if (deadline == null || (contextDeadline != null && contextDeadline.isBefore(deadline))) {
+                deadline = contextDeadline;
+            }
+            if (shutdown) {
+                onClose(Status.UNAVAILABLE.withDescription("Channel shut down"), new Metadata());
+                return;
+            }
+            if (deadline != null && deadline.isExpired()) {
+                onClose(Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded before the call started"), new Metadata());
+                return;
+            }
+            calls.put(callId, this);
+            long timeoutNanos = -1;
+            if (deadline != null) {
+                timeoutNanos = deadline.timeRemaining(TimeUnit.NANOSECONDS);
+                deadlineTimer = Connection.scheduler().schedule(() -> cancel(Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded")),
+                        timeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            send(Frame.start(callId, method.getFullMethodName(), timeoutNanos, headers));
+        }
+
+        @Override
+        public void request(int numMessages) {
+            // no flow control, messages are delivered as they arrive
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            cancel(Status.CANCELLED.withDescription(message).withCause(cause));
+        }
+
+        @Override
+        public void halfClose() {
+            send(Frame.halfClose(callId));
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            ByteBuffer frame = Frame.message(callId, Frame.toBytes(method.streamRequest(message)));
+            if (frame.remaining() > connection.maxFrameSize()) {
+                cancel(Status.RESOURCE_EXHAUSTED.withDescription("Message of " + frame.remaining() + " bytes exceeds " + connection.maxFrameSize() + " bytes"));
+                return;
+            }
+            send(frame);
+        }
+
+        private void send(ByteBuffer frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (!connection.send(frame)) {
+                onClose(Status.UNAVAILABLE.withDescription("Connection closed"), new Metadata());
+            }
+        }
+
+        private void cancel(Status status) {
+            if (!closed.get() && calls.containsKey(callId)) {
+                connection.send(Frame.cancel(callId));
+            }
+            onClose(status, new Metadata());
+        }
+
+        private void onMessage(byte[] message) {
+            callbacks.execute(() -> {
+                if (listenerClosed) {
+                    return;
+                }
+                if (!headersReceived) {
+                    headersReceived = true;
+                    listener.onHeaders(new Metadata());
+                }
+                listener.onMessage(method.parseResponse(new ByteArrayInputStream(message)));
+            });
+        }
+
+        private void onClose(Status status, Metadata trailers) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            calls.remove(callId);
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel(false);
+            }
+            callbacks.execute(() -> {
+                listenerClosed = true;
+                listener.onClose(status, trailers);
+            });
+        }
+    }
+}
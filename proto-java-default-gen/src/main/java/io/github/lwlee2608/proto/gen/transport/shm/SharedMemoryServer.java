@@ -0,0 +1,303 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import io.grpc.BindableService;
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Experimental server for {@link SharedMemoryChannel}s in other processes on the same host, serving the same service
+ * definitions as a gRPC server, e.g. {@code new SharedMemoryServer(directory).addService(greeterServer).start()}.
+ * <p>
+ * The server watches {@code directory} for connection files created by channels and polls each connection on its own
+ * thread, which busy-spins before parking. Calls run on that thread unless an {@link #executor(Executor)} is set, so
+ * services should not block (synchronous methods are offloaded by the generated code already).
+ */
+public class SharedMemoryServer {
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryServer.class);
+    private static final long SCAN_INTERVAL_MILLIS = 10;
+    private static final AtomicLong threadCount = new AtomicLong();
+
+    private final Path directory;
+    private final Map<String, ServerMethodDefinition<?, ?>> methods = new HashMap<>();
+    private final Map<Path, ServerConnection> connections = new ConcurrentHashMap<>();
+    private Executor executor;
+    private Thread acceptor;
+    private volatile boolean shutdown;
+
+    public SharedMemoryServer(Path directory) {
+        this.directory = directory;
+    }
+
+    public SharedMemoryServer addService(BindableService service) {
+        return addService(service.bindService());
+    }
+
+    public SharedMemoryServer addService(ServerServiceDefinition service) {
+        for (ServerMethodDefinition<?, ?> method : service.getMethods()) {
+            methods.put(method.getMethodDescriptor().getFullMethodName(), method);
+        }
+        return this;
+    }
+
+    public SharedMemoryServer executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public SharedMemoryServer start() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        acceptor = new Thread(this::accept, "proto-shm-acceptor-" + threadCount.incrementAndGet());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones, cancelling their outstanding calls.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (ServerConnection connection : connections.values()) {
+            connection.close();
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private void accept() {
+        while (!shutdown) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + Connection.SUFFIX)) {
+                for (Path file : files) {
+                    if (!connections.containsKey(file)) {
+                        Connection connection = Connection.open(file);
+                        if (connection != null) {
+                            ServerConnection serverConnection = new ServerConnection(connection);
+                            connections.put(file, serverConnection);
+                            serverConnection.poller.start();
+                        }
+                    }
+                }
+                Thread.sleep(SCAN_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to accept shared memory connections in {}", directory, e);
+            }
+        }
+    }
+
+    private class ServerConnection {
+        private final Connection connection;
+        private final Map<Long, Stream<?, ?>> streams = new ConcurrentHashMap<>();
+        private final Thread poller;
+
+        private ServerConnection(Connection connection) {
+            this.connection = connection;
+            this.poller = new Thread(this::poll, "proto-shm-server-" + threadCount.incrementAndGet());
+            this.poller.setDaemon(true);
+        }
+
+        private void poll() {
+            WaitStrategy waitStrategy = new WaitStrategy();
+            while (!shutdown) {
+                if (connection.inbound().poll(this::onFrame)) {
+                    waitStrategy.reset();
+                } else if (connection.isPeerClosed()) {
+                    break;
+                } else {
+                    waitStrategy.idle();
+                }
+            }
+            close();
+            connections.remove(connection.getFile());
+        }
+
+        private void close() {
+            connection.close();
+            for (Stream<?, ?> stream : streams.values()) {
+                stream.onCancel();
+            }
+        }
+
+        private void onFrame(ByteBuffer frame) {
+            byte type = frame.get();
+            long callId = frame.getLong();
+            if (type == Frame.START) {
+                String methodName = Frame.getString(frame);
+                long timeoutNanos = frame.getLong();
+                start(callId, methodName, timeoutNanos, Frame.getMetadata(frame));
+                return;
+            }
+            Stream<?, ?> stream = streams.get(callId);
+            if (stream == null) {
+                return;
+            }
+            if (type == Frame.MESSAGE) {
+                stream.onMessage(Frame.getBytes(frame));
+            } else if (type == Frame.HALF_CLOSE) {
+                stream.onHalfClose();
+            } else if (type == Frame.CANCEL) {
+                stream.onCancel();
+            }
+        }
+
+        private void start(long callId, String methodName, long timeoutNanos, Metadata headers) {
+            ServerMethodDefinition<?, ?> method = methods.get(methodName);
+            if (method == null) {
+                connection.send(Frame.close(callId, Status.UNIMPLEMENTED.withDescription("Method not found: " + methodName), new Metadata()));
+                return;
+            }
+            Context.CancellableContext context = timeoutNanos < 0
+                    ? Context.ROOT.withCancellation()
+                    : Context.ROOT.withDeadlineAfter(timeoutNanos, TimeUnit.NANOSECONDS, Connection.scheduler());
+            Stream<?, ?> stream = new Stream<>(this, callId, method, context);
+            streams.put(callId, stream);
+            stream.start(headers);
+        }
+    }
+
+    private class Stream<ReqT, RespT> extends ServerCall<ReqT, RespT> {
+        private final ServerConnection owner;
+        private final long callId;
+        private final ServerMethodDefinition<ReqT, RespT> method;
+        private final Context.CancellableContext context;
+        private final SerializingExecutor callbacks = new SerializingExecutor(executor);
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private Listener<ReqT> listener;
+
+        private Stream(ServerConnection owner, long callId, ServerMethodDefinition<ReqT, RespT> method, Context.CancellableContext context) {
+            this.owner = owner;
+            this.callId = callId;
+            this.method = method;
+            this.context = context;
+        }
+
+        private void start(Metadata headers) {
+            context.addListener(cancelledContext -> {
+                if (!closed.get()) {
+                    onCancel();
+                }
+            }, Runnable::run);
+            callbacks.execute(() -> {
+                ServerCallHandler<ReqT, RespT> handler = method.getServerCallHandler();
+                Context previous = context.attach();
+                try {
+                    listener = handler.startCall(this, headers);
+                    listener.onReady();
+                } finally {
+                    context.detach(previous);
+                }
+            });
+        }
+
+        private void onMessage(byte[] message) {
+            callbacks.execute(() -> {
+                if (listener != null && !cancelled) {
+                    ReqT request = method.getMethodDescriptor().parseRequest(new ByteArrayInputStream(message));
+                    context.run(() -> listener.onMessage(request));
+                }
+            });
+        }
+
+        private void onHalfClose() {
+            callbacks.execute(() -> {
+                if (listener != null && !cancelled) {
+                    context.run(listener::onHalfClose);
+                }
+            });
+        }
+
+        private void onCancel() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            cancelled = true;
+            owner.streams.remove(callId);
+            callbacks.execute(() -> {
+                if (listener != null) {
+                    context.run(listener::onCancel);
+                }
+                context.cancel(null);
+            });
+        }
+
+        @Override
+        public void request(int numMessages) {
+            // no flow control, messages are delivered as they arrive
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+            // headers are not sent to the client
+        }
+
+        @Override
+        public void sendMessage(RespT message) {
+            if (closed.get()) {
+                return;
+            }
+            ByteBuffer frame = Frame.message(callId, Frame.toBytes(method.getMethodDescriptor().streamResponse(message)));
+            if (frame.remaining() > owner.connection.maxFrameSize()) {
+                close(Status.RESOURCE_EXHAUSTED.withDescription("Message of " + frame.remaining() + " bytes exceeds " + owner.connection.maxFrameSize() + " bytes"), new Metadata());
+                return;
+            }
+            owner.connection.send(frame);
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            owner.streams.remove(callId);
+            owner.connection.send(Frame.close(callId, status, trailers));
+            callbacks.execute(() -> {
+                if (listener != null) {
+                    context.run(listener::onComplete);
+                }
+                context.cancel(null);
+            });
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public MethodDescriptor<ReqT, RespT> getMethodDescriptor() {
+            return method.getMethodDescriptor();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Busy-spins first for the lowest latency, then yields, then parks for exponentially longer periods up to a maximum
+ * to stop burning a core while idle. Spinning is skipped on a single processor, where it only delays the other side.
+ * Not thread-safe, one instance per polling thread.
+ */
+class WaitStrategy {
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+    private static final int YIELDS = 100;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private int idleCount;
+    private long parkNanos = MIN_PARK_NANOS;
+
+    void idle() {
+        if (idleCount < SPINS) {
+            idleCount++;
+            Thread.onSpinWait();
+        } else if (idleCount < SPINS + YIELDS) {
+            idleCount++;
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+    }
+
+    void reset() {
+        idleCount = 0;
+        parkNanos = MIN_PARK_NANOS;
+    }
+}
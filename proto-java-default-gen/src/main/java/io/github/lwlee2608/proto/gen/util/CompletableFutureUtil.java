@@ -1,8 +1,12 @@
 package io.github.lwlee2608.proto.gen.util;
 
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 public class CompletableFutureUtil {
@@ -23,12 +27,54 @@ public class CompletableFutureUtil {
     }
 
     public static <T, R> void toStreamObserver(CompletableFuture<T> future, StreamObserver<R> streamObserver, Function<T, R> transformer) {
-        future.thenAccept(reply -> {
-            streamObserver.onNext(transformer.apply(reply));
-            streamObserver.onCompleted();
-        }).exceptionally(error -> {
-            streamObserver.onError(error);
-            return null;
+        if (future.isDone()) {
+            // Already completed, reply on the calling thread without registering a callback
+            T reply;
+            try {
+                reply = future.join();
+            } catch (CompletionException | CancellationException e) {
+                streamObserver.onError(e.getCause() != null ? e.getCause() : e);
+                return;
+            }
+            complete(streamObserver, transformer, reply);
+            return;
+        }
+        future.whenComplete((reply, error) -> {
+            if (error != null) {
+                streamObserver.onError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                complete(streamObserver, transformer, reply);
+            }
         });
     }
+
+    private static <T, R> void complete(StreamObserver<R> streamObserver, Function<T, R> transformer, T reply) {
+        R transformed;
+        try {
+            transformed = transformer.apply(reply);
+        } catch (RuntimeException e) {
+            streamObserver.onError(e);
+            return;
+        }
+        streamObserver.onNext(transformed);
+        streamObserver.onCompleted();
+    }
+
+    /**
+     * Waits for the future and rethrows its failure unwrapped, as a {@link io.grpc.StatusRuntimeException} unless it
+     * already is a runtime exception.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw Status.fromThrowable(e.getCause()).asRuntimeException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withDescription("Interrupted while waiting for the reply").withCause(e).asRuntimeException();
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ChannelPoolTest {
+
+    @Test
+    void testGrowAndShrink() {
+        List<FakeChannel> created = new ArrayList<>();
+        ChannelPool pool = new ChannelPool(() -> {
+            FakeChannel channel = new FakeChannel("localhost");
+            created.add(channel);
+            return channel;
+        }, 1, 3, 4, 0);
+
+        List<ClientCall<InputStream, InputStream>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(FakeChannel.start(pool, new FakeChannel.StatusListener()));
+        }
+        Assertions.assertEquals(3, pool.getSize());
+        Assertions.assertEquals(10, pool.getOutstanding());
+
+        for (ClientCall<InputStream, InputStream> call : calls) {
+            call.halfClose();
+        }
+        Assertions.assertEquals(0, pool.getOutstanding());
+
+        Assertions.assertEquals(Status.Code.OK, FakeChannel.call(pool).getCode());
+        Assertions.assertEquals(Status.Code.OK, FakeChannel.call(pool).getCode());
+        Assertions.assertEquals(1, pool.getSize());
+        Assertions.assertEquals(2, created.stream().filter(FakeChannel::isShutdown).count());
+        Assertions.assertEquals(0, created.stream().mapToInt(FakeChannel::getStartedAfterShutdown).sum());
+    }
+
+    @Test
+    void testShrinkWhileCallsRunning() throws Exception {
+        List<FakeChannel> created = new CopyOnWriteArrayList<>();
+        ChannelPool pool = new ChannelPool(() -> {
+            FakeChannel channel = new FakeChannel("localhost");
+            created.add(channel);
+            return channel;
+        }, 1, 4, 2, 0);
+
+        int threads = 8;
+        int rounds = 2_000;
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int held = 1 + t % 3;
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                ready.await();
+                List<ClientCall<InputStream, InputStream>> inFlight = new ArrayList<>();
+                for (int i = 0; i < rounds; i++) {
+                    // Hold a few calls open so the pool keeps growing and shrinking under the other threads
+                    for (int j = 0; j < held; j++) {
+                        inFlight.add(FakeChannel.start(pool, new FakeChannel.StatusListener() {
+                            @Override
+                            public void onClose(Status status, Metadata trailers) {
+                                if (!status.isOk()) {
+                                    failed.incrementAndGet();
+                                }
+                            }
+                        }));
+                    }
+                    for (ClientCall<InputStream, InputStream> call : inFlight) {
+                        call.halfClose();
+                    }
+                    inFlight.clear();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(0, failed.get());
+        Assertions.assertEquals(0, created.stream().mapToInt(FakeChannel::getStartedAfterShutdown).sum());
+        Assertions.assertEquals(0, pool.getOutstanding());
+        Assertions.assertTrue(created.size() > 1, "Pool never grew");
+        Assertions.assertEquals(created.size() - pool.getSize(), created.stream().filter(FakeChannel::isShutdown).count());
+    }
+
+    @Test
+    void testRetiredChannelWaitsForPickedCall() {
+        List<FakeChannel> created = new ArrayList<>();
+        ChannelPool pool = new ChannelPool(() -> {
+            FakeChannel channel = new FakeChannel("localhost");
+            created.add(channel);
+            return channel;
+        }, 1, 3, 8, 0);
+
+        List<ClientCall<InputStream, InputStream>> calls = new ArrayList<>();
+        for (int i = 0; i < 13; i++) {
+            calls.add(FakeChannel.start(pool, new FakeChannel.StatusListener()));
+        }
+        Assertions.assertEquals(3, pool.getSize());
+        for (ClientCall<InputStream, InputStream> call : calls) {
+            call.halfClose();
+        }
+
+        // Picked but not started yet, the next pick retires its channel
+        ClientCall<InputStream, InputStream> picked = pool.newCall(FakeChannel.METHOD, CallOptions.DEFAULT);
+        Assertions.assertEquals(2, pool.getSize());
+        ClientCall<InputStream, InputStream> next = pool.newCall(FakeChannel.METHOD, CallOptions.DEFAULT);
+        Assertions.assertEquals(1, pool.getSize());
+        FakeChannel retired = created.get(0);
+        Assertions.assertFalse(retired.isShutdown());
+
+        FakeChannel.StatusListener listener = new FakeChannel.StatusListener();
+        picked.start(listener, new Metadata());
+        picked.halfClose();
+        Assertions.assertEquals(Status.Code.OK, listener.status.getCode());
+        Assertions.assertEquals(7, retired.getStarted());
+        Assertions.assertTrue(retired.isShutdown());
+        next.cancel("done", null);
+        Assertions.assertEquals(0, pool.getOutstanding());
+    }
+
+    @Test
+    void testCancelBeforeStartReleases() {
+        ChannelPool pool = new ChannelPool(() -> new FakeChannel("localhost"), 1);
+
+        ClientCall<InputStream, InputStream> call = pool.newCall(FakeChannel.METHOD, CallOptions.DEFAULT);
+        Assertions.assertEquals(1, pool.getOutstanding());
+        call.cancel("test", null);
+        Assertions.assertEquals(0, pool.getOutstanding());
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+class ConsistentHashChannelTest {
+    private static final int KEYS = 2000;
+
+    private final Map<String, FakeChannel> channels = new HashMap<>();
+
+    @Test
+    void testSameKeySameEndpoint() {
+        ConsistentHashChannel channel = new ConsistentHashChannel(new StaticEndpointSource("a", "b", "c"), this::newChannel);
+
+        for (int i = 0; i < 100; i++) {
+            String owner = route(channel, "key-" + i);
+            Assertions.assertEquals(owner, route(channel, "key-" + i));
+        }
+    }
+
+    @Test
+    void testRingStableOnEndpointAdded() {
+        AtomicReference<List<String>> targets = new AtomicReference<>(List.of("a", "b", "c", "d"));
+        ConsistentHashChannel channel = new ConsistentHashChannel(targets::get, this::newChannel);
+        Map<String, String> before = routeAll(channel);
+
+        targets.set(List.of("a", "b", "c", "d", "e"));
+        Map<String, String> after = routeAll(channel);
+
+        int moved = 0;
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                // Keys only move to the new endpoint
+                Assertions.assertEquals("e", entry.getValue());
+                moved++;
+            }
+        }
+        // About 1/5 of the keys move
+        Assertions.assertTrue(moved > KEYS / 10 && moved < KEYS * 3 / 10, moved + " keys moved");
+    }
+
+    @Test
+    void testRingStableOnEndpointRemoved() {
+        AtomicReference<List<String>> targets = new AtomicReference<>(List.of("a", "b", "c", "d"));
+        ConsistentHashChannel channel = new ConsistentHashChannel(targets::get, this::newChannel);
+        Map<String, String> before = routeAll(channel);
+
+        targets.set(List.of("a", "b", "d"));
+        Map<String, String> after = routeAll(channel);
+
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            String previous = before.get(entry.getKey());
+            // Only the keys of the removed endpoint move
+            Assertions.assertEquals(previous.equals("c"), !entry.getValue().equals(previous), entry.getKey());
+        }
+    }
+
+    @Test
+    void testBoundedLoadSpill() {
+        ConsistentHashChannel channel = new ConsistentHashChannel(new StaticEndpointSource("a", "b", "c", "d"), this::newChannel);
+        String owner = route(channel, "hot");
+
+        // Capacity is ceil((outstanding + 1) * 1.25 / 4), a second call in flight for the key exceeds it on the owner
+        ClientCall<InputStream, InputStream> first = start(channel, "hot");
+        Assertions.assertEquals(1, channels.get(owner).getInFlight());
+        ClientCall<InputStream, InputStream> second = start(channel, "hot");
+        Assertions.assertEquals(1, channels.get(owner).getInFlight());
+        Assertions.assertEquals(2, channels.values().stream().mapToInt(FakeChannel::getInFlight).sum());
+
+        first.halfClose();
+        second.halfClose();
+        Assertions.assertEquals(owner, route(channel, "hot"));
+    }
+
+    @Test
+    void testWithoutRoutingKey() {
+        ConsistentHashChannel channel = new ConsistentHashChannel(new StaticEndpointSource("a", "b"), this::newChannel);
+
+        for (int i = 0; i < 50; i++) {
+            // The two choices are distinct endpoints, so the second call always goes to the idle one
+            ClientCall<InputStream, InputStream> first = FakeChannel.start(channel, new FakeChannel.StatusListener());
+            ClientCall<InputStream, InputStream> second = FakeChannel.start(channel, new FakeChannel.StatusListener());
+            Assertions.assertEquals(1, channels.get("a").getInFlight());
+            Assertions.assertEquals(1, channels.get("b").getInFlight());
+            first.halfClose();
+            second.halfClose();
+        }
+    }
+
+    private FakeChannel newChannel(String target) {
+        FakeChannel channel = new FakeChannel(target);
+        channels.put(target, channel);
+        return channel;
+    }
+
+    private Map<String, String> routeAll(ConsistentHashChannel channel) {
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owners.put("key-" + i, route(channel, "key-" + i));
+        }
+        return owners;
+    }
+
+    /**
+     * Runs a call with the routing key and returns the target it went to.
+     */
+    private String route(ConsistentHashChannel channel, String key) {
+        ClientCall<InputStream, InputStream> call = start(channel, key);
+        String target = channels.values().stream()
+                .filter(fake -> fake.getInFlight() > 0)
+                .findFirst()
+                .orElseThrow()
+                .authority();
+        call.halfClose();
+        return target;
+    }
+
+    private static ClientCall<InputStream, InputStream> start(ConsistentHashChannel channel, String key) {
+        ClientCall<InputStream, InputStream> call = channel.newCall(FakeChannel.METHOD, CallOptions.DEFAULT.withOption(ConsistentHashChannel.ROUTING_KEY, key));
+        call.start(new FakeChannel.StatusListener(), new Metadata());
+        return call;
+    }
+}
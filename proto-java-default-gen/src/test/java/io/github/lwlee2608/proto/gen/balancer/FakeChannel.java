@@ -0,0 +1,174 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A channel without transport. A started call completes with OK when it is half closed, a call started after the
+ * channel was shut down fails with UNAVAILABLE like a real channel would.
+ */
+class FakeChannel extends ManagedChannel {
+    static final MethodDescriptor<InputStream, InputStream> METHOD = MethodDescriptor.<InputStream, InputStream>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName("test.Service/Method")
+            .setRequestMarshaller(new StreamMarshaller())
+            .setResponseMarshaller(new StreamMarshaller())
+            .build();
+
+    private final String authority;
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger startedAfterShutdown = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Metadata trailers;
+    private volatile boolean shutdown;
+
+    FakeChannel(String authority) {
+        this(authority, new Metadata());
+    }
+
+    FakeChannel(String authority, Metadata trailers) {
+        this.authority = authority;
+        this.trailers = trailers;
+    }
+
+    int getStarted() {
+        return started.get();
+    }
+
+    int getStartedAfterShutdown() {
+        return startedAfterShutdown.get();
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        return new ClientCall<>() {
+            private Listener<RespT> listener;
+            private boolean closed;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                listener = responseListener;
+                if (shutdown) {
+                    startedAfterShutdown.incrementAndGet();
+                    close(Status.UNAVAILABLE.withDescription("Channel shutdown invoked"));
+                    return;
+                }
+                started.incrementAndGet();
+                inFlight.incrementAndGet();
+            }
+
+            @Override
+            public void request(int numMessages) {
+            }
+
+            @Override
+            public void cancel(String message, Throwable cause) {
+                if (listener != null) {
+                    close(Status.CANCELLED.withDescription(message).withCause(cause));
+                }
+            }
+
+            @Override
+            public void halfClose() {
+                close(Status.OK);
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+            }
+
+            private void close(Status status) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (status.getCode() != Status.Code.UNAVAILABLE) {
+                    inFlight.decrementAndGet();
+                }
+                listener.onClose(status, trailers);
+            }
+        };
+    }
+
+    @Override
+    public String authority() {
+        return authority;
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        shutdown = true;
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && inFlight.get() == 0;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        return shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return isTerminated();
+    }
+
+    /**
+     * Starts a call and returns it without completing it.
+     */
+    static ClientCall<InputStream, InputStream> start(io.grpc.Channel channel, ClientCall.Listener<InputStream> listener) {
+        ClientCall<InputStream, InputStream> call = channel.newCall(METHOD, CallOptions.DEFAULT);
+        call.start(listener, new Metadata());
+        return call;
+    }
+
+    /**
+     * Runs a call to completion and returns its status.
+     */
+    static Status call(io.grpc.Channel channel) {
+        StatusListener listener = new StatusListener();
+        start(channel, listener).halfClose();
+        return listener.status;
+    }
+
+    static class StatusListener extends ClientCall.Listener<InputStream> {
+        volatile Status status;
+
+        @Override
+        public void onClose(Status status, Metadata trailers) {
+            this.status = status;
+        }
+    }
+
+    private static class StreamMarshaller implements MethodDescriptor.Marshaller<InputStream> {
+        @Override
+        public InputStream stream(InputStream value) {
+            return value;
+        }
+
+        @Override
+        public InputStream parse(InputStream stream) {
+            return stream;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class FileEndpointSourceTest {
+
+    @Test
+    void testReloadOnChange() throws IOException {
+        Path file = Files.createTempFile("endpoints", ".txt");
+        try {
+            Files.writeString(file, "# upstream\nlocalhost:8080\n\nlocalhost:8081\nlocalhost:8080\n");
+            setModified(file, 1);
+            FileEndpointSource source = new FileEndpointSource(file, 0, TimeUnit.MILLISECONDS);
+            List<String> endpoints = source.getEndpoints();
+            Assertions.assertEquals(List.of("localhost:8080", "localhost:8081"), endpoints);
+            // Unchanged endpoints keep the same list instance
+            Assertions.assertSame(endpoints, source.getEndpoints());
+
+            Files.writeString(file, "localhost:8082\n");
+            setModified(file, 2);
+            Assertions.assertEquals(List.of("localhost:8082"), source.getEndpoints());
+
+            // An empty file is ignored
+            Files.writeString(file, "# drained\n");
+            setModified(file, 3);
+            Assertions.assertEquals(List.of("localhost:8082"), source.getEndpoints());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testEmptyFileRejected() throws IOException {
+        Path file = Files.createTempFile("endpoints", ".txt");
+        try {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new FileEndpointSource(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void setModified(Path file, long seconds) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(seconds, TimeUnit.SECONDS));
+    }
+}
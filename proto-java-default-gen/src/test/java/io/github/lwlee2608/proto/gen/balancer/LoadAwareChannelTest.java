@@ -0,0 +1,148 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+class LoadAwareChannelTest {
+
+    @Test
+    void testPowerOfTwoChoicesPicksLessLoaded() {
+        Map<String, FakeChannel> channels = new HashMap<>();
+        LoadAwareChannel channel = new LoadAwareChannel(new StaticEndpointSource("a", "b"), target -> {
+            FakeChannel fake = new FakeChannel(target);
+            channels.put(target, fake);
+            return fake;
+        });
+
+        // With two endpoints both are always compared, so calls alternate to whichever has fewer in flight
+        List<ClientCall<InputStream, InputStream>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(FakeChannel.start(channel, new FakeChannel.StatusListener()));
+        }
+        Assertions.assertEquals(5, channels.get("a").getInFlight());
+        Assertions.assertEquals(5, channels.get("b").getInFlight());
+        for (ClientCall<InputStream, InputStream> call : calls) {
+            call.halfClose();
+        }
+        Assertions.assertEquals(0, channel.getEndpoints().stream().mapToInt(MultiEndpointChannel.Endpoint::getOutstanding).sum());
+    }
+
+    @Test
+    void testPowerOfTwoChoicesSpreadsLoad() {
+        Map<String, FakeChannel> channels = new HashMap<>();
+        LoadAwareChannel channel = new LoadAwareChannel(new StaticEndpointSource("a", "b", "c", "d"), target -> {
+            FakeChannel fake = new FakeChannel(target);
+            channels.put(target, fake);
+            return fake;
+        });
+
+        for (int i = 0; i < 400; i++) {
+            FakeChannel.start(channel, new FakeChannel.StatusListener());
+        }
+        // Never more than a few calls apart, random picks would drift much further
+        for (FakeChannel fake : channels.values()) {
+            Assertions.assertTrue(Math.abs(fake.getInFlight() - 100) <= 5, fake.authority() + " has " + fake.getInFlight());
+        }
+    }
+
+    @Test
+    void testReportedLoad() {
+        Metadata busy = new Metadata();
+        busy.put(LoadReportingInterceptor.INFLIGHT_KEY, "50");
+        busy.put(LoadReportingInterceptor.CPU_KEY, "0.90");
+        Metadata idle = new Metadata();
+        idle.put(LoadReportingInterceptor.INFLIGHT_KEY, "0");
+        idle.put(LoadReportingInterceptor.CPU_KEY, "0.10");
+        Map<String, FakeChannel> channels = new HashMap<>();
+        LoadAwareChannel channel = new LoadAwareChannel(new StaticEndpointSource("a", "b"), target -> {
+            FakeChannel fake = new FakeChannel(target, target.equals("a") ? busy : idle);
+            channels.put(target, fake);
+            return fake;
+        });
+        receiveReports(channel, channels);
+
+        for (int i = 0; i < 20; i++) {
+            FakeChannel.start(channel, new FakeChannel.StatusListener());
+        }
+        Assertions.assertEquals(0, channels.get("a").getInFlight());
+        Assertions.assertEquals(20, channels.get("b").getInFlight());
+    }
+
+    @Test
+    void testNegativeReportIgnored() {
+        Metadata negative = new Metadata();
+        negative.put(LoadReportingInterceptor.INFLIGHT_KEY, "-100");
+        negative.put(LoadReportingInterceptor.CPU_KEY, "-1.00");
+        Metadata noCpu = new Metadata();
+        noCpu.put(LoadReportingInterceptor.INFLIGHT_KEY, "0");
+        Map<String, FakeChannel> channels = new HashMap<>();
+        LoadAwareChannel channel = new LoadAwareChannel(new StaticEndpointSource("a", "b"), target -> {
+            FakeChannel fake = new FakeChannel(target, target.equals("a") ? negative : noCpu);
+            channels.put(target, fake);
+            return fake;
+        });
+        receiveReports(channel, channels);
+
+        // Both count as idle, a negative load would draw every call to "a"
+        for (int i = 0; i < 20; i++) {
+            FakeChannel.start(channel, new FakeChannel.StatusListener());
+        }
+        Assertions.assertEquals(10, channels.get("a").getInFlight());
+        Assertions.assertEquals(10, channels.get("b").getInFlight());
+    }
+
+    @Test
+    void testEndpointAddedAndRemoved() {
+        AtomicReference<List<String>> targets = new AtomicReference<>(List.of("a", "b"));
+        Map<String, FakeChannel> channels = new HashMap<>();
+        LoadAwareChannel channel = new LoadAwareChannel(targets::get, target -> {
+            FakeChannel fake = new FakeChannel(target);
+            channels.put(target, fake);
+            return fake;
+        });
+
+        ClientCall<InputStream, InputStream> running = FakeChannel.start(channel, new FakeChannel.StatusListener());
+        FakeChannel.StatusListener pickedListener = new FakeChannel.StatusListener();
+        ClientCall<InputStream, InputStream> picked = channel.newCall(FakeChannel.METHOD, CallOptions.DEFAULT);
+
+        targets.set(List.of("c"));
+        Assertions.assertEquals(List.of("c"), channel.getEndpoints().stream().map(MultiEndpointChannel.Endpoint::getTarget).collect(Collectors.toList()));
+        // Calls routed before the update still complete on the removed endpoints
+        Assertions.assertFalse(channels.get("a").isShutdown());
+        Assertions.assertFalse(channels.get("b").isShutdown());
+        picked.start(pickedListener, new Metadata());
+        picked.halfClose();
+        running.halfClose();
+        Assertions.assertEquals(Status.Code.OK, pickedListener.status.getCode());
+        Assertions.assertTrue(channels.get("a").isShutdown());
+        Assertions.assertTrue(channels.get("b").isShutdown());
+        Assertions.assertEquals(0, channels.get("a").getStartedAfterShutdown() + channels.get("b").getStartedAfterShutdown());
+
+        Assertions.assertEquals(Status.Code.OK, FakeChannel.call(channel).getCode());
+        Assertions.assertEquals(1, channels.get("c").getStarted());
+
+        targets.set(List.of("c", "d"));
+        FakeChannel.start(channel, new FakeChannel.StatusListener());
+        FakeChannel.start(channel, new FakeChannel.StatusListener());
+        Assertions.assertEquals(1, channels.get("c").getInFlight());
+        Assertions.assertEquals(1, channels.get("d").getInFlight());
+    }
+
+    private static void receiveReports(LoadAwareChannel channel, Map<String, FakeChannel> channels) {
+        while (channels.values().stream().anyMatch(fake -> fake.getStarted() == 0)) {
+            Assertions.assertEquals(Status.Code.OK, FakeChannel.call(channel).getCode());
+        }
+    }
+}
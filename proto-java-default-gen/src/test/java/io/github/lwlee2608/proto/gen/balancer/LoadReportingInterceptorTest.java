@@ -0,0 +1,95 @@
+package io.github.lwlee2608.proto.gen.balancer;
+
+import io.grpc.Attributes;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.Status;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+class LoadReportingInterceptorTest {
+
+    @Test
+    void testReportsInflightAndQueueDepth() {
+        LoadReportingInterceptor interceptor = new LoadReportingInterceptor(() -> 7);
+        FakeServerCall first = new FakeServerCall();
+        AtomicReference<ServerCall<InputStream, InputStream>> reporting = new AtomicReference<>();
+        interceptor.interceptCall(first, new Metadata(), (call, headers) -> {
+            reporting.set(call);
+            return new ServerCall.Listener<>() {
+            };
+        });
+        ServerCall.Listener<InputStream> secondListener = interceptor.interceptCall(new FakeServerCall(), new Metadata(), (call, headers) -> new ServerCall.Listener<>() {
+        });
+        Assertions.assertEquals(2, interceptor.getInflight());
+
+        // The call being closed is no longer counted
+        reporting.get().close(Status.OK, new Metadata());
+        Assertions.assertEquals("1", first.trailers.get(LoadReportingInterceptor.INFLIGHT_KEY));
+        Assertions.assertEquals("7", first.trailers.get(LoadReportingInterceptor.QUEUE_DEPTH_KEY));
+
+        secondListener.onCancel();
+        Assertions.assertEquals(0, interceptor.getInflight());
+    }
+
+    @Test
+    void testCpuReportedOnlyWhenAvailable() {
+        LoadReportingInterceptor interceptor = new LoadReportingInterceptor(() -> -1);
+        FakeServerCall call = new FakeServerCall();
+        interceptor.interceptCall(call, new Metadata(), (reporting, headers) -> {
+            reporting.close(Status.OK, new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        });
+
+        Assertions.assertEquals("0", call.trailers.get(LoadReportingInterceptor.QUEUE_DEPTH_KEY));
+        String cpu = call.trailers.get(LoadReportingInterceptor.CPU_KEY);
+        if (ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage() < 0) {
+            Assertions.assertNull(cpu);
+        } else {
+            double value = Double.parseDouble(cpu);
+            Assertions.assertTrue(value >= 0 && value <= 1, cpu);
+        }
+    }
+
+    private static class FakeServerCall extends ServerCall<InputStream, InputStream> {
+        private Metadata trailers;
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(InputStream message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            this.trailers = trailers;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return Attributes.EMPTY;
+        }
+
+        @Override
+        public MethodDescriptor<InputStream, InputStream> getMethodDescriptor() {
+            return FakeChannel.METHOD;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.lwlee2608.proto.gen.compression;
+
+import io.grpc.CallOptions;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class MessageCompressionTest {
+    private final MessageCompression compression = new MessageCompression("gzip", 1024);
+
+    @Test
+    void testThreshold() {
+        Assertions.assertFalse(compression.shouldCompress(0));
+        Assertions.assertFalse(compression.shouldCompress(1023));
+        Assertions.assertTrue(compression.shouldCompress(1024));
+        Assertions.assertTrue(new MessageCompression("gzip", 0).shouldCompress(0));
+    }
+
+    @Test
+    void testCallOptions() {
+        Assertions.assertNull(compression.callOptions(CallOptions.DEFAULT, 1023).getCompressor());
+        Assertions.assertEquals("gzip", compression.callOptions(CallOptions.DEFAULT, 1024).getCompressor());
+    }
+
+    @Test
+    void testCompressionFlagPerMessage() {
+        RecordingObserver call = new RecordingObserver();
+        StreamObserver<String> observer = compression.responseObserver(call, String::length);
+        Assertions.assertEquals("gzip", call.codec);
+
+        observer.onNext("x".repeat(2000));
+        observer.onNext("small");
+        observer.onNext("x".repeat(1024));
+        observer.onCompleted();
+
+        Assertions.assertEquals(List.of("compressed 2000", "plain 5", "compressed 1024"), call.sent);
+        Assertions.assertTrue(call.completed);
+    }
+
+    @Test
+    void testNotServerCall() {
+        StreamObserver<String> observer = new StreamObserver<>() {
+            @Override
+            public void onNext(String value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+        Assertions.assertSame(observer, compression.responseObserver(observer, String::length));
+    }
+
+    @Test
+    void testInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MessageCompression("", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MessageCompression("gzip", -1));
+    }
+
+    private static class RecordingObserver extends ServerCallStreamObserver<String> {
+        private final List<String> sent = new ArrayList<>();
+        private String codec;
+        private boolean compress;
+        private boolean completed;
+
+        @Override
+        public void setCompression(String compression) {
+            codec = compression;
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+            compress = enable;
+        }
+
+        @Override
+        public void onNext(String value) {
+            sent.add((compress ? "compressed " : "plain ") + value.length());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class BlockingExecutorsTest {
+
+    @Test
+    void testCachedPoolBeforeJava21() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() < 21, "Virtual threads supported");
+
+        Assertions.assertNull(BlockingExecutors.newVirtualThreadPerTaskExecutor());
+        Assertions.assertFalse(BlockingExecutors.isVirtualThreads());
+        Thread thread = runOn(BlockingExecutors.getDefault());
+        Assertions.assertTrue(thread.getName().startsWith("proto-blocking-"), thread.getName());
+        Assertions.assertTrue(thread.isDaemon());
+    }
+
+    @Test
+    void testVirtualThreadsFromJava21() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "Virtual threads not supported");
+
+        Assertions.assertTrue(BlockingExecutors.isVirtualThreads());
+        Thread thread = runOn(BlockingExecutors.getDefault());
+        Assertions.assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test
+    void testInvokeOffCallerThread() throws Exception {
+        RecordingObserver observer = new RecordingObserver();
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        BlockingExecutors.invoke(BlockingExecutors.getDefault(), null, observer, () -> {
+            thread.set(Thread.currentThread());
+            return "reply";
+        });
+
+        Assertions.assertEquals("reply", observer.result.get(2, TimeUnit.SECONDS));
+        Assertions.assertNotSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    void testInvokeError() throws Exception {
+        RecordingObserver observer = new RecordingObserver();
+        BlockingExecutors.invoke(BlockingExecutors.getDefault(), null, observer, () -> {
+            throw Status.NOT_FOUND.asRuntimeException();
+        });
+
+        Assertions.assertEquals(Status.Code.NOT_FOUND, observer.status().getCode());
+    }
+
+    @Test
+    void testNoPermitBeforeDeadline() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        RecordingObserver observer = new RecordingObserver();
+        Context.CancellableContext context = Context.current().withDeadline(Deadline.after(50, TimeUnit.MILLISECONDS), scheduler);
+        context.run(() -> BlockingExecutors.invoke(BlockingExecutors.getDefault(), new Semaphore(0), observer, () -> "reply"));
+
+        Assertions.assertEquals(Status.Code.DEADLINE_EXCEEDED, observer.status().getCode());
+        context.cancel(null);
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testRejected() throws Exception {
+        RecordingObserver observer = new RecordingObserver();
+        BlockingExecutors.invoke(command -> {
+            throw new RejectedExecutionException("full");
+        }, null, observer, () -> "reply");
+
+        Assertions.assertEquals(Status.Code.RESOURCE_EXHAUSTED, observer.status().getCode());
+    }
+
+    private static Thread runOn(Executor executor) throws Exception {
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        executor.execute(() -> thread.complete(Thread.currentThread()));
+        return thread.get(2, TimeUnit.SECONDS);
+    }
+
+    private static class RecordingObserver implements StreamObserver<String> {
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private String reply;
+
+        @Override
+        public void onNext(String value) {
+            reply = value;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            result.completeExceptionally(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            result.complete(reply);
+        }
+
+        private Status status() throws Exception {
+            try {
+                result.get(2, TimeUnit.SECONDS);
+                return Status.OK;
+            } catch (ExecutionException e) {
+                return Status.fromThrowable(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class PriorityExecutorTest {
+    private final ExecutorService delegate = Executors.newCachedThreadPool();
+    private final List<String> order = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        delegate.shutdownNow();
+    }
+
+    @Test
+    void testHigherPriorityFirst() throws InterruptedException {
+        PriorityExecutor executor = new PriorityExecutor(delegate, 1, 3, 100, 1, TimeUnit.MINUTES);
+        block(executor);
+
+        executor.execute(PriorityExecutor.LOW, record("low"));
+        executor.execute(PriorityExecutor.NORMAL, record("normal-1"));
+        executor.execute(PriorityExecutor.HIGH, record("high-1"));
+        executor.execute(PriorityExecutor.NORMAL, record("normal-2"));
+        executor.execute(PriorityExecutor.HIGH, record("high-2"));
+        Assertions.assertEquals(2, executor.getQueueDepth(PriorityExecutor.HIGH));
+
+        CountDownLatch done = drain(executor);
+        Assertions.assertTrue(done.await(2, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of("high-1", "high-2", "normal-1", "normal-2", "low"), order);
+        Assertions.assertEquals(0, executor.getPromoted());
+    }
+
+    @Test
+    void testStarvedTaskPromoted() throws InterruptedException {
+        PriorityExecutor executor = new PriorityExecutor(delegate, 1, 3, 100, 50, TimeUnit.MILLISECONDS);
+        block(executor);
+
+        executor.execute(PriorityExecutor.LOW, record("low"));
+        Thread.sleep(100);
+        executor.execute(PriorityExecutor.HIGH, record("high"));
+
+        CountDownLatch done = drain(executor);
+        Assertions.assertTrue(done.await(2, TimeUnit.SECONDS));
+        // The low priority task waited longer than the max wait
+        Assertions.assertEquals(List.of("low", "high"), order);
+        Assertions.assertEquals(1, executor.getPromoted());
+    }
+
+    @Test
+    void testFullLevelRejected() {
+        PriorityExecutor executor = new PriorityExecutor(delegate, 1, 3, 1, 1, TimeUnit.MINUTES);
+        block(executor);
+
+        executor.execute(PriorityExecutor.LOW, record("low"));
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(PriorityExecutor.LOW, record("rejected")));
+        // Other levels have their own queue
+        executor.execute(PriorityExecutor.HIGH, record("high"));
+        Assertions.assertEquals(1, executor.getRejected(PriorityExecutor.LOW));
+        Assertions.assertEquals(0, executor.getRejected(PriorityExecutor.HIGH));
+        release.countDown();
+    }
+
+    @Test
+    void testPriorityFromContext() throws InterruptedException {
+        PriorityExecutor executor = new PriorityExecutor(delegate, 1, 3, 100, 1, TimeUnit.MINUTES);
+        block(executor);
+
+        executor.execute(record("default"));
+        Context.current().withValue(PriorityExecutor.PRIORITY_CONTEXT_KEY, 0).run(() -> executor.execute(record("header")));
+        // Beyond the lowest level
+        executor.execute(7, record("lowest"));
+        Assertions.assertEquals(1, executor.getQueueDepth(PriorityExecutor.HIGH));
+        Assertions.assertEquals(1, executor.getQueueDepth(PriorityExecutor.NORMAL));
+        Assertions.assertEquals(1, executor.getQueueDepth(PriorityExecutor.LOW));
+
+        CountDownLatch done = drain(executor);
+        Assertions.assertTrue(done.await(2, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of("header", "default", "lowest"), order);
+    }
+
+    @Test
+    void testConcurrencyBound() throws InterruptedException {
+        PriorityExecutor executor = new PriorityExecutor(delegate, 2);
+        block(executor);
+        block(executor);
+
+        executor.execute(record("queued"));
+        Assertions.assertEquals(2, executor.getRunning());
+        Assertions.assertEquals(1, executor.getQueueDepth(PriorityExecutor.NORMAL));
+
+        CountDownLatch done = drain(executor);
+        Assertions.assertTrue(done.await(2, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of("queued"), order);
+    }
+
+    /**
+     * Occupies one slot of the executor until {@link #release} is counted down.
+     */
+    private void block(PriorityExecutor executor) {
+        executor.execute(PriorityExecutor.HIGH, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Releases the blocked slots, the returned latch opens once everything queued so far has run.
+     */
+    private CountDownLatch drain(PriorityExecutor executor) {
+        CountDownLatch done = new CountDownLatch(1);
+        // Lowest level and queued last, so it runs after everything queued before it
+        executor.execute(executor.getLevels() - 1, done::countDown);
+        release.countDown();
+        return done;
+    }
+
+    private Runnable record(String name) {
+        return () -> order.add(name);
+    }
+}
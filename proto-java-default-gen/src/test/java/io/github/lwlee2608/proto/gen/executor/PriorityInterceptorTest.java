@@ -0,0 +1,41 @@
+package io.github.lwlee2608.proto.gen.executor;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+class PriorityInterceptorTest {
+
+    @Test
+    void testPriorityFromHeader() {
+        Assertions.assertEquals(0, priorityFor("0"));
+        Assertions.assertEquals(2, priorityFor(" 2 "));
+    }
+
+    @Test
+    void testInvalidHeaderIgnored() {
+        Assertions.assertEquals(PriorityExecutor.NORMAL, priorityFor(null));
+        Assertions.assertEquals(PriorityExecutor.NORMAL, priorityFor("-1"));
+        Assertions.assertEquals(PriorityExecutor.NORMAL, priorityFor("high"));
+    }
+
+    /**
+     * Priority the handler sees for a call with the given {@code x-priority} header.
+     */
+    private static int priorityFor(String header) {
+        Metadata headers = new Metadata();
+        if (header != null) {
+            headers.put(PriorityInterceptor.PRIORITY_KEY, header);
+        }
+        AtomicReference<Integer> priority = new AtomicReference<>();
+        new PriorityInterceptor().interceptCall(null, headers, (call, h) -> {
+            priority.set(PriorityExecutor.priority(PriorityExecutor.NORMAL));
+            return new ServerCall.Listener<>() {
+            };
+        });
+        return priority.get();
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.lwlee2608.proto.gen.limit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class AdaptiveLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void testRejectsAboveLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 10);
+
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertFalse(limiter.tryAcquire());
+        Assertions.assertEquals(1, limiter.getRejected());
+
+        limiter.onIgnore();
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertEquals(2, limiter.getInflight());
+    }
+
+    @Test
+    void testGrowsWhileLatencyFlat() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            runAtLimit(limiter, FAST);
+        }
+        Assertions.assertTrue(limiter.getLimit() > 40, limiter.toString());
+        Assertions.assertTrue(limiter.getLimit() <= 100, limiter.toString());
+    }
+
+    @Test
+    void testDoesNotGrowWhenUnused() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 100);
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(FAST);
+        }
+        Assertions.assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void testShrinksWhenLatencyRises() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(50, 1, 100);
+        for (int i = 0; i < 5; i++) {
+            runAtLimit(limiter, FAST);
+        }
+        int baseline = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            runAtLimit(limiter, SLOW);
+        }
+        Assertions.assertTrue(limiter.getLimit() < baseline / 2, limiter.toString());
+        Assertions.assertTrue(limiter.getLimit() >= 1);
+    }
+
+    @Test
+    void testShrinksOnDrops() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 5, 100);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(limiter.tryAcquire());
+            limiter.onDropped();
+        }
+        // 10 * 0.9^3
+        Assertions.assertEquals(7, limiter.getLimit());
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(limiter.tryAcquire());
+            limiter.onDropped();
+        }
+        Assertions.assertEquals(5, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void testInvalidLimits() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(0, 1, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(20, 1, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(5, 6, 10));
+    }
+
+    /**
+     * Fills the limit with calls, then completes all of them with the given latency.
+     */
+    private static void runAtLimit(AdaptiveLimiter limiter, long rttNanos) {
+        int calls = 0;
+        while (limiter.tryAcquire(false)) {
+            calls++;
+        }
+        for (int i = 0; i < calls; i++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
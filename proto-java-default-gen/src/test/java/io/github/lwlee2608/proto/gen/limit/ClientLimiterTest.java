@@ -0,0 +1,106 @@
+package io.github.lwlee2608.proto.gen.limit;
+
+import io.grpc.Deadline;
+import io.grpc.Status;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ClientLimiterTest {
+
+    @Test
+    void testQueuedCallStartsWhenSlotFrees() throws Exception {
+        ClientLimiter limiter = new ClientLimiter(new AdaptiveLimiter(1, 1, 1), 10);
+        CompletableFuture<String> running = new CompletableFuture<>();
+
+        CompletableFuture<String> first = limiter.submit(() -> running, null);
+        CompletableFuture<String> second = limiter.submit(() -> CompletableFuture.completedFuture("second"), null);
+        Assertions.assertEquals(1, limiter.getQueueSize());
+        Assertions.assertFalse(second.isDone());
+
+        running.complete("first");
+        Assertions.assertEquals("first", first.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals("second", second.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, limiter.getQueueSize());
+        Assertions.assertEquals(0, limiter.getLimiter().getInflight());
+    }
+
+    @Test
+    void testQueueFull() {
+        ClientLimiter limiter = new ClientLimiter(new AdaptiveLimiter(1, 1, 1), 1);
+
+        limiter.submit(CompletableFuture::new, null);
+        limiter.submit(CompletableFuture::new, null);
+        CompletableFuture<Object> rejected = limiter.submit(CompletableFuture::new, null);
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(e.getCause()).getCode());
+        Assertions.assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void testQueuedCallFailsAtDeadline() {
+        ClientLimiter limiter = new ClientLimiter(new AdaptiveLimiter(1, 1, 1), 10);
+        // Holds the only slot and never completes, nothing else would drain the queue
+        limiter.submit(CompletableFuture::new, null);
+        CompletableFuture<Object> queuedWithoutDeadline = limiter.submit(CompletableFuture::new, null);
+
+        long start = System.nanoTime();
+        CompletableFuture<Object> queued = limiter.submit(CompletableFuture::new, Deadline.after(100, TimeUnit.MILLISECONDS));
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> queued.get(2, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertEquals(Status.Code.DEADLINE_EXCEEDED, Status.fromThrowable(e.getCause()).getCode());
+        Assertions.assertTrue(elapsedMillis >= 90 && elapsedMillis < 1000, elapsedMillis + " ms");
+        Assertions.assertEquals(1, limiter.getExpired());
+        // Expired even though it was not at the head of the queue
+        Assertions.assertEquals(1, limiter.getQueueSize());
+        Assertions.assertFalse(queuedWithoutDeadline.isDone());
+    }
+
+    @Test
+    void testCancelledQueuedCallNotSent() throws Exception {
+        ClientLimiter limiter = new ClientLimiter(new AdaptiveLimiter(1, 1, 1), 10);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        limiter.submit(() -> running, null);
+
+        AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<String> cancelled = limiter.submit(() -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture("cancelled");
+        }, Deadline.after(100, TimeUnit.MILLISECONDS));
+        CompletableFuture<String> next = limiter.submit(() -> CompletableFuture.completedFuture("next"), null);
+        cancelled.cancel(false);
+        Thread.sleep(200);
+
+        // Its expiry timer was cancelled with it, and it leaves the queue without taking the freed slot
+        Assertions.assertEquals(0, limiter.getExpired());
+        running.complete("first");
+        Assertions.assertEquals("next", next.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, sent.get());
+        Assertions.assertEquals(0, limiter.getQueueSize());
+        Assertions.assertEquals(0, limiter.getLimiter().getInflight());
+    }
+
+    @Test
+    void testStartedCallNotExpired() throws Exception {
+        ClientLimiter limiter = new ClientLimiter(new AdaptiveLimiter(1, 1, 1), 10);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        limiter.submit(() -> running, null);
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> queued = limiter.submit(() -> result, Deadline.after(200, TimeUnit.MILLISECONDS));
+        running.complete("first");
+        Thread.sleep(300);
+
+        // Left the queue before its deadline, the call itself owns the deadline from there
+        Assertions.assertFalse(queued.isDone());
+        Assertions.assertEquals(0, limiter.getExpired());
+        result.complete("second");
+        Assertions.assertEquals("second", queued.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.lwlee2608.proto.gen.limit;
+
+import io.grpc.Attributes;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+class ConcurrencyLimitInterceptorTest {
+    private static final MethodDescriptor<InputStream, InputStream> METHOD = MethodDescriptor.<InputStream, InputStream>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName("test.Service/Method")
+            .setRequestMarshaller(new StreamMarshaller())
+            .setResponseMarshaller(new StreamMarshaller())
+            .build();
+
+    private final List<ServerCall<InputStream, InputStream>> started = new ArrayList<>();
+    private final ServerCallHandler<InputStream, InputStream> handler = (call, headers) -> {
+        started.add(call);
+        return new ServerCall.Listener<>() {
+        };
+    };
+
+    @Test
+    void testResourceExhaustedOverLimit() {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(() -> new AdaptiveLimiter(2, 1, 10));
+
+        FakeServerCall first = new FakeServerCall();
+        FakeServerCall second = new FakeServerCall();
+        FakeServerCall third = new FakeServerCall();
+        interceptor.interceptCall(first, new Metadata(), handler);
+        interceptor.interceptCall(second, new Metadata(), handler);
+        interceptor.interceptCall(third, new Metadata(), handler);
+
+        Assertions.assertEquals(2, started.size());
+        Assertions.assertNull(first.status);
+        Assertions.assertEquals(Status.Code.RESOURCE_EXHAUSTED, third.status.getCode());
+        AdaptiveLimiter limiter = interceptor.getLimiters().get(METHOD.getFullMethodName());
+        Assertions.assertEquals(1, limiter.getRejected());
+
+        // A completed call frees its slot
+        started.get(0).close(Status.OK, new Metadata());
+        FakeServerCall fourth = new FakeServerCall();
+        interceptor.interceptCall(fourth, new Metadata(), handler);
+        Assertions.assertEquals(3, started.size());
+        Assertions.assertNull(fourth.status);
+        Assertions.assertEquals(2, limiter.getInflight());
+    }
+
+    @Test
+    void testCancelledCallReleasesSlot() {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(() -> new AdaptiveLimiter(1, 1, 10));
+
+        ServerCall.Listener<InputStream> listener = interceptor.interceptCall(new FakeServerCall(), new Metadata(), handler);
+        AdaptiveLimiter limiter = interceptor.getLimiters().get(METHOD.getFullMethodName());
+        Assertions.assertEquals(1, limiter.getInflight());
+        listener.onCancel();
+        Assertions.assertEquals(0, limiter.getInflight());
+        Assertions.assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void testDroppedCallShrinksLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 10);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor().setLimiter(METHOD, limiter);
+
+        interceptor.interceptCall(new FakeServerCall(), new Metadata(), handler);
+        started.get(0).close(Status.DEADLINE_EXCEEDED, new Metadata());
+        Assertions.assertEquals(9, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInflight());
+    }
+
+    private static class FakeServerCall extends ServerCall<InputStream, InputStream> {
+        private Status status;
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(InputStream message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            this.status = status;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return Attributes.EMPTY;
+        }
+
+        @Override
+        public MethodDescriptor<InputStream, InputStream> getMethodDescriptor() {
+            return METHOD;
+        }
+    }
+
+    private static class StreamMarshaller implements MethodDescriptor.Marshaller<InputStream> {
+        @Override
+        public InputStream stream(InputStream value) {
+            return value;
+        }
+
+        @Override
+        public InputStream parse(InputStream stream) {
+            return stream;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.lwlee2608.proto.gen.proxy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+class WireScannerTest {
+
+    @Test
+    void testStringKey() {
+        byte[] message = new Message()
+                .varint(1, 150)
+                .fixed64(3)
+                .bytes(4, "other".getBytes(StandardCharsets.UTF_8))
+                .bytes(2, new Message().string(1, "user-42").toByteArray())
+                .fixed32(5)
+                .toByteArray();
+
+        Assertions.assertEquals("user-42", WireScanner.routingKey(message, 2, WireScanner.KeyType.STRING));
+    }
+
+    @Test
+    void testIntegerKeys() {
+        byte[] int32 = new Message().bytes(2, new Message().varint(1, -5).toByteArray()).toByteArray();
+        byte[] int64 = new Message().bytes(2, new Message().varint(1, 1L << 40).toByteArray()).toByteArray();
+
+        Assertions.assertEquals("-5", WireScanner.routingKey(int32, 2, WireScanner.KeyType.INT32));
+        Assertions.assertEquals(String.valueOf(1L << 40), WireScanner.routingKey(int64, 2, WireScanner.KeyType.INT64));
+    }
+
+    @Test
+    void testDefaultAndMissingKey() {
+        // An empty wrapper holds the default value, a missing wrapper has no key
+        byte[] empty = new Message().bytes(2, new byte[0]).toByteArray();
+        byte[] missing = new Message().varint(1, 7).toByteArray();
+
+        Assertions.assertEquals("", WireScanner.routingKey(empty, 2, WireScanner.KeyType.STRING));
+        Assertions.assertEquals("0", WireScanner.routingKey(empty, 2, WireScanner.KeyType.INT32));
+        Assertions.assertNull(WireScanner.routingKey(missing, 2, WireScanner.KeyType.STRING));
+        Assertions.assertNull(WireScanner.routingKey(new byte[0], 2, WireScanner.KeyType.STRING));
+    }
+
+    @Test
+    void testLastValueWins() {
+        byte[] message = new Message()
+                .bytes(2, new Message().string(1, "first").toByteArray())
+                .bytes(2, new Message().string(1, "second").toByteArray())
+                .bytes(2, new byte[0])
+                .toByteArray();
+
+        // Like the parser merging the occurrences, an empty one does not reset the key
+        Assertions.assertEquals("second", WireScanner.routingKey(message, 2, WireScanner.KeyType.STRING));
+    }
+
+    @Test
+    void testTruncated() {
+        byte[] message = new Message().varint(1, 150).bytes(2, new Message().string(1, "user-42").toByteArray()).toByteArray();
+        for (int length = 1; length < message.length; length++) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(message, 0, truncated, 0, length);
+            Assertions.assertNull(WireScanner.routingKey(truncated, 2, WireScanner.KeyType.STRING), "Truncated to " + length);
+        }
+    }
+
+    @Test
+    void testMalformed() {
+        // Wire types 3, 4 (groups), 6 and 7 are not supported
+        Assertions.assertNull(WireScanner.routingKey(new byte[]{(1 << 3) | 3}, 2, WireScanner.KeyType.STRING));
+        Assertions.assertNull(WireScanner.routingKey(new byte[]{(1 << 3) | 7}, 2, WireScanner.KeyType.STRING));
+        // A varint longer than 10 bytes
+        byte[] varint = new byte[12];
+        varint[0] = (1 << 3);
+        for (int i = 1; i < varint.length; i++) {
+            varint[i] = (byte) 0x80;
+        }
+        Assertions.assertNull(WireScanner.routingKey(varint, 2, WireScanner.KeyType.STRING));
+        // A negative length
+        Assertions.assertNull(WireScanner.routingKey(new Message().tag(2, 2).rawVarint(-1).toByteArray(), 2, WireScanner.KeyType.STRING));
+    }
+
+    /**
+     * Writes the protobuf wire format by hand.
+     */
+    private static class Message {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Message tag(int field, int wireType) {
+            return rawVarint((field << 3) | wireType);
+        }
+
+        Message rawVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        Message varint(int field, long value) {
+            return tag(field, 0).rawVarint(value);
+        }
+
+        Message fixed64(int field) {
+            tag(field, 1);
+            out.writeBytes(new byte[8]);
+            return this;
+        }
+
+        Message fixed32(int field) {
+            tag(field, 5);
+            out.writeBytes(new byte[4]);
+            return this;
+        }
+
+        Message bytes(int field, byte[] value) {
+            tag(field, 2).rawVarint(value.length);
+            out.writeBytes(value);
+            return this;
+        }
+
+        Message string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class RingBufferTest {
+    private static final int CAPACITY = 1024;
+
+    private final RingBuffer ring = new RingBuffer(ByteBuffer.allocate(RingBuffer.HEADER_SIZE + CAPACITY), CAPACITY);
+
+    @Test
+    void testOfferAndPoll() {
+        Assertions.assertFalse(ring.poll(record -> Assertions.fail("Empty ring")));
+        Assertions.assertTrue(ring.offer(record(1, 10)));
+        Assertions.assertTrue(ring.offer(record(2, 0)));
+
+        Assertions.assertArrayEquals(record(1, 10).array(), poll());
+        Assertions.assertArrayEquals(new byte[0], poll());
+        Assertions.assertNull(poll());
+    }
+
+    @Test
+    void testWrapAroundWithPadding() {
+        // 208 bytes per record with its header, the fifth starts 192 bytes before the end and wraps
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(ring.offer(record(i, 200)));
+        }
+        poll();
+        poll();
+        Assertions.assertTrue(ring.offer(record(4, 200)));
+        Assertions.assertTrue(ring.offer(record(5, 200)));
+
+        for (int i = 2; i < 6; i++) {
+            Assertions.assertArrayEquals(record(i, 200).array(), poll());
+        }
+        Assertions.assertNull(poll());
+    }
+
+    @Test
+    void testWrapAroundRandomSizes() {
+        Random random = new Random(42);
+        List<byte[]> pending = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 10_000; round++) {
+            if (random.nextBoolean()) {
+                ByteBuffer record = record(next, random.nextInt(ring.maxRecordSize() + 1));
+                if (ring.offer(record.duplicate())) {
+                    pending.add(record.array());
+                    next++;
+                }
+            } else if (!pending.isEmpty()) {
+                Assertions.assertArrayEquals(pending.remove(0), poll());
+            }
+        }
+        for (byte[] expected : pending) {
+            Assertions.assertArrayEquals(expected, poll());
+        }
+        Assertions.assertNull(poll());
+    }
+
+    @Test
+    void testFullRing() {
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(ring.offer(record(i, 200)));
+        }
+        // Padding the 192 bytes left before the end and a record at the start need 400 bytes
+        Assertions.assertFalse(ring.offer(record(4, 200)));
+        poll();
+        Assertions.assertTrue(ring.offer(record(4, 200)));
+        Assertions.assertFalse(ring.offer(record(5, 0)));
+
+        for (int i = 1; i < 5; i++) {
+            Assertions.assertEquals(i, poll()[0]);
+        }
+        Assertions.assertNull(poll());
+    }
+
+    @Test
+    void testMaxRecordSize() {
+        Assertions.assertEquals(CAPACITY / 2 - 8, ring.maxRecordSize());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ring.offer(record(0, ring.maxRecordSize() + 1)));
+
+        // Two records of the maximum size fill the ring exactly
+        Assertions.assertTrue(ring.offer(record(1, ring.maxRecordSize())));
+        Assertions.assertTrue(ring.offer(record(2, ring.maxRecordSize())));
+        Assertions.assertFalse(ring.offer(record(3, 0)));
+        Assertions.assertArrayEquals(record(1, ring.maxRecordSize()).array(), poll());
+        Assertions.assertTrue(ring.offer(record(3, ring.maxRecordSize())));
+        Assertions.assertArrayEquals(record(2, ring.maxRecordSize()).array(), poll());
+        Assertions.assertArrayEquals(record(3, ring.maxRecordSize()).array(), poll());
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RingBuffer(ByteBuffer.allocate(RingBuffer.HEADER_SIZE + 1000), 1000));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RingBuffer(ByteBuffer.allocate(RingBuffer.HEADER_SIZE + 512), 512));
+    }
+
+    private byte[] poll() {
+        List<byte[]> polled = new ArrayList<>();
+        ring.poll(record -> {
+            byte[] bytes = new byte[record.remaining()];
+            record.get(bytes);
+            polled.add(bytes);
+        });
+        return polled.isEmpty() ? null : polled.get(0);
+    }
+
+    private static ByteBuffer record(int id, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (id + i);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+}
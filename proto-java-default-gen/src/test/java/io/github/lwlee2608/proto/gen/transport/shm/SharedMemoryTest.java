@@ -0,0 +1,189 @@
+package io.github.lwlee2608.proto.gen.transport.shm;
+
+import io.grpc.CallOptions;
+import io.grpc.Context;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class SharedMemoryTest {
+    private static final MethodDescriptor<String, String> ECHO = method("test.Echo/Echo");
+    private static final MethodDescriptor<String, String> HANG = method("test.Echo/Hang");
+
+    private final CountDownLatch hangCancelled = new CountDownLatch(1);
+    private final Path directory = createDirectory();
+    private final SharedMemoryServer server = new SharedMemoryServer(directory)
+            .addService(ServerServiceDefinition.builder("test.Echo")
+                    .addMethod(ECHO, ServerCalls.asyncUnaryCall((String request, StreamObserver<String> responseObserver) -> {
+                        responseObserver.onNext(request + " World");
+                        responseObserver.onCompleted();
+                    }))
+                    .addMethod(HANG, ServerCalls.asyncUnaryCall((String request, StreamObserver<String> responseObserver) ->
+                            Context.current().addListener(context -> hangCancelled.countDown(), Runnable::run)))
+                    .build())
+            .start();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testRoundTrip() {
+        try (SharedMemoryChannel channel = new SharedMemoryChannel(directory, 4096)) {
+            for (int i = 0; i < 100; i++) {
+                Assertions.assertEquals("Hello " + i + " World", ClientCalls.blockingUnaryCall(channel, ECHO, CallOptions.DEFAULT, "Hello " + i));
+            }
+            StatusRuntimeException e = Assertions.assertThrows(StatusRuntimeException.class,
+                    () -> ClientCalls.blockingUnaryCall(channel, method("test.Echo/Missing"), CallOptions.DEFAULT, "Hello"));
+            Assertions.assertEquals(Status.Code.UNIMPLEMENTED, e.getStatus().getCode());
+        }
+    }
+
+    @Test
+    void testMessageTooLarge() {
+        try (SharedMemoryChannel channel = new SharedMemoryChannel(directory, 4096)) {
+            StatusRuntimeException e = Assertions.assertThrows(StatusRuntimeException.class,
+                    () -> ClientCalls.blockingUnaryCall(channel, ECHO, CallOptions.DEFAULT, "x".repeat(4096)));
+            Assertions.assertEquals(Status.Code.RESOURCE_EXHAUSTED, e.getStatus().getCode());
+            // The connection is still usable
+            Assertions.assertEquals("Hello World", ClientCalls.blockingUnaryCall(channel, ECHO, CallOptions.DEFAULT, "Hello"));
+        }
+    }
+
+    @Test
+    void testDeadline() throws InterruptedException {
+        try (SharedMemoryChannel channel = new SharedMemoryChannel(directory)) {
+            StatusRuntimeException e = Assertions.assertThrows(StatusRuntimeException.class,
+                    () -> ClientCalls.blockingUnaryCall(channel, HANG, CallOptions.DEFAULT.withDeadlineAfter(100, TimeUnit.MILLISECONDS), "Hello"));
+            Assertions.assertEquals(Status.Code.DEADLINE_EXCEEDED, e.getStatus().getCode());
+            // The deadline is propagated to the server
+            Assertions.assertTrue(hangCancelled.await(2, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testCancel() throws InterruptedException {
+        try (SharedMemoryChannel channel = new SharedMemoryChannel(directory)) {
+            Future<String> reply = ClientCalls.futureUnaryCall(channel.newCall(HANG, CallOptions.DEFAULT), "Hello");
+            Thread.sleep(100);
+            Assertions.assertFalse(reply.isDone());
+            reply.cancel(true);
+            Assertions.assertTrue(hangCancelled.await(2, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testServerShutdown() throws Exception {
+        try (SharedMemoryChannel channel = new SharedMemoryChannel(directory)) {
+            Future<String> reply = ClientCalls.futureUnaryCall(channel.newCall(HANG, CallOptions.DEFAULT), "Hello");
+            Thread.sleep(100);
+            server.shutdown();
+
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> reply.get(2, TimeUnit.SECONDS));
+            Assertions.assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(e.getCause()).getCode());
+            Assertions.assertTrue(hangCancelled.await(2, TimeUnit.SECONDS));
+            Assertions.assertTrue(channel.isShutdown());
+        }
+    }
+
+    @Test
+    void testClientClose() throws InterruptedException {
+        SharedMemoryChannel channel = new SharedMemoryChannel(directory);
+        Future<String> reply = ClientCalls.futureUnaryCall(channel.newCall(HANG, CallOptions.DEFAULT), "Hello");
+        Thread.sleep(100);
+        channel.close();
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> reply.get(2, TimeUnit.SECONDS));
+        Assertions.assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(e.getCause()).getCode());
+        // The server cancels the calls of a closed connection
+        Assertions.assertTrue(hangCancelled.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPeerProcessGone() throws Exception {
+        Connection client = Connection.create(directory.resolve("test" + Connection.SUFFIX), 1024);
+        Connection server = Connection.open(client.getFile());
+        Assertions.assertNotNull(server);
+        Assertions.assertFalse(client.isPeerClosed());
+        Assertions.assertFalse(server.isPeerClosed());
+
+        // Both sides look up the pid of the other process
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-version")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        Assertions.assertEquals(0, process.waitFor());
+        try (FileChannel file = FileChannel.open(client.getFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_WRITE, 0, file.size());
+            buffer.order(ByteOrder.nativeOrder()).putLong(Connection.SERVER_PID_OFFSET, process.pid());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!client.isPeerClosed()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Dead server process not detected");
+            Thread.sleep(10);
+        }
+        Assertions.assertFalse(server.isPeerClosed());
+        client.close();
+        Assertions.assertTrue(server.isPeerClosed());
+    }
+
+    private static MethodDescriptor<String, String> method(String fullMethodName) {
+        return MethodDescriptor.<String, String>newBuilder()
+                .setType(MethodDescriptor.MethodType.UNARY)
+                .setFullMethodName(fullMethodName)
+                .setRequestMarshaller(new StringMarshaller())
+                .setResponseMarshaller(new StringMarshaller())
+                .build();
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("shm");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class StringMarshaller implements MethodDescriptor.Marshaller<String> {
+        @Override
+        public InputStream stream(String value) {
+            return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String parse(InputStream stream) {
+            return new String(Frame.toBytes(stream), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.lwlee2608.proto.gen;
 
+import io.github.lwlee2608.proto.annotation.Offload;
 import io.github.lwlee2608.proto.annotation.processor.AsyncType;
 import io.github.lwlee2608.proto.annotation.processor.Method;
 import io.github.lwlee2608.proto.annotation.processor.ProtoFile;
@@ -9,14 +10,37 @@ import lombok.SneakyThrows;
 import javax.annotation.processing.Filer;
 import javax.tools.JavaFileObject;
 import java.io.PrintWriter;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class ProtoVerxGenImpl extends ProtoGenImpl implements ProtoGen {
+    /**
+     * Annotation processor option selecting the API of the generated Vert.x code: {@code rx} (default) for RxJava 2
+     * {@code Single}s and {@code Flowable}s over the {@code io.vertx.reactivex} wrappers, {@code future} for core Vert.x
+     * {@code Future}s, without the wrappers.
+     */
+    public static final String MODE_OPTION = "proto.vertx.mode";
+
     @Override
     public void generate(Filer filer, List<ProtoFile> protoFiles) {
+        generate(filer, protoFiles, Collections.emptyMap());
+    }
+
+    @Override
+    public void generate(Filer filer, List<ProtoFile> protoFiles, Map<String, String> options) {
+        String mode = options.getOrDefault(MODE_OPTION, "rx");
+        if (!"rx".equals(mode) && !"future".equals(mode)) {
+            throw new RuntimeException("Unknown " + MODE_OPTION + " '" + mode + "', must be rx or future");
+        }
         super.generate(filer, protoFiles);
-        generateVerxServerImpl(filer, protoFiles);
-        generateVerxClientImpl(filer, protoFiles);
+        if ("future".equals(mode)) {
+            generateVerxFutureServerImpl(filer, protoFiles);
+            generateVerxFutureClientImpl(filer, protoFiles);
+        } else {
+            generateVerxServerImpl(filer, protoFiles);
+            generateVerxClientImpl(filer, protoFiles);
+        }
     }
 
     @SneakyThrows
@@ -30,33 +54,115 @@ public class ProtoVerxGenImpl extends ProtoGenImpl implements ProtoGen {
             try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
                 out.println("package " + protoFile.getPackageName() + ";");
                 out.println("");
+                out.println("import io.github.lwlee2608.proto.gen.executor.BlockingExecutors;");
+                out.println("import io.grpc.Status;");
+                out.println("import io.reactivex.Completable;");
+                out.println("import io.reactivex.Flowable;");
+                out.println("import io.reactivex.Scheduler;");
                 out.println("import io.reactivex.Single;");
+                out.println("import io.reactivex.disposables.Disposables;");
+                out.println("import io.reactivex.disposables.SerialDisposable;");
+                out.println("import io.reactivex.schedulers.Schedulers;");
+                out.println("import io.vertx.core.DeploymentOptions;");
                 out.println("import io.vertx.core.Handler;");
+                out.println("import io.vertx.core.VertxOptions;");
+                out.println("import io.vertx.grpc.common.GrpcStatus;");
+                out.println("import io.vertx.reactivex.core.AbstractVerticle;");
+                out.println("import io.vertx.reactivex.core.Context;");
+                out.println("import io.vertx.reactivex.core.RxHelper;");
                 out.println("import io.vertx.reactivex.core.Vertx;");
+                out.println("import io.vertx.reactivex.core.http.HttpServer;");
                 out.println("import io.vertx.reactivex.core.http.HttpServerRequest;");
+                out.println("import io.vertx.reactivex.core.net.SocketAddress;");
                 out.println("import io.vertx.reactivex.grpc.server.GrpcServer;");
+                out.println("import io.vertx.reactivex.grpc.server.GrpcServerResponse;");
+                out.println("");
+                out.println("import java.util.function.Consumer;");
                 out.println("");
                 out.println("public class " + className + " {");
                 out.println("");
+                out.println("    private final Vertx vertx;");
                 out.println("    private final GrpcServer server;");
+                out.println("    private final Scheduler workerScheduler;");
+                out.println("    private final Scheduler virtualThreadScheduler;");
                 out.println("");
                 out.println("    public " + className + "(Vertx vertx) {");
+                out.println("        this.vertx = vertx;");
                 out.println("        this.server = GrpcServer.server(vertx);");
+                out.println("        this.workerScheduler = RxHelper.blockingScheduler(vertx, false);");
+                out.println("        this.virtualThreadScheduler = Schedulers.from(BlockingExecutors.getDefault());");
                 out.println("    }");
                 out.println("");
                 out.println("    public Handler<HttpServerRequest> getGrpcServer() {");
                 out.println("        return server;");
                 out.println("    }");
                 out.println("");
+                out.println("    /**");
+                out.println("     * Starts an HTTP server for the gRPC server listening on the Unix domain socket at {@code path}.");
+                out.println("     * Requires Vert.x created with native transport preferred ({@code VertxOptions.setPreferNativeTransport(true)}).");
+                out.println("     */");
+                out.println("    public Single<HttpServer> listenDomainSocket(String path) {");
+                out.println("        if (!vertx.isNativeTransportEnabled()) {");
+                out.println("            return Single.error(new IllegalStateException(\"Unix domain sockets require the Vert.x native transport\"));");
+                out.println("        }");
+                out.println("        return vertx.createHttpServer().requestHandler(server).rxListen(SocketAddress.domainSocketAddress(path));");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Deploys one server per event loop, all listening on {@code port}, Vert.x spreading the connections across them.");
+                out.println("     * {@code configurer} is called for every instance to register its call handlers, so each event loop gets its");
+                out.println("     * own implementation and no state is shared between them.");
+                out.println("     */");
+                out.println("    public static Single<String> deploy(Vertx vertx, int port, Consumer<" + className + "> configurer) {");
+                out.println("        return deploy(vertx, port, VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE, configurer);");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Same as {@link #deploy(Vertx, int, Consumer)} with {@code instances} servers, which should match the event loop");
+                out.println("     * pool size of {@code vertx} when it is not the default.");
+                out.println("     */");
+                out.println("    public static Single<String> deploy(Vertx vertx, int port, int instances, Consumer<" + className + "> configurer) {");
+                out.println("        return vertx.rxDeployVerticle(() -> new ServerVerticle(port, configurer), new DeploymentOptions().setInstances(instances));");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Ends the call with the status of {@code error}, {@code UNKNOWN} unless it is a gRPC status exception.");
+                out.println("     */");
+                out.println("    private static void fail(GrpcServerResponse<?, ?> response, Throwable error) {");
+                out.println("        response.status(GrpcStatus.valueOf(Status.fromThrowable(error).getCode().value())).end();");
+                out.println("    }");
+                out.println("");
+                out.println("    private static class ServerVerticle extends AbstractVerticle {");
+                out.println("        private final int port;");
+                out.println("        private final Consumer<" + className + "> configurer;");
+                out.println("");
+                out.println("        private ServerVerticle(int port, Consumer<" + className + "> configurer) {");
+                out.println("            this.port = port;");
+                out.println("            this.configurer = configurer;");
+                out.println("        }");
+                out.println("");
+                out.println("        @Override");
+                out.println("        public Completable rxStart() {");
+                out.println("            " + className + " server = new " + className + "(vertx);");
+                out.println("            configurer.accept(server);");
+                out.println("            return vertx.createHttpServer().requestHandler(server.getGrpcServer()).rxListen(port).ignoreElement();");
+                out.println("        }");
+                out.println("    }");
+                out.println("");
 
                 for (Service service : protoFile.getServices()) {
                     out.println("    public interface " + service.getServiceName() + "Api {");
                     for (Method method : service.getMethods()) {
                         String inputType = method.getInputType().getClassName();
                         String outputType = method.getOutputType().getClassName();
-                        if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                        if (method.getClientStreaming()) {
+                            String replies = method.getServerStreaming() ? "Flowable<" + outputType + ">" : "Single<" + outputType + ">";
+                            out.println("        " + replies + " " + method.getMethodName() + "(Flowable<" + inputType + "> requests);");
+                        } else if (method.getServerStreaming()) {
+                            out.println("        Flowable<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request);");
+                        } else if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
                             out.println("        Single<Void> " + method.getMethodName() + "(" + inputType + " request);");
-                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
+                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE || method.getAsyncType() == AsyncType.SYNCHRONOUS) {
                             out.println("        Single<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request);");
                         }
                         out.println("");
@@ -68,16 +174,64 @@ public class ProtoVerxGenImpl extends ProtoGenImpl implements ProtoGen {
                     for (Method method : service.getMethods()) {
                         String inputType = method.getInputType().getClassName();
                         String outputType = method.getOutputType().getClassName();
+                        String compression = protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Compression";
                         out.println("        server.callHandler(" + protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Method, request -> {");
-                        out.println("            request.handler(req -> implementation." + method.getMethodName() + "(" + protoClassName + "." + inputType + "Message.fromProto(req))");
+                        if (method.getOffload() != Offload.NONE) {
+                            out.println("            Context context = vertx.getOrCreateContext();");
+                        }
+                        if (method.getClientStreaming()) {
+                            // requests are read with backpressure, the request stream being paused until the implementation subscribes
+                            String replies = method.getServerStreaming() ? "Flowable" : "Single";
+                            out.println("            Flowable<" + inputType + "> requests = request.toFlowable().map(" + protoClassName + "." + inputType + "Message::fromProto);");
+                            out.println("            " + replies + ".defer(() -> implementation." + method.getMethodName() + "(requests))");
+                            printOffload(out, method, protoClassName);
+                            if (method.getServerStreaming()) {
+                                out.println("                    .subscribe(request.response().toSubscriber().onError(error -> fail(request.response(), error)));");
+                            } else {
+                                out.println("                    .subscribe(message -> request.response().end(message), error -> fail(request.response(), error));");
+                            }
+                            out.println("        });");
+                            out.println("");
+                            continue;
+                        }
+                        out.println("            SerialDisposable call = new SerialDisposable();");
+                        out.println("            request.exceptionHandler(error -> call.dispose());");
+                        out.println("            request.endHandler(end -> {");
+                        out.println("                if (call.get() == null) {");
+                        out.println("                    fail(request.response(), Status.INVALID_ARGUMENT.withDescription(\"Request message missing\").asRuntimeException());");
+                        out.println("                }");
+                        out.println("            });");
+                        if (method.getServerStreaming()) {
+                            // replies are written with backpressure, as long as the write queue of the response is not full
+                            out.println("            request.handler(req -> {");
+                            if (method.getCompression() != null) {
+                                out.println("                request.response().encoding(" + compression + ".getCodec());");
+                            }
+                            out.println("                Flowable.defer(() -> implementation." + method.getMethodName() + "(" + protoClassName + "." + inputType + "Message.fromProto(req)))");
+                            printOffload(out, method, protoClassName);
+                            out.println("                        .doOnSubscribe(subscription -> call.replace(Disposables.fromAction(subscription::cancel)))");
+                            out.println("                        .subscribe(request.response().toSubscriber().onError(error -> fail(request.response(), error)));");
+                            out.println("            });");
+                            out.println("        });");
+                            out.println("");
+                            continue;
+                        }
+                        out.println("            request.handler(req -> call.replace(Single.defer(() -> implementation." + method.getMethodName() + "(" + protoClassName + "." + inputType + "Message.fromProto(req)))");
+                        printOffload(out, method, protoClassName);
 
                         if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
-                            out.println("                    .doOnSuccess(resp -> request.response().end())");
-                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
-                            out.println("                    .doOnSuccess(resp -> request.response().end(" + protoClassName + "." + outputType + "Message.toProto(resp)))");
+                            out.println("                    .subscribe(resp -> request.response().end(), error -> fail(request.response(), error))");
+                        } else if (method.getCompression() != null) {
+                            out.println("                    .subscribe(message -> {");
+                            out.println("                        if (" + compression + ".shouldCompress(message.getSerializedSize())) {");
+                            out.println("                            request.response().encoding(" + compression + ".getCodec());");
+                            out.println("                        }");
+                            out.println("                        request.response().end(message);");
+                            out.println("                    }, error -> fail(request.response(), error))");
+                        } else {
+                            out.println("                    .subscribe(message -> request.response().end(message), error -> fail(request.response(), error))");
                         }
-                        out.println("                    .subscribe()");
-                        out.println("            );");
+                        out.println("            ));");
                         out.println("        });");
                         out.println("");
                     }
@@ -93,6 +247,21 @@ public class ProtoVerxGenImpl extends ProtoGenImpl implements ProtoGen {
         }
     }
 
+    private void printOffload(PrintWriter out, Method method, String protoClassName) {
+        String indent = method.getServerStreaming() && !method.getClientStreaming() ? "                        " : "                    ";
+        if (method.getOffload() == Offload.WORKER) {
+            out.println(indent + ".subscribeOn(workerScheduler)");
+        } else if (method.getOffload() == Offload.VIRTUAL_THREAD) {
+            out.println(indent + ".subscribeOn(virtualThreadScheduler)");
+        }
+        if (method.getAsyncType() != AsyncType.STREAM_OBSERVER || method.isStreaming()) {
+            out.println(indent + ".map(" + protoClassName + "." + method.getOutputType().getClassName() + "Message::toProto)");
+        }
+        if (method.getOffload() != Offload.NONE) {
+            out.println(indent + ".observeOn(RxHelper.scheduler(context))");
+        }
+    }
+
     @SneakyThrows
     public void generateVerxClientImpl(Filer filer, List<ProtoFile> protoFiles) {
         for (ProtoFile protoFile : protoFiles) {
@@ -104,10 +273,15 @@ public class ProtoVerxGenImpl extends ProtoGenImpl implements ProtoGen {
             try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
                 out.println("package " + protoFile.getPackageName() + ";");
                 out.println("");
+                out.println("import io.grpc.Status;");
+                out.println("import io.reactivex.Completable;");
+                out.println("import io.reactivex.Flowable;");
                 out.println("import io.reactivex.Single;");
+                out.println("import io.vertx.grpc.common.GrpcStatus;");
                 out.println("import io.vertx.reactivex.core.Vertx;");
                 out.println("import io.vertx.reactivex.core.net.SocketAddress;");
                 out.println("import io.vertx.reactivex.grpc.client.GrpcClient;");
+                out.println("import io.vertx.reactivex.grpc.client.GrpcClientResponse;");
                 out.println("");
                 out.println("public class " + className + " {");
                 out.println("");
@@ -119,25 +293,58 @@ public class ProtoVerxGenImpl extends ProtoGenImpl implements ProtoGen {
                 out.println("        this.socketAddress = socketAddress;");
                 out.println("    }");
                 out.println("");
+                out.println("    /**");
+                out.println("     * A client connecting to the server listening on the Unix domain socket at {@code path}.");
+                out.println("     * Requires Vert.x created with native transport preferred ({@code VertxOptions.setPreferNativeTransport(true)}).");
+                out.println("     */");
+                out.println("    public static " + className + " forDomainSocket(Vertx vertx, String path) {");
+                out.println("        if (!vertx.isNativeTransportEnabled()) {");
+                out.println("            throw new IllegalStateException(\"Unix domain sockets require the Vert.x native transport\");");
+                out.println("        }");
+                out.println("        return new " + className + "(vertx, SocketAddress.domainSocketAddress(path));");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Completes once the stream of replies ended, failing unless the call ended with status {@code OK}.");
+                out.println("     */");
+                out.println("    private static Completable checkStatus(GrpcClientResponse<?, ?> response) {");
+                out.println("        return Completable.defer(() -> response.status() == GrpcStatus.OK");
+                out.println("                ? Completable.complete()");
+                out.println("                : Completable.error(Status.fromCodeValue(response.status().code).asRuntimeException()));");
+                out.println("    }");
+                out.println("");
 
                 for (Service service : protoFile.getServices()) {
 
                     for(Method method: service.getMethods()) {
                         String inputType = method.getInputType().getClassName();
                         String outputType = method.getOutputType().getClassName();
+                        if (method.isStreaming()) {
+                            printStreamingClientMethod(out, protoFile, service, method);
+                            continue;
+                        }
                         if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
                             out.println("    public Single<Void> " + method.getMethodName() + "(" + inputType +" request) {");
-                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
+                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE || method.getAsyncType() == AsyncType.SYNCHRONOUS) {
                             out.println("    public Single<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request) {");
                         }
                         out.println("        return Single.create(emitter -> client.request(socketAddress, " + protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Method)");
                         out.println("                .compose(req -> {");
-                        out.println("                    req.end(" + protoClassName + "." + inputType + "Message.toProto(request));");
+                        if (method.getCompression() != null) {
+                            String compression = protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Compression";
+                            out.println("                    " + protoFile.getOuterClassName() + "." + inputType + " message = " + protoClassName + "." + inputType + "Message.toProto(request);");
+                            out.println("                    if (" + compression + ".shouldCompress(message.getSerializedSize())) {");
+                            out.println("                        req.encoding(" + compression + ".getCodec());");
+                            out.println("                    }");
+                            out.println("                    req.end(message);");
+                        } else {
+                            out.println("                    req.end(" + protoClassName + "." + inputType + "Message.toProto(request));");
+                        }
                         out.println("                    return req.response().compose(resp -> resp.last());");
                         out.println("                }).onFailure(error -> emitter.onError(error))");
                         if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
                             out.println("                .onSuccess(resp -> emitter.onSuccess(null))");
-                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE) {
+                        } else if (method.getAsyncType() == AsyncType.COMPLETABLE_FUTURE || method.getAsyncType() == AsyncType.SYNCHRONOUS) {
                             out.println("                .onSuccess(resp -> emitter.onSuccess(" + protoClassName + "." + outputType + "Message.fromProto(resp)))");
                         }
                         out.println("        );");
@@ -153,4 +360,339 @@ public class ProtoVerxGenImpl extends ProtoGenImpl implements ProtoGen {
             }
         }
     }
+
+    private void printStreamingClientMethod(PrintWriter out, ProtoFile protoFile, Service service, Method method) {
+        String protoClassName = protoFile.getOuterClassName() + "Proto";
+        String inputType = method.getInputType().getClassName();
+        String outputType = method.getOutputType().getClassName();
+        String protoInput = protoFile.getOuterClassName() + "." + inputType;
+        String protoOutput = protoFile.getOuterClassName() + "." + outputType;
+        String methodDescriptor = protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Method";
+        if (method.getClientStreaming()) {
+            String replies = method.getServerStreaming() ? "Flowable<" + outputType + ">" : "Single<" + outputType + ">";
+            out.println("    public " + replies + " " + method.getMethodName() + "(Flowable<" + inputType + "> requests) {");
+        } else {
+            out.println("    public Flowable<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request) {");
+        }
+        if (method.getClientStreaming() && !method.getServerStreaming()) {
+            out.println("        return Single.create(emitter -> client.request(socketAddress, " + methodDescriptor + ")");
+        } else {
+            out.println("        return Single.<GrpcClientResponse<" + protoInput + ", " + protoOutput + ">>create(emitter -> client.request(socketAddress, " + methodDescriptor + ")");
+        }
+        out.println("                .compose(req -> {");
+        if (method.getClientStreaming()) {
+            // requests are written with backpressure, as long as the write queue of the request is not full
+            out.println("                    requests.map(" + protoClassName + "." + inputType + "Message::toProto).subscribe(req.toSubscriber().onError(error -> req.cancel()));");
+        } else if (method.getCompression() != null) {
+            String compression = protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Compression";
+            out.println("                    " + protoInput + " message = " + protoClassName + "." + inputType + "Message.toProto(request);");
+            out.println("                    if (" + compression + ".shouldCompress(message.getSerializedSize())) {");
+            out.println("                        req.encoding(" + compression + ".getCodec());");
+            out.println("                    }");
+            out.println("                    req.end(message);");
+        } else {
+            out.println("                    req.end(" + protoClassName + "." + inputType + "Message.toProto(request));");
+        }
+        if (method.getServerStreaming()) {
+            out.println("                    return req.response();");
+            out.println("                }).onFailure(error -> emitter.onError(error))");
+            out.println("                .onSuccess(resp -> emitter.onSuccess(resp))");
+            // replies are read with backpressure, the response stream being paused until subscribed to
+            out.println("        ).flatMapPublisher(resp -> resp.toFlowable()");
+            out.println("                .map(" + protoClassName + "." + outputType + "Message::fromProto)");
+            out.println("                .concatWith(checkStatus(resp)));");
+        } else {
+            out.println("                    return req.response().compose(resp -> resp.last());");
+            out.println("                }).onFailure(error -> emitter.onError(error))");
+            out.println("                .onSuccess(resp -> emitter.onSuccess(" + protoClassName + "." + outputType + "Message.fromProto(resp)))");
+            out.println("        );");
+        }
+        out.println("    }");
+        out.println("");
+    }
+
+    @SneakyThrows
+    public void generateVerxFutureServerImpl(Filer filer, List<ProtoFile> protoFiles) {
+        for (ProtoFile protoFile : protoFiles) {
+            String protoClassName = protoFile.getOuterClassName() + "Proto";
+            String className = protoFile.getOuterClassName() + "VertxGrpcServer";
+            String fullClassName = protoFile.getPackageName() + "." + className;
+            checkNoStreaming(protoFile);
+
+            JavaFileObject builderFile = filer.createSourceFile(fullClassName);
+            try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
+                out.println("package " + protoFile.getPackageName() + ";");
+                out.println("");
+                out.println("import io.github.lwlee2608.proto.gen.executor.BlockingExecutors;");
+                out.println("import io.grpc.Status;");
+                out.println("import io.vertx.core.AbstractVerticle;");
+                out.println("import io.vertx.core.Context;");
+                out.println("import io.vertx.core.DeploymentOptions;");
+                out.println("import io.vertx.core.Future;");
+                out.println("import io.vertx.core.Handler;");
+                out.println("import io.vertx.core.Promise;");
+                out.println("import io.vertx.core.Vertx;");
+                out.println("import io.vertx.core.VertxOptions;");
+                out.println("import io.vertx.core.http.HttpServer;");
+                out.println("import io.vertx.core.http.HttpServerRequest;");
+                out.println("import io.vertx.core.net.SocketAddress;");
+                out.println("import io.vertx.grpc.common.GrpcStatus;");
+                out.println("import io.vertx.grpc.server.GrpcServer;");
+                out.println("import io.vertx.grpc.server.GrpcServerResponse;");
+                out.println("");
+                out.println("import java.util.concurrent.Executor;");
+                out.println("import java.util.concurrent.RejectedExecutionException;");
+                out.println("import java.util.function.Consumer;");
+                out.println("import java.util.function.Supplier;");
+                out.println("");
+                out.println("public class " + className + " {");
+                out.println("");
+                out.println("    private final Vertx vertx;");
+                out.println("    private final GrpcServer server;");
+                out.println("    private final Executor workerExecutor;");
+                out.println("    private final Executor virtualThreadExecutor;");
+                out.println("");
+                out.println("    public " + className + "(Vertx vertx) {");
+                out.println("        this.vertx = vertx;");
+                out.println("        this.server = GrpcServer.server(vertx);");
+                out.println("        this.workerExecutor = command -> vertx.<Void>executeBlocking(promise -> {");
+                out.println("            command.run();");
+                out.println("            promise.complete();");
+                out.println("        }, false);");
+                out.println("        this.virtualThreadExecutor = BlockingExecutors.getDefault();");
+                out.println("    }");
+                out.println("");
+                out.println("    public Handler<HttpServerRequest> getGrpcServer() {");
+                out.println("        return server;");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Starts an HTTP server for the gRPC server listening on the Unix domain socket at {@code path}.");
+                out.println("     * Requires Vert.x created with native transport preferred ({@code VertxOptions.setPreferNativeTransport(true)}).");
+                out.println("     */");
+                out.println("    public Future<HttpServer> listenDomainSocket(String path) {");
+                out.println("        if (!vertx.isNativeTransportEnabled()) {");
+                out.println("            return Future.failedFuture(new IllegalStateException(\"Unix domain sockets require the Vert.x native transport\"));");
+                out.println("        }");
+                out.println("        return vertx.createHttpServer().requestHandler(server).listen(SocketAddress.domainSocketAddress(path));");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Deploys one server per event loop, all listening on {@code port}, Vert.x spreading the connections across them.");
+                out.println("     * {@code configurer} is called for every instance to register its call handlers, so each event loop gets its");
+                out.println("     * own implementation and no state is shared between them.");
+                out.println("     */");
+                out.println("    public static Future<String> deploy(Vertx vertx, int port, Consumer<" + className + "> configurer) {");
+                out.println("        return deploy(vertx, port, VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE, configurer);");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Same as {@link #deploy(Vertx, int, Consumer)} with {@code instances} servers, which should match the event loop");
+                out.println("     * pool size of {@code vertx} when it is not the default.");
+                out.println("     */");
+                out.println("    public static Future<String> deploy(Vertx vertx, int port, int instances, Consumer<" + className + "> configurer) {");
+                out.println("        return vertx.deployVerticle(() -> new ServerVerticle(port, configurer), new DeploymentOptions().setInstances(instances));");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Calls the implementation, turning an exception it throws into a failed future.");
+                out.println("     */");
+                out.println("    private static <T> Future<T> invoke(Supplier<Future<T>> call) {");
+                out.println("        try {");
+                out.println("            return call.get();");
+                out.println("        } catch (RuntimeException e) {");
+                out.println("            return Future.failedFuture(e);");
+                out.println("        }");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Calls the implementation on {@code executor}, completing the returned future on the context of the call.");
+                out.println("     */");
+                out.println("    private <T> Future<T> offload(Executor executor, Supplier<Future<T>> call) {");
+                out.println("        Context context = vertx.getOrCreateContext();");
+                out.println("        Promise<T> promise = Promise.promise();");
+                out.println("        try {");
+                out.println("            executor.execute(() -> invoke(call).onComplete(result -> context.runOnContext(v -> promise.handle(result))));");
+                out.println("        } catch (RejectedExecutionException e) {");
+                out.println("            return Future.failedFuture(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());");
+                out.println("        }");
+                out.println("        return promise.future();");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * Ends the call with the status of {@code error}, {@code UNKNOWN} unless it is a gRPC status exception.");
+                out.println("     */");
+                out.println("    private static void fail(GrpcServerResponse<?, ?> response, Throwable error) {");
+                out.println("        response.status(GrpcStatus.valueOf(Status.fromThrowable(error).getCode().value())).end();");
+                out.println("    }");
+                out.println("");
+                out.println("    private static class ServerVerticle extends AbstractVerticle {");
+                out.println("        private final int port;");
+                out.println("        private final Consumer<" + className + "> configurer;");
+                out.println("");
+                out.println("        private ServerVerticle(int port, Consumer<" + className + "> configurer) {");
+                out.println("            this.port = port;");
+                out.println("            this.configurer = configurer;");
+                out.println("        }");
+                out.println("");
+                out.println("        @Override");
+                out.println("        public void start(Promise<Void> startPromise) {");
+                out.println("            " + className + " server = new " + className + "(vertx);");
+                out.println("            configurer.accept(server);");
+                out.println("            vertx.createHttpServer().requestHandler(server.getGrpcServer()).listen(port).<Void>mapEmpty().onComplete(startPromise);");
+                out.println("        }");
+                out.println("    }");
+                out.println("");
+
+                for (Service service : protoFile.getServices()) {
+                    out.println("    public interface " + service.getServiceName() + "Api {");
+                    for (Method method : service.getMethods()) {
+                        String inputType = method.getInputType().getClassName();
+                        String outputType = method.getOutputType().getClassName();
+                        if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                            out.println("        Future<Void> " + method.getMethodName() + "(" + inputType + " request);");
+                        } else {
+                            out.println("        Future<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request);");
+                        }
+                        out.println("");
+                    }
+                    out.println("    }");
+                    out.println("");
+
+                    out.println("    public " + className + " callHandlers(" + service.getServiceName() + "Api implementation) {");
+                    for (Method method : service.getMethods()) {
+                        String inputType = method.getInputType().getClassName();
+                        String outputType = method.getOutputType().getClassName();
+                        String compression = protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Compression";
+                        String call = "implementation." + method.getMethodName() + "(" + protoClassName + "." + inputType + "Message.fromProto(req))";
+                        if (method.getAsyncType() != AsyncType.STREAM_OBSERVER) {
+                            call += ".map(" + protoClassName + "." + outputType + "Message::toProto)";
+                        }
+                        if (method.getOffload() == Offload.WORKER) {
+                            call = "offload(workerExecutor, () -> " + call + ")";
+                        } else if (method.getOffload() == Offload.VIRTUAL_THREAD) {
+                            call = "offload(virtualThreadExecutor, () -> " + call + ")";
+                        } else {
+                            call = "invoke(() -> " + call + ")";
+                        }
+                        out.println("        server.callHandler(" + protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Method, request -> request.last()");
+                        out.println("                .compose(req -> req != null");
+                        out.println("                        ? " + call);
+                        out.println("                        : Future.failedFuture(Status.INVALID_ARGUMENT.withDescription(\"Request message missing\").asRuntimeException()))");
+                        if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                            out.println("                .onSuccess(resp -> request.response().end())");
+                        } else if (method.getCompression() != null) {
+                            out.println("                .onSuccess(message -> {");
+                            out.println("                    if (" + compression + ".shouldCompress(message.getSerializedSize())) {");
+                            out.println("                        request.response().encoding(" + compression + ".getCodec());");
+                            out.println("                    }");
+                            out.println("                    request.response().end(message);");
+                            out.println("                })");
+                        } else {
+                            out.println("                .onSuccess(message -> request.response().end(message))");
+                        }
+                        out.println("                .onFailure(error -> fail(request.response(), error)));");
+                        out.println("");
+                    }
+                    out.println("        return this;");
+                    out.println("    }");
+
+                }
+
+                // end class
+                out.println("}");
+                out.println("");
+            }
+        }
+    }
+
+    @SneakyThrows
+    public void generateVerxFutureClientImpl(Filer filer, List<ProtoFile> protoFiles) {
+        for (ProtoFile protoFile : protoFiles) {
+            String protoClassName = protoFile.getOuterClassName() + "Proto";
+            String className = protoFile.getOuterClassName() + "VertxGrpcClient";
+            String fullClassName = protoFile.getPackageName() + "." + className;
+            checkNoStreaming(protoFile);
+
+            JavaFileObject builderFile = filer.createSourceFile(fullClassName);
+            try (PrintWriter out = new PrintWriter(builderFile.openWriter())) {
+                out.println("package " + protoFile.getPackageName() + ";");
+                out.println("");
+                out.println("import io.vertx.core.Future;");
+                out.println("import io.vertx.core.Vertx;");
+                out.println("import io.vertx.core.net.SocketAddress;");
+                out.println("import io.vertx.grpc.client.GrpcClient;");
+                out.println("");
+                out.println("public class " + className + " {");
+                out.println("");
+                out.println("    private final GrpcClient client;");
+                out.println("    private final SocketAddress socketAddress;");
+                out.println("");
+                out.println("    public " + className + "(Vertx vertx, SocketAddress socketAddress) {");
+                out.println("        this.client = GrpcClient.client(vertx);");
+                out.println("        this.socketAddress = socketAddress;");
+                out.println("    }");
+                out.println("");
+                out.println("    /**");
+                out.println("     * A client connecting to the server listening on the Unix domain socket at {@code path}.");
+                out.println("     * Requires Vert.x created with native transport preferred ({@code VertxOptions.setPreferNativeTransport(true)}).");
+                out.println("     */");
+                out.println("    public static " + className + " forDomainSocket(Vertx vertx, String path) {");
+                out.println("        if (!vertx.isNativeTransportEnabled()) {");
+                out.println("            throw new IllegalStateException(\"Unix domain sockets require the Vert.x native transport\");");
+                out.println("        }");
+                out.println("        return new " + className + "(vertx, SocketAddress.domainSocketAddress(path));");
+                out.println("    }");
+                out.println("");
+
+                for (Service service : protoFile.getServices()) {
+
+                    for (Method method : service.getMethods()) {
+                        String inputType = method.getInputType().getClassName();
+                        String outputType = method.getOutputType().getClassName();
+                        if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                            out.println("    public Future<Void> " + method.getMethodName() + "(" + inputType + " request) {");
+                        } else {
+                            out.println("    public Future<" + outputType + "> " + method.getMethodName() + "(" + inputType + " request) {");
+                        }
+                        out.println("        return client.request(socketAddress, " + protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Method)");
+                        out.println("                .compose(req -> {");
+                        if (method.getCompression() != null) {
+                            String compression = protoClassName + "." + service.getServiceName() + "Service." + method.getMethodName() + "Compression";
+                            out.println("                    " + protoFile.getOuterClassName() + "." + inputType + " message = " + protoClassName + "." + inputType + "Message.toProto(request);");
+                            out.println("                    if (" + compression + ".shouldCompress(message.getSerializedSize())) {");
+                            out.println("                        req.encoding(" + compression + ".getCodec());");
+                            out.println("                    }");
+                            out.println("                    req.end(message);");
+                        } else {
+                            out.println("                    req.end(" + protoClassName + "." + inputType + "Message.toProto(request));");
+                        }
+                        out.println("                    return req.response().compose(resp -> resp.last());");
+                        if (method.getAsyncType() == AsyncType.STREAM_OBSERVER) {
+                            out.println("                }).mapEmpty();");
+                        } else {
+                            out.println("                }).map(" + protoClassName + "." + outputType + "Message::fromProto);");
+                        }
+                        out.println("    }");
+                        out.println("");
+                    }
+
+                }
+
+                // end class
+                out.println("}");
+                out.println("");
+            }
+        }
+    }
+
+    private void checkNoStreaming(ProtoFile protoFile) {
+        for (Service service : protoFile.getServices()) {
+            for (Method method : service.getMethods()) {
+                if (method.isStreaming()) {
+                    throw new RuntimeException("Streaming method '" + method.getMethodName() + "' is only supported with " + MODE_OPTION + "=rx");
+                }
+            }
+        }
+    }
 }
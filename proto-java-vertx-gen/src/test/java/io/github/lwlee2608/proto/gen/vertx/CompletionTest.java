@@ -0,0 +1,152 @@
+package io.github.lwlee2608.proto.gen.vertx;
+
+import io.github.lwlee2608.proto.gen.executor.BlockingExecutors;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.reactivex.Single;
+import io.vertx.core.Promise;
+import io.vertx.grpc.client.GrpcClient;
+import io.vertx.grpc.common.GrpcStatus;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.net.SocketAddress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class CompletionTest {
+    private static final int PORT = 8090;
+
+    private final Vertx vertx = Vertx.vertx();
+
+    @AfterEach
+    void tearDown() {
+        vertx.rxClose().blockingAwait();
+    }
+
+    @Test
+    void testWorkerOffload() {
+        AtomicReference<Thread> implThread = new AtomicReference<>();
+        start(new UnimplementedEchoer() {
+            @Override
+            public Single<EchoReply> echoOnWorker(EchoRequest request) {
+                implThread.set(Thread.currentThread());
+                return Single.just(new EchoReply().setMessage(request.getMessage() + " World"));
+            }
+        });
+
+        Assertions.assertEquals("Hello World", client().echoOnWorker(new EchoRequest().setMessage("Hello")).timeout(5, TimeUnit.SECONDS).blockingGet().getMessage());
+        Assertions.assertTrue(implThread.get().getName().startsWith("vert.x-worker-thread-"), implThread.get().getName());
+    }
+
+    @Test
+    void testVirtualThreadOffload() {
+        AtomicReference<Thread> implThread = new AtomicReference<>();
+        start(new UnimplementedEchoer() {
+            @Override
+            public Single<EchoReply> echoOnVirtualThread(EchoRequest request) {
+                implThread.set(Thread.currentThread());
+                return Single.just(new EchoReply().setMessage(request.getMessage() + " World"));
+            }
+        });
+
+        Assertions.assertEquals("Hello World", client().echoOnVirtualThread(new EchoRequest().setMessage("Hello")).timeout(5, TimeUnit.SECONDS).blockingGet().getMessage());
+        if (BlockingExecutors.isVirtualThreads()) {
+            Assertions.assertTrue(isVirtual(implThread.get()), implThread.get().toString());
+        } else {
+            Assertions.assertTrue(implThread.get().getName().startsWith("proto-blocking-"), implThread.get().getName());
+        }
+    }
+
+    @Test
+    void testFailingSingleEndsCallWithStatus() throws Exception {
+        start(new UnimplementedEchoer() {
+            @Override
+            public Single<EchoReply> echo(EchoRequest request) {
+                return Single.error(Status.NOT_FOUND.withDescription("No " + request.getMessage()).asRuntimeException());
+            }
+        });
+
+        Assertions.assertEquals(GrpcStatus.NOT_FOUND, status(EchoProto.EchoerService.echoMethod, new EchoRequest().setMessage("Hello")));
+    }
+
+    @Test
+    void testThrowingImplementationEndsCallWithUnknown() throws Exception {
+        start(new UnimplementedEchoer() {
+            @Override
+            public Single<EchoReply> echo(EchoRequest request) {
+                throw new IllegalStateException("Broken");
+            }
+        });
+
+        Assertions.assertEquals(GrpcStatus.UNKNOWN, status(EchoProto.EchoerService.echoMethod, new EchoRequest().setMessage("Hello")));
+    }
+
+    @Test
+    void testFailingOffloadedCallEndsWithStatus() throws Exception {
+        start(new UnimplementedEchoer() {
+            @Override
+            public Single<EchoReply> echoOnWorker(EchoRequest request) {
+                throw Status.RESOURCE_EXHAUSTED.asRuntimeException();
+            }
+
+            @Override
+            public Single<EchoReply> echoOnVirtualThread(EchoRequest request) {
+                return Single.error(Status.ABORTED.asRuntimeException());
+            }
+        });
+
+        Assertions.assertEquals(GrpcStatus.RESOURCE_EXHAUSTED, status(EchoProto.EchoerService.echoOnWorkerMethod, new EchoRequest().setMessage("Hello")));
+        Assertions.assertEquals(GrpcStatus.ABORTED, status(EchoProto.EchoerService.echoOnVirtualThreadMethod, new EchoRequest().setMessage("Hello")));
+    }
+
+    @Test
+    void testMissingRequestMessage() throws Exception {
+        start(new UnimplementedEchoer());
+
+        Assertions.assertEquals(GrpcStatus.INVALID_ARGUMENT, status(EchoProto.EchoerService.echoMethod, null));
+    }
+
+    private void start(EchoVertxGrpcServer.EchoerApi implementation) {
+        EchoVertxGrpcServer server = new EchoVertxGrpcServer(vertx).callHandlers(implementation);
+        vertx.createHttpServer().requestHandler(server.getGrpcServer()).rxListen(PORT).blockingGet();
+    }
+
+    private EchoVertxGrpcClient client() {
+        return new EchoVertxGrpcClient(vertx, SocketAddress.inetSocketAddress(PORT, "localhost"));
+    }
+
+    /**
+     * Status the call ended with, read with the core client which unlike the generated one does not turn it into an error.
+     */
+    private GrpcStatus status(MethodDescriptor<Echo.EchoRequest, Echo.EchoReply> method, EchoRequest request) throws Exception {
+        GrpcClient client = GrpcClient.client(vertx.getDelegate());
+        return client.request(SocketAddress.inetSocketAddress(PORT, "localhost").getDelegate(), method)
+                .compose(req -> {
+                    if (request == null) {
+                        req.end();
+                    } else {
+                        req.end(EchoProto.EchoRequestMessage.toProto(request));
+                    }
+                    return req.response();
+                })
+                .compose(resp -> {
+                    Promise<GrpcStatus> status = Promise.promise();
+                    resp.handler(reply -> { });
+                    resp.exceptionHandler(status::tryFail);
+                    resp.endHandler(end -> status.tryComplete(resp.status()));
+                    return status.future();
+                })
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+}
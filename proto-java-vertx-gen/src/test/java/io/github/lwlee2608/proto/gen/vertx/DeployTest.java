@@ -0,0 +1,55 @@
+package io.github.lwlee2608.proto.gen.vertx;
+
+import io.reactivex.Single;
+import io.vertx.core.VertxOptions;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.net.SocketAddress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+class DeployTest {
+    private static final int PORT = 8090;
+    private static final int EVENT_LOOPS = 4;
+
+    private final Vertx vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(EVENT_LOOPS));
+
+    @AfterEach
+    void tearDown() {
+        vertx.rxClose().blockingAwait();
+    }
+
+    @Test
+    void testOneServerPerEventLoop() {
+        Set<EchoVertxGrpcServer> servers = ConcurrentHashMap.newKeySet();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        String deploymentId = EchoVertxGrpcServer.deploy(vertx, PORT, EVENT_LOOPS, server -> {
+            servers.add(server);
+            server.callHandlers(new UnimplementedEchoer() {
+                @Override
+                public Single<EchoReply> echo(EchoRequest request) {
+                    threads.add(Thread.currentThread());
+                    return Single.just(new EchoReply().setMessage(request.getMessage() + " World"));
+                }
+            });
+        }).blockingGet();
+
+        Assertions.assertTrue(vertx.deploymentIDs().contains(deploymentId));
+        Assertions.assertEquals(EVENT_LOOPS, servers.size());
+
+        // Every client opens its own connection, Vert.x hands them to the servers in turn
+        for (int i = 0; i < 2 * EVENT_LOOPS; i++) {
+            EchoVertxGrpcClient client = new EchoVertxGrpcClient(vertx, SocketAddress.inetSocketAddress(PORT, "localhost"));
+            EchoReply reply = client.echo(new EchoRequest().setMessage("Hello " + i)).timeout(5, TimeUnit.SECONDS).blockingGet();
+            Assertions.assertEquals("Hello " + i + " World", reply.getMessage());
+        }
+        Assertions.assertTrue(threads.size() > 1, threads.toString());
+        for (Thread thread : threads) {
+            Assertions.assertTrue(thread.getName().startsWith("vert.x-eventloop-thread-"), thread.getName());
+        }
+    }
+}
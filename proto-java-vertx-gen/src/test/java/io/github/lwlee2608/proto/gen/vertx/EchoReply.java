@@ -0,0 +1,13 @@
+package io.github.lwlee2608.proto.gen.vertx;
+
+import io.github.lwlee2608.proto.annotation.ProtoField;
+import io.github.lwlee2608.proto.annotation.ProtoMessage;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+@ProtoMessage(protoName = "echo", protoPackage = "test.vertx")
+public class EchoReply {
+    @ProtoField(tag = 1) private String message;
+}
@@ -0,0 +1,14 @@
+package io.github.lwlee2608.proto.gen.vertx;
+
+import io.github.lwlee2608.proto.annotation.ProtoField;
+import io.github.lwlee2608.proto.annotation.ProtoMessage;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+@ProtoMessage(protoName = "echo", protoPackage = "test.vertx")
+public class EchoRequest {
+    @ProtoField(tag = 1) private String message;
+    @ProtoField(tag = 2) private Integer count;
+}
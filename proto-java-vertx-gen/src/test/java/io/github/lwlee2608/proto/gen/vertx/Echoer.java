@@ -0,0 +1,21 @@
+package io.github.lwlee2608.proto.gen.vertx;
+
+import io.github.lwlee2608.proto.annotation.Offload;
+import io.github.lwlee2608.proto.annotation.ProtoMethod;
+import io.github.lwlee2608.proto.annotation.ProtoService;
+import io.grpc.stub.StreamObserver;
+
+import java.util.concurrent.CompletableFuture;
+
+@ProtoService(protoName = "echo", protoPackage = "test.vertx")
+public interface Echoer {
+    @ProtoMethod CompletableFuture<EchoReply> echo(EchoRequest request);
+
+    @ProtoMethod(offload = Offload.WORKER) EchoReply echoOnWorker(EchoRequest request);
+
+    @ProtoMethod(offload = Offload.VIRTUAL_THREAD) EchoReply echoOnVirtualThread(EchoRequest request);
+
+    @ProtoMethod(serverStreaming = true) void count(EchoRequest request, StreamObserver<EchoReply> responseObserver);
+
+    @ProtoMethod(clientStreaming = true) StreamObserver<EchoRequest> collect(StreamObserver<EchoReply> responseObserver);
+}
@@ -0,0 +1,112 @@
+package io.github.lwlee2608.proto.gen.vertx;
+
+import io.grpc.Status;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.subscribers.TestSubscriber;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.net.SocketAddress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class StreamingTest {
+    private static final int PORT = 8090;
+
+    private final Vertx vertx = Vertx.vertx();
+    private final AtomicInteger produced = new AtomicInteger();
+    private EchoVertxGrpcClient client;
+
+    @BeforeEach
+    void setUp() {
+        EchoVertxGrpcServer server = new EchoVertxGrpcServer(vertx).callHandlers(new UnimplementedEchoer() {
+            @Override
+            public Flowable<EchoReply> count(EchoRequest request) {
+                Flowable<EchoReply> replies = Flowable.range(0, request.getCount())
+                        .doOnNext(i -> produced.incrementAndGet())
+                        .map(i -> new EchoReply().setMessage(request.getMessage() + " " + i));
+                if ("Abort".equals(request.getMessage())) {
+                    return replies.concatWith(Flowable.error(Status.ABORTED.asRuntimeException()));
+                }
+                return replies;
+            }
+
+            @Override
+            public Single<EchoReply> collect(Flowable<EchoRequest> requests) {
+                return requests.map(EchoRequest::getMessage)
+                        .toList()
+                        .map(messages -> new EchoReply().setMessage(String.join(",", messages)));
+            }
+        });
+        vertx.createHttpServer().requestHandler(server.getGrpcServer()).rxListen(PORT).blockingGet();
+        client = new EchoVertxGrpcClient(vertx, SocketAddress.inetSocketAddress(PORT, "localhost"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.rxClose().blockingAwait();
+    }
+
+    @Test
+    void testServerStreaming() {
+        List<EchoReply> replies = client.count(new EchoRequest().setMessage("Hello").setCount(100))
+                .toList()
+                .timeout(5, TimeUnit.SECONDS)
+                .blockingGet();
+
+        Assertions.assertEquals(100, replies.size());
+        for (int i = 0; i < replies.size(); i++) {
+            Assertions.assertEquals("Hello " + i, replies.get(i).getMessage());
+        }
+    }
+
+    @Test
+    void testClientStreaming() {
+        EchoReply reply = client.collect(Flowable.range(0, 100).map(i -> new EchoRequest().setMessage(String.valueOf(i))))
+                .timeout(5, TimeUnit.SECONDS)
+                .blockingGet();
+
+        Assertions.assertEquals(IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.joining(",")), reply.getMessage());
+    }
+
+    @Test
+    void testErrorMidStream() {
+        TestSubscriber<EchoReply> replies = client.count(new EchoRequest().setMessage("Abort").setCount(3)).test();
+
+        Assertions.assertTrue(replies.awaitTerminalEvent(5, TimeUnit.SECONDS));
+        replies.assertValueCount(3);
+        Assertions.assertEquals(1, replies.errors().size());
+        Assertions.assertEquals(Status.Code.ABORTED, Status.fromThrowable(replies.errors().get(0)).getCode());
+    }
+
+    @Test
+    void testSlowConsumer() throws InterruptedException {
+        String payload = "x".repeat(1024);
+        TestSubscriber<EchoReply> replies = client.count(new EchoRequest().setMessage(payload).setCount(1_000_000)).test(0);
+
+        replies.requestMore(10);
+        replies.awaitCount(10);
+        replies.assertValueCount(10);
+        // Give the server time to run ahead of the consumer as far as flow control lets it
+        Thread.sleep(500);
+
+        // The server stops producing once the HTTP/2 window and the write queue are full, instead of buffering the stream
+        int producedWhilePaused = produced.get();
+        Assertions.assertTrue(producedWhilePaused < 10_000, "Produced " + producedWhilePaused + " replies");
+        replies.assertValueCount(10);
+        replies.assertNotTerminated();
+
+        // Requesting more resumes the stream
+        replies.requestMore(100);
+        replies.awaitCount(110);
+        replies.assertValueCount(110);
+        replies.cancel();
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.lwlee2608.proto.gen.vertx;
+
+import io.grpc.Status;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+
+/**
+ * Fails every call with {@code UNIMPLEMENTED}, tests override the methods they call.
+ */
+class UnimplementedEchoer implements EchoVertxGrpcServer.EchoerApi {
+    @Override
+    public Single<EchoReply> echo(EchoRequest request) {
+        return Single.error(Status.UNIMPLEMENTED.asRuntimeException());
+    }
+
+    @Override
+    public Single<EchoReply> echoOnWorker(EchoRequest request) {
+        return Single.error(Status.UNIMPLEMENTED.asRuntimeException());
+    }
+
+    @Override
+    public Single<EchoReply> echoOnVirtualThread(EchoRequest request) {
+        return Single.error(Status.UNIMPLEMENTED.asRuntimeException());
+    }
+
+    @Override
+    public Flowable<EchoReply> count(EchoRequest request) {
+        return Flowable.error(Status.UNIMPLEMENTED.asRuntimeException());
+    }
+
+    @Override
+    public Single<EchoReply> collect(Flowable<EchoRequest> requests) {
+        return Single.error(Status.UNIMPLEMENTED.asRuntimeException());
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.lwlee2608.proto.gen.vertx.future;
+
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.grpc.client.GrpcClient;
+import io.vertx.grpc.common.GrpcStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class FutureModeTest {
+    private static final int PORT = 8090;
+    private static final SocketAddress ADDRESS = SocketAddress.inetSocketAddress(PORT, "localhost");
+
+    private final Vertx vertx = Vertx.vertx();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        await(vertx.close());
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        AtomicReference<Thread> implThread = new AtomicReference<>();
+        start(new UnimplementedGreeter() {
+            @Override
+            public Future<GreetingReply> greet(GreetingRequest request) {
+                implThread.set(Thread.currentThread());
+                return Future.succeededFuture(new GreetingReply().setMessage(request.getMessage() + " World"));
+            }
+        });
+
+        GreetingVertxGrpcClient client = new GreetingVertxGrpcClient(vertx, ADDRESS);
+        Assertions.assertEquals("Hello World", await(client.greet(new GreetingRequest().setMessage("Hello"))).getMessage());
+        Assertions.assertTrue(implThread.get().getName().startsWith("vert.x-eventloop-thread-"), implThread.get().getName());
+    }
+
+    @Test
+    void testWorkerOffload() throws Exception {
+        AtomicReference<Thread> implThread = new AtomicReference<>();
+        start(new UnimplementedGreeter() {
+            @Override
+            public Future<GreetingReply> greetOnWorker(GreetingRequest request) {
+                implThread.set(Thread.currentThread());
+                return Future.succeededFuture(new GreetingReply().setMessage(request.getMessage() + " World"));
+            }
+        });
+
+        GreetingVertxGrpcClient client = new GreetingVertxGrpcClient(vertx, ADDRESS);
+        Assertions.assertEquals("Hello World", await(client.greetOnWorker(new GreetingRequest().setMessage("Hello"))).getMessage());
+        Assertions.assertTrue(implThread.get().getName().startsWith("vert.x-worker-thread-"), implThread.get().getName());
+    }
+
+    @Test
+    void testFailingFutureEndsCallWithStatus() throws Exception {
+        start(new UnimplementedGreeter() {
+            @Override
+            public Future<GreetingReply> greet(GreetingRequest request) {
+                return Future.failedFuture(Status.NOT_FOUND.withDescription("No " + request.getMessage()).asRuntimeException());
+            }
+
+            @Override
+            public Future<GreetingReply> greetOnWorker(GreetingRequest request) {
+                throw Status.RESOURCE_EXHAUSTED.asRuntimeException();
+            }
+        });
+
+        Assertions.assertEquals(GrpcStatus.NOT_FOUND, status(GreetingProto.GreeterService.greetMethod));
+        Assertions.assertEquals(GrpcStatus.RESOURCE_EXHAUSTED, status(GreetingProto.GreeterService.greetOnWorkerMethod));
+    }
+
+    @Test
+    void testThrowingImplementationEndsCallWithUnknown() throws Exception {
+        start(new UnimplementedGreeter() {
+            @Override
+            public Future<GreetingReply> greet(GreetingRequest request) {
+                throw new IllegalStateException("Broken");
+            }
+        });
+
+        Assertions.assertEquals(GrpcStatus.UNKNOWN, status(GreetingProto.GreeterService.greetMethod));
+    }
+
+    private void start(GreetingVertxGrpcServer.GreeterApi implementation) throws Exception {
+        GreetingVertxGrpcServer server = new GreetingVertxGrpcServer(vertx).callHandlers(implementation);
+        await(vertx.createHttpServer().requestHandler(server.getGrpcServer()).listen(PORT));
+    }
+
+    /**
+     * Status the call ended with, read with the core client which unlike the generated one does not turn it into an error.
+     */
+    private GrpcStatus status(MethodDescriptor<Greeting.GreetingRequest, Greeting.GreetingReply> method) throws Exception {
+        GrpcClient client = GrpcClient.client(vertx);
+        return await(client.request(ADDRESS, method)
+                .compose(req -> {
+                    req.end(GreetingProto.GreetingRequestMessage.toProto(new GreetingRequest().setMessage("Hello")));
+                    return req.response();
+                })
+                .compose(resp -> {
+                    Promise<GrpcStatus> status = Promise.promise();
+                    resp.handler(reply -> { });
+                    resp.exceptionHandler(status::tryFail);
+                    resp.endHandler(end -> status.tryComplete(resp.status()));
+                    return status.future();
+                }));
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+}
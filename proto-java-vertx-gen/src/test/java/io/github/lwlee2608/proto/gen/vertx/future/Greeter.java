@@ -0,0 +1,14 @@
+package io.github.lwlee2608.proto.gen.vertx.future;
+
+import io.github.lwlee2608.proto.annotation.Offload;
+import io.github.lwlee2608.proto.annotation.ProtoMethod;
+import io.github.lwlee2608.proto.annotation.ProtoService;
+
+import java.util.concurrent.CompletableFuture;
+
+@ProtoService(protoName = "greeting", protoPackage = "test.vertx.future")
+public interface Greeter {
+    @ProtoMethod CompletableFuture<GreetingReply> greet(GreetingRequest request);
+
+    @ProtoMethod(offload = Offload.WORKER) GreetingReply greetOnWorker(GreetingRequest request);
+}
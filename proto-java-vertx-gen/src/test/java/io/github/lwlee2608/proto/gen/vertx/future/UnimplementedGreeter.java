@@ -0,0 +1,19 @@
+package io.github.lwlee2608.proto.gen.vertx.future;
+
+import io.grpc.Status;
+import io.vertx.core.Future;
+
+/**
+ * Fails every call with {@code UNIMPLEMENTED}, tests override the methods they call.
+ */
+class UnimplementedGreeter implements GreetingVertxGrpcServer.GreeterApi {
+    @Override
+    public Future<GreetingReply> greet(GreetingRequest request) {
+        return Future.failedFuture(Status.UNIMPLEMENTED.asRuntimeException());
+    }
+
+    @Override
+    public Future<GreetingReply> greetOnWorker(GreetingRequest request) {
+        return Future.failedFuture(Status.UNIMPLEMENTED.asRuntimeException());
+    }
+}